@@ -0,0 +1,101 @@
+package com.boomi.flow.services.boomi.mdh.benchmarks;
+
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader;
+import com.boomi.flow.services.boomi.mdh.common.Entities;
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping records between the Hub's field names and Flow's, in both directions.
+ *
+ * Loading renames the decoded records in place, so each operation decodes a fresh page first: compare it with
+ * {@link XmlDecodingBenchmark#decodeGoldenRecords} for the cost of the mapping alone. The universes are reused between
+ * operations, as they are in the service, so the mapping plans built for them stay warm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldMappingBenchmark {
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        @Param({ "repeatable", "nested-fieldgroup" })
+        String fixture;
+
+        Universe universe;
+        MObject object;
+
+        @Setup
+        public void setup() {
+            universe = Fixtures.readUniverse("field-map/" + fixture + "/universe.xml");
+            object = Fixtures.readMObject("field-map/" + fixture + "/mobject.json");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        @Param({ "100", "1000" })
+        int records;
+
+        @Param({ "20", "200" })
+        int fields;
+
+        Universe universe;
+        byte[] response;
+        List<MObject> objects;
+
+        @Setup
+        public void setup() {
+            universe = Fixtures.createUniverse(fields);
+            response = Fixtures.createQueryResponse(records, fields);
+
+            // The objects Flow sends back to be saved are the ones it was given when loading
+            objects = load(this);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> createHubFieldsFromFixture(Fixture fixture) {
+        return FieldMapper.createMapFromModelMobject(fixture.universe.getName(), fixture.object, fixture.universe);
+    }
+
+    @Benchmark
+    public List<MObject> loadGoldenRecords(Synthetic synthetic) {
+        return load(synthetic);
+    }
+
+    @Benchmark
+    public void createHubFields(Synthetic synthetic, Blackhole blackhole) {
+        for (MObject object : synthetic.objects) {
+            blackhole.consume(FieldMapper.createMapFromModelMobject(synthetic.universe.getName(), object, synthetic.universe));
+        }
+    }
+
+    private static List<MObject> load(Synthetic synthetic) {
+        GoldenRecordQueryResponse response = GoldenRecordQueryResponseReader.read(new ByteArrayInputStream(synthetic.response));
+
+        String universeId = synthetic.universe.getId().toString();
+
+        List<MObject> objects = new ArrayList<>();
+        for (GoldenRecord record : response.getRecords()) {
+            MObject object = Entities.createGoldenRecordMObject(universeId, record);
+            FieldMapper.renameMobjectPropertiesToUseUniqueId(synthetic.universe, object);
+
+            objects.add(object);
+        }
+
+        return objects;
+    }
+}
@@ -0,0 +1,156 @@
+package com.boomi.flow.services.boomi.mdh.benchmarks;
+
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.jackson.ObjectMapperFactory;
+import com.manywho.sdk.api.run.elements.type.MObject;
+
+import javax.xml.bind.JAXB;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The data the benchmarks run against: the existing test fixtures, and synthetic universes and golden record query
+ * responses that can be scaled up to hundreds of fields and thousands of records.
+ *
+ * Every tenth field of a synthetic universe is a field group of three fields, and the rest cycle through the common
+ * field types. The same seed always gives the same data, so runs can be compared with each other.
+ */
+public class Fixtures {
+    public static final String MODEL_NAME = "benchmark";
+
+    private static final String[] TYPES = new String[] { "STRING", "INTEGER", "DATETIME", "BOOLEAN", "FLOAT" };
+    private static final int GROUP_SIZE = 3;
+
+    public static byte[] readResource(String name) {
+        try {
+            return Resources.toByteArray(Resources.getResource(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Universe readUniverse(String name) {
+        return JAXB.unmarshal(Resources.getResource(name), Universe.class);
+    }
+
+    public static MObject readMObject(String name) {
+        try {
+            return ObjectMapperFactory.create().readValue(Resources.getResource(name), MObject.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Universe createUniverse(int fields) {
+        List<Universe.Layout.Model.Element> elements = new ArrayList<>();
+        elements.add(createElement("id", "STRING"));
+
+        for (int i = 1; i < fields; i++) {
+            if (isGroup(i)) {
+                Universe.Layout.Model.Element group = createElement(fieldName(i), "CONTAINER");
+
+                List<Universe.Layout.Model.Element> children = new ArrayList<>();
+                for (int j = 0; j < GROUP_SIZE; j++) {
+                    children.add(createElement(fieldName(i) + "_" + j, "STRING"));
+                }
+
+                group.setElements(children);
+
+                elements.add(group);
+            } else {
+                elements.add(createElement(fieldName(i), TYPES[i % TYPES.length]));
+            }
+        }
+
+        return new Universe()
+                .setId(UUID.nameUUIDFromBytes(("universe-" + fields).getBytes(StandardCharsets.UTF_8)))
+                .setVersion(UUID.nameUUIDFromBytes(("version-" + fields).getBytes(StandardCharsets.UTF_8)))
+                .setName(MODEL_NAME)
+                .setLayout(new Universe.Layout()
+                        .setIdXPath("/" + MODEL_NAME + "/id")
+                        .setModel(new Universe.Layout.Model()
+                                .setName(MODEL_NAME)
+                                .setElements(elements)));
+    }
+
+    /**
+     * A golden record query response, as the Hub would send it, for a universe made by {@link #createUniverse}
+     */
+    public static byte[] createQueryResponse(int records, int fields) {
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<RecordQueryResponse resultCount=\"").append(records).append("\" totalCount=\"").append(records).append("\">\n");
+
+        for (int record = 0; record < records; record++) {
+            String recordId = UUID.nameUUIDFromBytes(("record-" + record).getBytes(StandardCharsets.UTF_8)).toString();
+
+            xml.append("<Record recordId=\"").append(recordId).append("\" createdDate=\"2013-09-23T00:00:00Z\" updatedDate=\"2014-02-04T15:59:21Z\" recordTitle=\"Record ").append(record).append("\">\n")
+                    .append("<Fields><").append(MODEL_NAME).append(">\n")
+                    .append("<id>").append(recordId).append("</id>\n");
+
+            for (int i = 1; i < fields; i++) {
+                String name = fieldName(i);
+
+                xml.append('<').append(name).append('>');
+
+                if (isGroup(i)) {
+                    for (int j = 0; j < GROUP_SIZE; j++) {
+                        xml.append('<').append(name).append('_').append(j).append('>')
+                                .append("Value ").append(record).append(' ').append(j)
+                                .append("</").append(name).append('_').append(j).append('>');
+                    }
+                } else {
+                    xml.append(createValue(TYPES[i % TYPES.length], record, i));
+                }
+
+                xml.append("</").append(name).append(">\n");
+            }
+
+            xml.append("</").append(MODEL_NAME).append("></Fields>\n")
+                    .append("<links><link source=\"flow\" entityId=\"").append(recordId).append("\" establishedDate=\"2019-08-08T10:56:41Z\"/></links>\n")
+                    .append("</Record>\n");
+        }
+
+        xml.append("</RecordQueryResponse>\n");
+
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Universe.Layout.Model.Element createElement(String name, String type) {
+        Universe.Layout.Model.Element element = new Universe.Layout.Model.Element();
+        element.setName(name);
+        element.setUniqueId(name.toUpperCase());
+        element.setPrettyName(name);
+        element.setType(type);
+
+        return element;
+    }
+
+    private static String createValue(String type, int record, int field) {
+        switch (type) {
+            case "INTEGER":
+                return String.valueOf(record * field);
+            case "DATETIME":
+                return "2019-08-08T10:56:41Z";
+            case "BOOLEAN":
+                return String.valueOf(record % 2 == 0);
+            case "FLOAT":
+                return record + "." + field;
+            default:
+                return "Value " + record + " " + field;
+        }
+    }
+
+    private static boolean isGroup(int field) {
+        return field % 10 == 9;
+    }
+
+    private static String fieldName(int field) {
+        return "field_" + field;
+    }
+}
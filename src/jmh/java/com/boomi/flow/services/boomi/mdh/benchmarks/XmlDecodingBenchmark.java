@@ -0,0 +1,72 @@
+package com.boomi.flow.services.boomi.mdh.benchmarks;
+
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader;
+import com.boomi.flow.services.boomi.mdh.client.XmlCodec;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniversesResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the Hub's responses, which for golden records goes through XmlMapAdapter and MapAdapterCommon to turn each
+ * record's fields into properties
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlDecodingBenchmark {
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        byte[] goldenRecords;
+        byte[] universe;
+        byte[] universes;
+
+        @Setup
+        public void setup() {
+            goldenRecords = Fixtures.readResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml");
+            universe = Fixtures.readResource("mocks/universe.xml");
+            universes = Fixtures.readResource("mocks/universes-nested-elements.xml");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        @Param({ "100", "1000" })
+        int records;
+
+        @Param({ "20", "200" })
+        int fields;
+
+        byte[] response;
+
+        @Setup
+        public void setup() {
+            response = Fixtures.createQueryResponse(records, fields);
+        }
+    }
+
+    @Benchmark
+    public GoldenRecordQueryResponse decodeGoldenRecordFixture(Fixture fixture) {
+        return GoldenRecordQueryResponseReader.read(new ByteArrayInputStream(fixture.goldenRecords));
+    }
+
+    @Benchmark
+    public Universe decodeUniverseFixture(Fixture fixture) {
+        return XmlCodec.forType(Universe.class).read(new ByteArrayInputStream(fixture.universe));
+    }
+
+    @Benchmark
+    public UniversesResponse decodeUniversesFixture(Fixture fixture) {
+        return XmlCodec.forType(UniversesResponse.class).read(new ByteArrayInputStream(fixture.universes));
+    }
+
+    @Benchmark
+    public GoldenRecordQueryResponse decodeGoldenRecords(Synthetic synthetic) {
+        return GoldenRecordQueryResponseReader.read(new ByteArrayInputStream(synthetic.response));
+    }
+}
@@ -0,0 +1,53 @@
+package com.boomi.flow.services.boomi.mdh.database;
+
+import com.boomi.flow.services.boomi.mdh.benchmarks.Fixtures;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.manywho.sdk.api.draw.elements.type.TypeElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the Flow types for a universe, which happens for every universe that's new or has changed when the service
+ * is described. This lives alongside DescribeType, as building the types isn't public.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DescribeTypeBenchmark {
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        Universe universe;
+
+        @Setup
+        public void setup() {
+            universe = Fixtures.readUniverse("mocks/universe.xml");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        @Param({ "20", "200", "500" })
+        int fields;
+
+        Universe universe;
+
+        @Setup
+        public void setup() {
+            universe = Fixtures.createUniverse(fields);
+        }
+    }
+
+    @Benchmark
+    public List<TypeElement> describeFixture(Fixture fixture) {
+        return DescribeType.createModelTypes(fixture.universe);
+    }
+
+    @Benchmark
+    public List<TypeElement> describe(Synthetic synthetic) {
+        return DescribeType.createModelTypes(synthetic.universe);
+    }
+}
@@ -10,6 +10,7 @@ import javax.ws.rs.ApplicationPath;
 public class Application extends Servlet3Server {
     public Application() {
         this.addModule(new ApplicationModule());
+        this.addModule(new ApplicationModuleHttpClient());
         this.setApplication(Application.class);
         this.start();
     }
@@ -1,5 +1,6 @@
 package com.boomi.flow.services.boomi.mdh;
 
+import com.boomi.flow.services.boomi.mdh.client.HttpClientProvider;
 import com.google.inject.AbstractModule;
 import okhttp3.OkHttpClient;
 
@@ -8,6 +9,6 @@ import javax.inject.Singleton;
 public class ApplicationModuleHttpClient extends AbstractModule {
     @Override
     protected void configure() {
-        bind(OkHttpClient.class).toProvider(() -> new OkHttpClient.Builder().build()).in(Singleton.class);
+        bind(OkHttpClient.class).toProvider(HttpClientProvider.class).in(Singleton.class);
     }
 }
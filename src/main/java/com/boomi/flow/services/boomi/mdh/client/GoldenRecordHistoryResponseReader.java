@@ -0,0 +1,177 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistory;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistoryResponse;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.FACTORY;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.nextElement;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.nodeName;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.parseInteger;
+
+/**
+ * Reads a RecordHistoryResponse from the Hub with a StAX pull parser, building each {@link GoldenRecordHistory} as its
+ * element goes past, instead of having JAXB build a DOM for every version first and then walking it in
+ * {@link com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistoryAdapter}.
+ *
+ * The versions read are the same as the ones the adapter creates, including their field groups and repeatable field
+ * groups.
+ */
+public class GoldenRecordHistoryResponseReader {
+    public static GoldenRecordHistoryResponse read(InputStream stream) {
+        XMLStreamReader reader = null;
+
+        try {
+            reader = FACTORY.createXMLStreamReader(stream);
+
+            if (nextElement(reader) != XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("No root element was found in the response");
+            }
+
+            return readResponse(reader);
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new DataBindingException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing else we can do here
+                }
+            }
+        }
+    }
+
+    private static GoldenRecordHistoryResponse readResponse(XMLStreamReader reader) throws XMLStreamException {
+        GoldenRecordHistoryResponse response = new GoldenRecordHistoryResponse()
+                .setResultCount(parseInteger(reader.getAttributeValue(null, "resultCount")))
+                .setTotalCount(parseInteger(reader.getAttributeValue(null, "totalCount")))
+                .setGrid(reader.getAttributeValue(null, "grid"))
+                .setOffsetToken(reader.getAttributeValue(null, "offsetToken"));
+
+        List<GoldenRecordHistory> records = null;
+
+        // Every version is an element named after the model, so anything in the root is one
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (records == null) {
+                records = new ArrayList<>();
+            }
+
+            records.add(readVersion(reader));
+        }
+
+        return response.setRecords(records);
+    }
+
+    private static GoldenRecordHistory readVersion(XMLStreamReader reader) throws XMLStreamException {
+        GoldenRecordHistory history = new GoldenRecordHistory()
+                .setEndDate(parseDate(reader.getAttributeValue(null, "enddate")))
+                .setStartDate(parseDate(reader.getAttributeValue(null, "startdate")))
+                .setGrid(reader.getAttributeValue(null, "grid"))
+                .setSource(reader.getAttributeValue(null, "source"))
+                .setEndDateSource(reader.getAttributeValue(null, "enddatesource"))
+                .setTransactionId(reader.getAttributeValue(null, "transactionId"));
+
+        String version = reader.getAttributeValue(null, "version");
+        if (version != null) {
+            history.setVersion(Long.parseLong(version.trim()));
+        }
+
+        return history.setFields(readNode(reader).toGroup());
+    }
+
+    /**
+     * Reads the element the reader is at, up to and including its end tag. Only the version being read is ever held
+     * in memory.
+     */
+    private static Node readNode(XMLStreamReader reader) throws XMLStreamException {
+        Node node = new Node(nodeName(reader));
+        StringBuilder text = new StringBuilder();
+
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    node.children.add(readNode(reader));
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    text.append(reader.getText());
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    node.text = text.toString();
+
+                    return node;
+
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("The document ended before the " + node.name + " element was closed");
+            }
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private final List<Node> children = new ArrayList<>();
+        private String text;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        private Map<String, Object> toGroup() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+
+            for (Node child : children) {
+                Object value = child.toValue();
+                if (value != null) {
+                    fields.put(child.name, value);
+                }
+            }
+
+            return fields;
+        }
+
+        /**
+         * Like the adapter, an element whose first child has children of its own is a repeatable field group, given as
+         * a list, and any other element with children is a field group, given as a map
+         */
+        private Object toValue() {
+            if (children.isEmpty()) {
+                return text.isEmpty() ? null : text;
+            }
+
+            if (children.get(0).children.isEmpty()) {
+                return toGroup();
+            }
+
+            List<Map<String, Object>> groups = new ArrayList<>();
+            for (Node child : children) {
+                groups.add(Collections.singletonMap(child.name, child.toGroup()));
+            }
+
+            return groups;
+        }
+    }
+
+    private static OffsetDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        return OffsetDateTime.parse(value, GoldenRecordHistory.DATE_FORMAT);
+    }
+}
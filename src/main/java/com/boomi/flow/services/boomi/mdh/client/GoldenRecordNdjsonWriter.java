@@ -0,0 +1,254 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.FACTORY;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.nextElement;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.nodeName;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.parseInteger;
+import static com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader.skipElement;
+
+/**
+ * Copies the records in a RecordQueryResponse from the Hub straight into JSON, one object per record, as they're read.
+ * The records are separated by the generator's root value separator (a newline, for newline-delimited JSON). No {@link com.boomi.flow.services.boomi.mdh.records.GoldenRecord} or MObjects are built, and only
+ * the fields of the record being copied are ever held in memory.
+ *
+ * Each record's fields keep the names the Hub gives them, and are nested in the same way as the MObjects created by
+ * {@link GoldenRecordQueryResponseReader}: an element whose first child has children of its own is a collection of
+ * repeatable field groups (a JSON array), any other element with children is a field group (a JSON object), and the
+ * rest are fields (JSON strings). Dates are copied as the Hub gives them.
+ */
+public class GoldenRecordNdjsonWriter {
+    /**
+     * Writes every record in the response to the given generator, and gives back the response without its records
+     * (with the number of records written as its result count), so the caller can tell where the next page starts
+     */
+    public static GoldenRecordQueryResponse write(InputStream stream, JsonGenerator generator) {
+        XMLStreamReader reader = null;
+
+        try {
+            reader = FACTORY.createXMLStreamReader(stream);
+
+            if (nextElement(reader) != XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("No root element was found in the response");
+            }
+
+            GoldenRecordQueryResponse response = new GoldenRecordQueryResponse()
+                    .setOffsetToken(reader.getAttributeValue(null, "offsetToken"));
+
+            Integer totalCount = parseInteger(reader.getAttributeValue(null, "totalCount"));
+            if (totalCount != null) {
+                response.setTotalCount(totalCount);
+            }
+
+            int written = 0;
+
+            while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+                if (reader.getLocalName().equals("Record")) {
+                    writeRecord(reader, generator);
+
+                    written++;
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            return response.setResultCount(written);
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        } catch (IOException e) {
+            throw new OutputException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing else we can do here
+                }
+            }
+        }
+    }
+
+    private static void writeRecord(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        generator.writeStartObject();
+
+        writeAttribute(generator, "recordId", reader.getAttributeValue(null, "recordId"));
+        writeAttribute(generator, "createdDate", reader.getAttributeValue(null, "createdDate"));
+        writeAttribute(generator, "updatedDate", reader.getAttributeValue(null, "updatedDate"));
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "Fields":
+                    writeFields(reader, generator);
+                    break;
+                case "links":
+                    writeLinks(reader, generator);
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the entity inside a record's Fields element. Anything after it (e.g. fuzzy match details) is skipped.
+     */
+    private static void writeFields(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        Node entity = null;
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (entity == null) {
+                entity = readNode(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (entity == null) {
+            return;
+        }
+
+        generator.writeFieldName("fields");
+        writeObject(entity, generator);
+    }
+
+    private static void writeLinks(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        generator.writeArrayFieldStart("links");
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (reader.getLocalName().equals("link")) {
+                generator.writeStartObject();
+
+                writeAttribute(generator, "source", reader.getAttributeValue(null, "source"));
+                writeAttribute(generator, "entityId", reader.getAttributeValue(null, "entityId"));
+                writeAttribute(generator, "establishedDate", reader.getAttributeValue(null, "establishedDate"));
+
+                generator.writeEndObject();
+            }
+
+            skipElement(reader);
+        }
+
+        generator.writeEndArray();
+    }
+
+    /**
+     * Reads the element the reader is on, and everything inside it. Only the text of fields is kept, so any whitespace
+     * (or other text) between the children of a field group is dropped.
+     */
+    private static Node readNode(XMLStreamReader reader) throws XMLStreamException {
+        Node node = new Node(nodeName(reader));
+        StringBuilder text = new StringBuilder();
+
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (node.children == null) {
+                        node.children = new ArrayList<>();
+                    }
+
+                    node.children.add(readNode(reader));
+
+                    text.setLength(0);
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    text.append(reader.getText());
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    if (node.children == null && text.length() > 0) {
+                        node.text = text.toString();
+                    }
+
+                    return node;
+
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("The document ended before the " + node.name + " element was closed");
+            }
+        }
+    }
+
+    private static void writeValue(Node node, JsonGenerator generator) throws IOException {
+        if (node.children == null) {
+            generator.writeString(node.text);
+        } else if (node.isCollection()) {
+            generator.writeStartArray();
+
+            for (Node child : node.children) {
+                writeObject(child, generator);
+            }
+
+            generator.writeEndArray();
+        } else {
+            writeObject(node, generator);
+        }
+    }
+
+    private static void writeObject(Node node, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child.isEmpty()) {
+                    continue;
+                }
+
+                generator.writeFieldName(child.name);
+                writeValue(child, generator);
+            }
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Thrown when the records can't be written, rather than when the response can't be read
+     */
+    public static class OutputException extends UncheckedIOException {
+        private OutputException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private String text;
+        private List<Node> children;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        private boolean isCollection() {
+            return children != null && children.get(0).children != null;
+        }
+
+        private boolean isEmpty() {
+            return children == null && text == null;
+        }
+    }
+}
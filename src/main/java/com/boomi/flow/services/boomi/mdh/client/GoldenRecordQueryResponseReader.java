@@ -0,0 +1,474 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.manywho.sdk.api.ContentType;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads a RecordQueryResponse from the Hub with a StAX pull parser, building the {@link GoldenRecord} objects (and the
+ * MObjects for their fields) as the elements go past, instead of having JAXB build a DOM for every record's fields
+ * first and then walking it in {@link MapAdapterCommon}.
+ *
+ * The MObjects created are the same as the ones {@link XmlMapAdapter} creates, including which whitespace and mixed
+ * content is kept: text before a child element is dropped when it's only whitespace, and comments are skipped.
+ */
+public class GoldenRecordQueryResponseReader {
+    static final XMLInputFactory FACTORY = createFactory();
+
+    public static GoldenRecordQueryResponse read(InputStream stream) {
+        XMLStreamReader reader = null;
+
+        try {
+            reader = FACTORY.createXMLStreamReader(stream);
+
+            if (nextElement(reader) != XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("No root element was found in the response");
+            }
+
+            return readResponse(reader);
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new DataBindingException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing else we can do here
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+
+    private static GoldenRecordQueryResponse readResponse(XMLStreamReader reader) throws XMLStreamException {
+        GoldenRecordQueryResponse response = new GoldenRecordQueryResponse();
+
+        Integer resultCount = parseInteger(reader.getAttributeValue(null, "resultCount"));
+        if (resultCount != null) {
+            response.setResultCount(resultCount);
+        }
+
+        Integer totalCount = parseInteger(reader.getAttributeValue(null, "totalCount"));
+        if (totalCount != null) {
+            response.setTotalCount(totalCount);
+        }
+
+        response.setOffsetToken(reader.getAttributeValue(null, "offsetToken"));
+
+        List<GoldenRecord> records = null;
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (reader.getLocalName().equals("Record")) {
+                if (records == null) {
+                    records = new ArrayList<>();
+                }
+
+                records.add(readRecord(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return response.setRecords(records);
+    }
+
+    private static GoldenRecord readRecord(XMLStreamReader reader) throws XMLStreamException {
+        GoldenRecord record = new GoldenRecord()
+                .setRecordId(reader.getAttributeValue(null, "recordId"))
+                .setCreatedDate(parseDate(reader.getAttributeValue(null, "createdDate")))
+                .setUpdatedDate(parseDate(reader.getAttributeValue(null, "updatedDate")));
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "Fields":
+                    record.setMObject(readFields(reader));
+                    break;
+                case "links":
+                    record.setLinks(readLinks(reader));
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+
+        return record;
+    }
+
+    private static List<GoldenRecord.Link> readLinks(XMLStreamReader reader) throws XMLStreamException {
+        List<GoldenRecord.Link> links = new ArrayList<>();
+
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (reader.getLocalName().equals("link")) {
+                links.add(new GoldenRecord.Link()
+                        .setSource(reader.getAttributeValue(null, "source"))
+                        .setEntityId(reader.getAttributeValue(null, "entityId"))
+                        .setEstablishedDate(parseDate(reader.getAttributeValue(null, "establishedDate"))));
+            }
+
+            skipElement(reader);
+        }
+
+        return links;
+    }
+
+    /**
+     * Reads the entity inside a record's Fields element, in the same way as {@link XmlMapAdapter#unmarshal} and
+     * {@link MapAdapterCommon#createPropertiesModel} do, but with only the elements that are still open kept in memory.
+     */
+    private static MObject readFields(XMLStreamReader reader) throws XMLStreamException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        StringBuilder text = new StringBuilder();
+
+        String modelName = null;
+        String entityName = null;
+        List<Property> properties = null;
+        List<Property> fuzzyProperties = null;
+        int entities = 0;
+
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String name = nodeName(reader);
+
+                    if (stack.isEmpty()) {
+                        entities++;
+
+                        // Only the entity and its fuzzy match details (if there are any) are ever used
+                        if (entities > 2) {
+                            skipElement(reader);
+                            break;
+                        }
+
+                        if (entities == 1) {
+                            modelName = name;
+                        }
+
+                        entityName = name;
+
+                        stack.push(Frame.forEntity(name));
+                        break;
+                    }
+
+                    Frame parent = stack.peek();
+                    if (isIgnorable(text) == false) {
+                        parent.addText(text.toString());
+                    }
+
+                    text.setLength(0);
+
+                    stack.push(parent.addElement(name));
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (stack.isEmpty() == false) {
+                        text.append(reader.getText());
+                    }
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    if (stack.isEmpty()) {
+                        // This is the end of the Fields element
+                        if (entities == 0) {
+                            return null;
+                        }
+
+                        if (entities == 2) {
+                            XmlMapAdapter.addFuzzyMatchDetails(modelName, properties, fuzzyProperties);
+                        }
+
+                        return new MObject(modelName, "", properties);
+                    }
+
+                    Frame closed = stack.pop();
+                    if (text.length() > 0) {
+                        closed.addText(text.toString());
+                    }
+
+                    text.setLength(0);
+
+                    if (stack.isEmpty()) {
+                        if (entities == 1) {
+                            properties = closed.properties;
+                        } else {
+                            fuzzyProperties = closed.properties;
+                        }
+                    } else {
+                        stack.peek().close(entityName, closed);
+                    }
+                    break;
+
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("The document ended before the Fields element was closed");
+            }
+        }
+    }
+
+    /**
+     * Moves to the next start or end tag, skipping any text, comments or processing instructions in the way
+     */
+    static int nextElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                return event;
+            }
+        }
+
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    static String nodeName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if (prefix == null || prefix.isEmpty()) {
+            return reader.getLocalName();
+        }
+
+        return prefix + ":" + reader.getLocalName();
+    }
+
+    private static boolean isIgnorable(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static OffsetDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        // JAXB ignores values its adapters can't parse, so we do the same here
+        try {
+            return OffsetDateTime.parse(value, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private enum Kind {
+        UNKNOWN,
+        TEXT,
+        GROUP,
+        COLLECTION
+    }
+
+    private enum Output {
+        NONE,
+        PROPERTIES,
+        OBJECTS
+    }
+
+    /**
+     * An element that's still open. Depending on what its parent needs, it either collects the properties created from
+     * its children (like createPropertiesModel) or the objects created from its children (like createListMobject).
+     */
+    private static class Frame {
+        private final String name;
+        private final Frame parent;
+
+        private int children = 0;
+        private Kind kind = Kind.UNKNOWN;
+        private String text;
+        private String firstChildName;
+        private Output output;
+
+        private List<Property> properties;
+        private List<MObject> objects;
+
+        private Frame(String name, Frame parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        private static Frame forEntity(String name) {
+            Frame frame = new Frame(name, null);
+            frame.kind = Kind.GROUP;
+            frame.output = Output.PROPERTIES;
+            frame.properties = new ArrayList<>();
+
+            return frame;
+        }
+
+        private void addText(String content) {
+            if (children++ == 0) {
+                kind = Kind.TEXT;
+                text = content;
+
+                // The first child of our parent's first child isn't an element, so our parent is a single field group
+                if (parent != null && parent.kind == Kind.UNKNOWN) {
+                    parent.kind = Kind.GROUP;
+                }
+            }
+        }
+
+        private Frame addElement(String childName) {
+            if (children++ == 0) {
+                firstChildName = childName;
+
+                // The first child of our parent's first child is an element, so our parent is a collection of groups
+                if (parent != null && parent.kind == Kind.UNKNOWN) {
+                    parent.kind = Kind.COLLECTION;
+                }
+            }
+
+            return new Frame(childName, this);
+        }
+
+        private Output output() {
+            if (output != null) {
+                return output;
+            }
+
+            Output parentOutput = parent.output();
+            if (parentOutput == Output.NONE) {
+                output = Output.NONE;
+            } else if (parentOutput == Output.OBJECTS) {
+                output = Output.PROPERTIES;
+            } else if (kind == Kind.COLLECTION) {
+                output = Output.OBJECTS;
+            } else if (kind == Kind.GROUP) {
+                output = Output.PROPERTIES;
+            } else {
+                output = Output.NONE;
+            }
+
+            if (output == Output.PROPERTIES) {
+                properties = new ArrayList<>();
+            } else if (output == Output.OBJECTS) {
+                objects = new ArrayList<>();
+            }
+
+            return output;
+        }
+
+        private void close(String modelName, Frame child) {
+            // Our first child has closed without telling us what we are, so we're a single field group
+            if (kind == Kind.UNKNOWN) {
+                kind = Kind.GROUP;
+            }
+
+            switch (output()) {
+                case PROPERTIES:
+                    Property property = child.toProperty(modelName);
+                    if (property != null) {
+                        properties.add(property);
+                    }
+                    break;
+                case OBJECTS:
+                    MObject object = child.toObject(modelName);
+                    // if we return a mobject without properties the engine shows an error
+                    if (object != null) {
+                        objects.add(object);
+                    }
+                    break;
+            }
+        }
+
+        private Property toProperty(String modelName) {
+            if (children == 0) {
+                return null;
+            }
+
+            if (children == 1 && kind == Kind.TEXT) {
+                // this is a leaf with element text information
+                return new Property(name, text);
+            }
+
+            if (kind == Kind.COLLECTION) {
+                // this is a collection of repeatable field groups
+                Property propertyCollection = new Property(modelName + " - " + firstChildName, objects);
+                propertyCollection.setContentType(ContentType.List);
+
+                return propertyCollection;
+            }
+
+            if (kind == Kind.GROUP) {
+                MObject mObject = toObject(modelName);
+                if (mObject == null) {
+                    return null;
+                }
+
+                // this is a field group
+                Property propertyFieldGroup = new Property(modelName + " - " + name, mObject);
+                propertyFieldGroup.setContentType(ContentType.Object);
+
+                return propertyFieldGroup;
+            }
+
+            return null;
+        }
+
+        private MObject toObject(String modelName) {
+            if (properties == null || properties.isEmpty()) {
+                return null;
+            }
+
+            String developerName = modelName + " - " + name;
+            MObject object = new MObject(developerName, UUID.randomUUID().toString(), properties);
+            object.setTypeElementBindingDeveloperName(developerName);
+
+            return object;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the connections the HTTP client opens, reuses and fails on, and the TLS handshakes it makes, alongside the
+ * current state of its pool and dispatcher. A high rate of opened connections or handshakes compared to acquired ones
+ * means connections aren't being reused, e.g. because the pool is too small or keep-alive too short.
+ *
+ * These are published both over JMX and in the service's metrics registry, as the mdh.http meters.
+ */
+public class HttpClientMetrics extends EventListener implements HttpClientMetricsMXBean, MeterBinder {
+    private final static Logger LOGGER = LoggerFactory.getLogger(HttpClientMetrics.class);
+
+    static final String OBJECT_NAME = "com.boomi.flow.services.boomi.mdh:type=HttpClient";
+
+    private static final String METER_PREFIX = "mdh.http.";
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsFailed = new LongAdder();
+    private final LongAdder connectionsAcquired = new LongAdder();
+    private final LongAdder tlsHandshakes = new LongAdder();
+    private final LongAdder callsFailed = new LongAdder();
+
+    private volatile OkHttpClient client;
+
+    /**
+     * Starts reporting the pool and dispatcher of the given client, and publishes these metrics over JMX and in the
+     * service's metrics registry, replacing any that were published by an earlier client
+     */
+    void register(OkHttpClient client) {
+        this.client = client;
+
+        bindTo(ServiceMetrics.get());
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.warn("Unable to publish the HTTP client metrics over JMX", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Meter meter : registry.getMeters()) {
+            if (meter.getId().getName().startsWith(METER_PREFIX)) {
+                registry.remove(meter);
+            }
+        }
+
+        Gauge.builder(METER_PREFIX + "connections", this, metrics -> metrics.getConnectionCount() - metrics.getIdleConnectionCount())
+                .description("The connections in the HTTP client's pool")
+                .tag("state", "active")
+                .register(registry);
+
+        Gauge.builder(METER_PREFIX + "connections", this, HttpClientMetrics::getIdleConnectionCount)
+                .description("The connections in the HTTP client's pool")
+                .tag("state", "idle")
+                .register(registry);
+
+        Gauge.builder(METER_PREFIX + "calls", this, HttpClientMetrics::getRunningCallCount)
+                .description("The calls in the HTTP client's dispatcher")
+                .tag("state", "running")
+                .register(registry);
+
+        Gauge.builder(METER_PREFIX + "calls", this, HttpClientMetrics::getQueuedCallCount)
+                .description("The calls in the HTTP client's dispatcher")
+                .tag("state", "queued")
+                .register(registry);
+
+        FunctionCounter.builder(METER_PREFIX + "connections.opened", this, HttpClientMetrics::getConnectionsOpened)
+                .description("The connections the HTTP client has opened")
+                .register(registry);
+
+        FunctionCounter.builder(METER_PREFIX + "connections.failed", this, HttpClientMetrics::getConnectionsFailed)
+                .description("The connections the HTTP client has failed to open")
+                .register(registry);
+
+        FunctionCounter.builder(METER_PREFIX + "connections.acquired", this, HttpClientMetrics::getConnectionsAcquired)
+                .description("The connections the HTTP client has used for a call, whether new or reused from its pool")
+                .register(registry);
+
+        FunctionCounter.builder(METER_PREFIX + "tls.handshakes", this, HttpClientMetrics::getTlsHandshakes)
+                .description("The TLS handshakes the HTTP client has made")
+                .register(registry);
+
+        FunctionCounter.builder(METER_PREFIX + "calls.failed", this, HttpClientMetrics::getCallsFailed)
+                .description("The calls the HTTP client has failed to make")
+                .register(registry);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectionsOpened.increment();
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        connectionsFailed.increment();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        connectionsAcquired.increment();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsHandshakes.increment();
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        callsFailed.increment();
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return client == null ? 0 : client.connectionPool().connectionCount();
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return client == null ? 0 : client.connectionPool().idleConnectionCount();
+    }
+
+    @Override
+    public int getRunningCallCount() {
+        return client == null ? 0 : client.dispatcher().runningCallsCount();
+    }
+
+    @Override
+    public int getQueuedCallCount() {
+        return client == null ? 0 : client.dispatcher().queuedCallsCount();
+    }
+
+    @Override
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    @Override
+    public long getConnectionsFailed() {
+        return connectionsFailed.sum();
+    }
+
+    @Override
+    public long getConnectionsAcquired() {
+        return connectionsAcquired.sum();
+    }
+
+    @Override
+    public long getTlsHandshakes() {
+        return tlsHandshakes.sum();
+    }
+
+    @Override
+    public long getCallsFailed() {
+        return callsFailed.sum();
+    }
+}
@@ -0,0 +1,24 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+/**
+ * The HTTP client's pool, dispatcher and connection statistics, as exposed over JMX
+ */
+public interface HttpClientMetricsMXBean {
+    int getConnectionCount();
+
+    int getIdleConnectionCount();
+
+    int getRunningCallCount();
+
+    int getQueuedCallCount();
+
+    long getConnectionsOpened();
+
+    long getConnectionsFailed();
+
+    long getConnectionsAcquired();
+
+    long getTlsHandshakes();
+
+    long getCallsFailed();
+}
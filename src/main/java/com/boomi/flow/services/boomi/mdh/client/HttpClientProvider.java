@@ -0,0 +1,84 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.base.Splitter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Provider;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the OkHttpClient used to talk to every Hub, with its connection pool, dispatcher, timeouts and protocols taken
+ * from the service's settings, and registers its metrics (including the timings of every request sent to a Hub).
+ */
+public class HttpClientProvider implements Provider<OkHttpClient> {
+    private final static Logger LOGGER = LoggerFactory.getLogger(HttpClientProvider.class);
+
+    private static final String DEFAULT_PROTOCOLS = "h2,http/1.1";
+
+    @Override
+    public OkHttpClient get() {
+        int poolSize = Settings.getInt("mdh.http.pool.size", 50);
+        long keepAlive = Settings.getLong("mdh.http.keepalive", 300);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Settings.getInt("mdh.http.dispatcher.max.requests", 256));
+        dispatcher.setMaxRequestsPerHost(Settings.getInt("mdh.http.dispatcher.max.requests.per.host", 32));
+
+        HttpClientMetrics metrics = new HttpClientMetrics();
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(poolSize, keepAlive, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(Settings.getLong("mdh.http.timeout.connect", 10), TimeUnit.SECONDS)
+                .readTimeout(Settings.getLong("mdh.http.timeout.read", 60), TimeUnit.SECONDS)
+                .writeTimeout(Settings.getLong("mdh.http.timeout.write", 60), TimeUnit.SECONDS)
+                .protocols(parseProtocols(Settings.getString("mdh.http.protocols", DEFAULT_PROTOCOLS)))
+                .eventListenerFactory(call -> metrics)
+                .addInterceptor(new HubRequestMetrics())
+                .build();
+
+        metrics.register(client);
+
+        LOGGER.info("Created an HTTP client with a pool of {} connections kept alive for {}s, {} max requests ({} per host), timeouts of {}ms/{}ms/{}ms (connect/read/write) and the protocols {}",
+                poolSize, keepAlive, dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost(),
+                client.connectTimeoutMillis(), client.readTimeoutMillis(), client.writeTimeoutMillis(), client.protocols());
+
+        return client;
+    }
+
+    static List<Protocol> parseProtocols(String value) {
+        List<Protocol> protocols = new ArrayList<>();
+
+        try {
+            for (String name : Splitter.on(',').trimResults().omitEmptyStrings().split(value)) {
+                protocols.add(Protocol.get(name));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("The setting mdh.http.protocols has an invalid value of {}, so the default of {} will be used", value, DEFAULT_PROTOCOLS);
+
+            return Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        }
+
+        // OkHttp needs HTTP/1.1 to fall back to, unless it's been told to only speak cleartext HTTP/2
+        boolean valid = (protocols.contains(Protocol.HTTP_1_1) && !protocols.contains(Protocol.HTTP_1_0))
+                || (protocols.size() == 1 && protocols.contains(Protocol.H2_PRIOR_KNOWLEDGE));
+
+        if (!valid) {
+            LOGGER.warn("The setting mdh.http.protocols must include http/1.1 (and not http/1.0), so the default of {} will be used instead of {}", DEFAULT_PROTOCOLS, value);
+
+            return Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        }
+
+        return protocols;
+    }
+}
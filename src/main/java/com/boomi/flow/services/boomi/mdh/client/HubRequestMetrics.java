@@ -0,0 +1,198 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request sent to a Hub, tagged by the kind of request, the Hub's host and the status code it responded
+ * with, and measures the size of what was sent and received. Bodies that are streamed are counted as they're written
+ * or read, so their size is known even without a Content-Length.
+ */
+public class HubRequestMetrics implements Interceptor {
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+
+        String operation = toOperation(request);
+        String host = request.url().host();
+
+        if (request.body() != null) {
+            request = request.newBuilder()
+                    .method(request.method(), new CountingRequestBody(request.body(), operation))
+                    .build();
+        }
+
+        long start = System.nanoTime();
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            ServiceMetrics.hubRequests(operation, host, "IO_ERROR").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            throw e;
+        }
+
+        ServiceMetrics.hubRequests(operation, host, String.valueOf(response.code())).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (response.body() == null) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .body(new CountingResponseBody(response.body(), operation))
+                .build();
+    }
+
+    /**
+     * Names a request by what it does, rather than by its URL, so the universe IDs in paths don't become tags
+     */
+    static String toOperation(Request request) {
+        List<String> segments = request.url().pathSegments();
+
+        // Every Hub endpoint we call starts with mdm/universes
+        if (segments.size() < 2 || "mdm".equals(segments.get(0)) == false || "universes".equals(segments.get(1)) == false) {
+            return "other";
+        }
+
+        String resource = String.join("/", segments.subList(Math.min(3, segments.size()), segments.size()));
+
+        switch (resource) {
+            case "":
+                return segments.size() == 2 ? "universes.list" : "universes.get";
+            case "records/query":
+                return "records.query";
+            case "records":
+                return "records.update";
+            case "quarantine/query":
+                return "quarantine.query";
+            case "match":
+                return "match";
+            default:
+                return "other";
+        }
+    }
+
+    private static class CountingRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private final String operation;
+
+        private CountingRequestBody(RequestBody delegate, String operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            CountingSink counting = new CountingSink(sink);
+
+            BufferedSink buffered = Okio.buffer(counting);
+            delegate.writeTo(buffered);
+            buffered.flush();
+
+            ServiceMetrics.hubPayloads(operation, "request").record(counting.bytes);
+        }
+    }
+
+    private static class CountingSink extends ForwardingSink {
+        private long bytes;
+
+        private CountingSink(BufferedSink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+
+            bytes += byteCount;
+        }
+    }
+
+    private static class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final String operation;
+        private final BufferedSource source;
+
+        private long bytes;
+        private boolean recorded;
+
+        private CountingResponseBody(ResponseBody delegate, String operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read == -1) {
+                        record();
+                    } else {
+                        bytes += read;
+                    }
+
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    record();
+
+                    super.close();
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+
+        private void record() {
+            if (recorded) {
+                return;
+            }
+
+            recorded = true;
+
+            // The decoders can stop reading before the end of the body, so its length is used when the Hub gave it
+            long length = delegate.contentLength();
+
+            ServiceMetrics.hubPayloads(operation, "response").record(length >= 0 ? length : bytes);
+        }
+    }
+}
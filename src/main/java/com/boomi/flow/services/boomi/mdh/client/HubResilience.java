@@ -0,0 +1,338 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests to the Hubs, retrying reads that fail with a connection error or a 429, 502, 503 or 504 (waiting for
+ * as long as a Retry-After header asks, or otherwise backing off exponentially with jitter), and keeping a circuit
+ * breaker for each Hub. A read is never retried sooner than the Hub asked: if it asks for a longer wait than
+ * mdh.retry.after.max allows, its response is given back instead.
+ *
+ * Once a Hub has failed (with a connection error or any 5xx) too many times in a row its circuit opens, and requests to
+ * it fail straight away with a 503 instead of tying up a thread waiting on it. After a while a single trial request is
+ * let through, which closes the circuit again if it succeeds. Writes are never retried, as they might have been applied
+ * before they failed.
+ */
+class HubResilience {
+    private final static Logger LOGGER = LoggerFactory.getLogger(HubResilience.class);
+    private static final MediaType TEXT = MediaType.parse("text/plain; charset=utf-8");
+
+    // Only ever used to re-enqueue asynchronous retries once their backoff is over, so one thread is plenty
+    private static final ScheduledExecutorService RETRIES = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("mdh-retry-%d")
+            .setDaemon(true)
+            .build());
+
+    private final int maxAttempts = Settings.getInt("mdh.retry.max.attempts", 3);
+    private final long backoffBase = Settings.getLong("mdh.retry.backoff.base", 200);
+    private final long backoffMax = Settings.getLong("mdh.retry.backoff.max", 5000);
+    private final long retryAfterMax = Settings.getLong("mdh.retry.after.max", 10000);
+    private final int failureThreshold = Settings.getInt("mdh.circuit.failure.threshold", 5);
+    private final long openDuration = TimeUnit.SECONDS.toNanos(Settings.getLong("mdh.circuit.open.duration", 30));
+
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    Response execute(OkHttpClient httpClient, Request request, boolean idempotent) throws IOException {
+        long start = System.nanoTime();
+
+        try {
+            return executeAttempts(httpClient, request, idempotent);
+        } finally {
+            RequestTrace.record("hub", System.nanoTime() - start);
+        }
+    }
+
+    private Response executeAttempts(OkHttpClient httpClient, Request request, boolean idempotent) throws IOException {
+        String hostname = request.url().host().toLowerCase(Locale.ENGLISH);
+        CircuitBreaker breaker = breakers.computeIfAbsent(hostname, CircuitBreaker::new);
+
+        for (int attempt = 1; ; attempt++) {
+            if (breaker.allowRequest() == false) {
+                LOGGER.warn("Not sending a request to the Hub at {}, as it has failed too many times recently", hostname);
+
+                return createUnavailableResponse(request, hostname);
+            }
+
+            boolean canRetry = idempotent && attempt < maxAttempts;
+
+            long delay;
+            try {
+                Response response = httpClient.newCall(request).execute();
+
+                delay = onResponse(breaker, response, attempt, canRetry);
+                if (delay < 0) {
+                    return response;
+                }
+            } catch (IOException e) {
+                delay = onFailure(breaker, e, attempt, canRetry);
+                if (delay < 0) {
+                    throw e;
+                }
+            } catch (RuntimeException | Error e) {
+                // We don't know whether this reached the Hub, but it mustn't leave a trial request in flight forever
+                breaker.releaseTrial();
+
+                throw e;
+            }
+
+            sleep(delay);
+        }
+    }
+
+    /**
+     * The same as {@link #execute}, but without blocking the calling thread: the request is enqueued with OkHttp's
+     * dispatcher, and any retries are scheduled rather than slept for
+     */
+    CompletableFuture<Response> executeAsync(OkHttpClient httpClient, Request request, boolean idempotent) {
+        String hostname = request.url().host().toLowerCase(Locale.ENGLISH);
+        CircuitBreaker breaker = breakers.computeIfAbsent(hostname, CircuitBreaker::new);
+
+        CompletableFuture<Response> result = new CompletableFuture<>();
+
+        // The response arrives on one of OkHttp's threads, which the request's trace doesn't follow
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            long start = System.nanoTime();
+
+            result.whenComplete((response, e) -> trace.add("hub", System.nanoTime() - start));
+        }
+
+        attempt(httpClient, request, idempotent, breaker, 1, result);
+
+        return result;
+    }
+
+    private void attempt(OkHttpClient httpClient, Request request, boolean idempotent, CircuitBreaker breaker, int attempt, CompletableFuture<Response> result) {
+        if (breaker.allowRequest() == false) {
+            LOGGER.warn("Not sending a request to the Hub at {}, as it has failed too many times recently", breaker.hostname);
+
+            result.complete(createUnavailableResponse(request, breaker.hostname));
+            return;
+        }
+
+        boolean canRetry = idempotent && attempt < maxAttempts;
+
+        try {
+            enqueue(httpClient, request, idempotent, breaker, attempt, canRetry, result);
+        } catch (RuntimeException | Error e) {
+            breaker.releaseTrial();
+
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void enqueue(OkHttpClient httpClient, Request request, boolean idempotent, CircuitBreaker breaker, int attempt, boolean canRetry, CompletableFuture<Response> result) {
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                long delay = HubResilience.this.onFailure(breaker, e, attempt, canRetry);
+                if (delay < 0) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+
+                RETRIES.schedule(() -> attempt(httpClient, request, idempotent, breaker, attempt + 1, result), delay, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                long delay = HubResilience.this.onResponse(breaker, response, attempt, canRetry);
+                if (delay < 0) {
+                    result.complete(response);
+                    return;
+                }
+
+                RETRIES.schedule(() -> attempt(httpClient, request, idempotent, breaker, attempt + 1, result), delay, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Records a request that failed to reach the Hub, returning how long to wait before retrying it, or -1 if it
+     * shouldn't be retried
+     */
+    private long onFailure(CircuitBreaker breaker, IOException e, int attempt, boolean canRetry) {
+        breaker.recordFailure();
+
+        if (canRetry == false) {
+            return -1;
+        }
+
+        LOGGER.warn("Attempt {} of {} to the Hub at {} failed, so it will be retried", attempt, maxAttempts, breaker.hostname, e);
+
+        return calculateBackoff(attempt);
+    }
+
+    /**
+     * Records a response from the Hub, returning how long to wait before retrying the request, or -1 if the response
+     * should be given back as it is. A response that's going to be retried is closed.
+     */
+    private long onResponse(CircuitBreaker breaker, Response response, int attempt, boolean canRetry) {
+        // Any server error counts against the circuit, but a 429 means the Hub is busy rather than unhealthy
+        if (response.code() >= 500) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess();
+        }
+
+        if (canRetry == false || isRetryable(response.code()) == false) {
+            return -1;
+        }
+
+        long delay = calculateRetryAfter(response.header("Retry-After"), attempt);
+        if (delay < 0) {
+            LOGGER.warn("Attempt {} of {} to the Hub at {} failed with a {}, and it asked for a longer wait than we allow, so it won't be retried", attempt, maxAttempts, breaker.hostname, response.code());
+
+            return -1;
+        }
+
+        LOGGER.warn("Attempt {} of {} to the Hub at {} failed with a {}, so it will be retried in {}ms", attempt, maxAttempts, breaker.hostname, response.code(), delay);
+
+        response.close();
+
+        return delay;
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * An exponential backoff with "full jitter", so retries from many threads don't all hit the Hub at the same moment
+     */
+    private long calculateBackoff(int attempt) {
+        long ceiling = Math.min(backoffMax, backoffBase * (1L << Math.min(attempt - 1, 20)));
+
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Waits for as long as the Hub asked us to (in seconds, or until an HTTP date), or gives back -1 if that's longer
+     * than we're willing to wait
+     */
+    private long calculateRetryAfter(String retryAfter, int attempt) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return calculateBackoff(attempt);
+        }
+
+        long delay;
+        try {
+            delay = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                delay = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - System.currentTimeMillis();
+            } catch (DateTimeParseException dateException) {
+                return calculateBackoff(attempt);
+            }
+        }
+
+        if (delay > retryAfterMax) {
+            return -1;
+        }
+
+        return Math.max(0, delay);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting to retry a request to the Hub");
+        }
+    }
+
+    private Response createUnavailableResponse(Request request, String hostname) {
+        String message = String.format("The Hub at %s has failed too many times recently, so requests to it are paused for up to %d seconds", hostname, TimeUnit.NANOSECONDS.toSeconds(openDuration));
+
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("Service Unavailable")
+                .body(ResponseBody.create(TEXT, message))
+                .build();
+    }
+
+    private class CircuitBreaker {
+        private final String hostname;
+        private int failures;
+        private long openedAt;
+        private boolean open;
+        private boolean trialInFlight;
+
+        private CircuitBreaker(String hostname) {
+            this.hostname = hostname;
+        }
+
+        synchronized boolean allowRequest() {
+            if (open == false) {
+                return true;
+            }
+
+            if (trialInFlight || System.nanoTime() - openedAt < openDuration) {
+                return false;
+            }
+
+            // Let a single request through, to see if the Hub has recovered
+            trialInFlight = true;
+
+            return true;
+        }
+
+        synchronized void recordSuccess() {
+            failures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        synchronized void recordFailure() {
+            failures++;
+
+            if (trialInFlight || failures >= failureThreshold) {
+                if (open == false) {
+                    LOGGER.warn("The Hub at {} has failed {} times in a row, so requests to it will be paused", hostname, failures);
+                }
+
+                open = true;
+                openedAt = System.nanoTime();
+            }
+
+            trialInFlight = false;
+        }
+
+        /**
+         * Lets another trial request through, for when one ends without telling us whether the Hub has recovered
+         */
+        synchronized void releaseTrial() {
+            trialInFlight = false;
+        }
+    }
+}
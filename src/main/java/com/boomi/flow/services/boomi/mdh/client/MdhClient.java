@@ -3,29 +3,59 @@ package com.boomi.flow.services.boomi.mdh.client;
 import com.boomi.flow.services.boomi.mdh.match.MatchEntityResponse;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistoryResponse;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
 import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequestWriter;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import com.boomi.flow.services.boomi.mdh.universes.UniversesResponse;
+import com.boomi.flow.services.boomi.mdh.utilities.CredentialsKey;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.HubLimiter;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.boomi.flow.services.boomi.mdh.utilities.SingleFlight;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.manywho.sdk.api.run.ServiceProblemException;
 import okhttp3.*;
+import okio.BufferedSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import javax.xml.bind.JAXB;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Singleton
 public class MdhClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(MdhClient.class);
     private static final MediaType XML = MediaType.parse("application/xml; charset=utf-8");
+    private static final long MAX_ERROR_BODY_BYTES = 8 * 1024;
 
     private final OkHttpClient httpClient;
+    private final SingleFlight<CredentialsKey, Universe> universeFlights = new SingleFlight<>();
+    private final QueryFlights queryFlights = new QueryFlights();
+    private final SingleFlight<CredentialsKey, byte[]> cachedQueryFlights = new SingleFlight<>();
+    private final QueryCache queryCache = new QueryCache();
+    private final HubResilience resilience = new HubResilience();
 
     @Inject
     public MdhClient(OkHttpClient httpClient) {
@@ -46,34 +76,77 @@ public class MdhClient {
 
         Response response;
         try {
-            response = httpClient.newCall(request)
-                    .execute();
+            response = resilience.execute(httpClient, request, true);
         } catch (IOException e) {
             LOGGER.error("Unable to fetch the a list of universes", e);
 
             throw new ServiceProblemException(500, "Unable to fetch the list of universes due to an unexpected error");
         }
 
-        ResponseBody body = response.body();
-        if (body == null) {
-            throw new ServiceProblemException(500, "No response body was given when fetching the list of universes");
+        try (ResponseBody body = response.body()) {
+            if (body == null) {
+                throw new ServiceProblemException(500, "No response body was given when fetching the list of universes");
+            }
+
+            try {
+                UniversesResponse result = RequestTrace.time("decode", () -> ServiceMetrics.codec("universe", "deserialize")
+                        .record(() -> XmlCodec.forType(UniversesResponse.class).read(body.byteStream())));
+
+                if (result == null) {
+                    return new ArrayList<>();
+                }
+
+                return result.getUniverses();
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to deserialize a list of universes", e);
+
+                throw new ServiceProblemException(500, "Unable to deserialize the list of universes due to an unexpected error");
+            }
         }
+    }
 
-        try {
-            UniversesResponse result = JAXB.unmarshal(body.byteStream(), UniversesResponse.class);
-            if (result == null) {
-                return new ArrayList<>();
+    public Universe findUniverse(String hostname, String username, String password, String id) {
+        if (Settings.getBoolean("mdh.client.coalesce", true)) {
+            // Concurrent requests for the same universe share one call, as nobody changes the universe they're given
+            return universeFlights.call(
+                    createFlightKey(hostname, username, password, id, new byte[0]),
+                    () -> fetchUniverse(hostname, username, password, id)
+            );
+        }
+
+        return fetchUniverse(hostname, username, password, id);
+    }
+
+    public CompletableFuture<Universe> findUniverseAsync(String hostname, String username, String password, String id) {
+        return startAsync(() -> {
+            if (Settings.getBoolean("mdh.client.coalesce", true)) {
+                return universeFlights.callAsync(
+                        createFlightKey(hostname, username, password, id, new byte[0]),
+                        () -> fetchUniverseAsync(hostname, username, password, id)
+                );
             }
 
-            return result.getUniverses();
-        } catch (RuntimeException e) {
-            LOGGER.error("Unable to deserialize a list of universes", e);
+            return fetchUniverseAsync(hostname, username, password, id);
+        });
+    }
 
-            throw new ServiceProblemException(500, "Unable to deserialize the list of universes due to an unexpected error");
+    private Universe fetchUniverse(String hostname, String username, String password, String id) {
+        Response response;
+        try {
+            response = resilience.execute(httpClient, createUniverseRequest(hostname, username, password, id), true);
+        } catch (IOException e) {
+            throw createUniverseProblem(id, e);
         }
+
+        return readUniverse(response, id);
     }
 
-    public Universe findUniverse(String hostname, String username, String password, String id) {
+    private CompletableFuture<Universe> fetchUniverseAsync(String hostname, String username, String password, String id) {
+        return sendAsync(createUniverseRequest(hostname, username, password, id), true, e -> createUniverseProblem(id, e))
+                .thenApply(response -> readUniverse(response, id));
+    }
+
+    private static Request createUniverseRequest(String hostname, String username, String password, String id) {
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host(hostname)
@@ -81,48 +154,48 @@ public class MdhClient {
                 .addPathSegment(id)
                 .build();
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .addHeader("Authorization", Credentials.basic(username, password))
                 .url(url)
                 .build();
+    }
 
-        Response response;
-        try {
-            response = httpClient.newCall(request)
-                    .execute();
-        } catch (IOException e) {
-            LOGGER.error("Unable to fetch a universe", e);
+    private static ServiceProblemException createUniverseProblem(String id, IOException e) {
+        LOGGER.error("Unable to fetch a universe", e);
 
-            throw new ServiceProblemException(500, "Unable to fetch the universe " + id + " due to an unexpected error");
-        }
+        return new ServiceProblemException(500, "Unable to fetch the universe " + id + " due to an unexpected error");
+    }
 
-        ResponseBody body = response.body();
-        if (body == null) {
-            throw new ServiceProblemException(500, "No response body was given when fetching the universe " + id);
-        }
+    private static Universe readUniverse(Response response, String id) {
+        try (ResponseBody body = response.body()) {
+            if (body == null) {
+                throw new ServiceProblemException(500, "No response body was given when fetching the universe " + id);
+            }
 
-        if (response.isSuccessful()) {
-            try {
-                return JAXB.unmarshal(body.byteStream(), Universe.class);
-            } catch (RuntimeException e) {
-                LOGGER.error("Unable to deserialize a universe", e);
+            if (response.isSuccessful()) {
+                try {
+                    return RequestTrace.time("decode", () -> ServiceMetrics.codec("universe", "deserialize")
+                            .record(() -> XmlCodec.forType(Universe.class).read(body.byteStream())));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unable to deserialize a universe", e);
 
-                throw new ServiceProblemException(500, "Unable to deserialize the universe " + id + " due to an unexpected error");
+                    throw new ServiceProblemException(500, "Unable to deserialize the universe " + id + " due to an unexpected error");
+                }
             }
-        }
 
-        if (response.code() == 400) {
-            MdhError error = JAXB.unmarshal(body.byteStream(), MdhError.class);
-            if (error != null) {
-                throw new ServiceProblemException(400, error.getMessage());
+            if (response.code() == 400) {
+                MdhError error = XmlCodec.forType(MdhError.class).read(body.byteStream());
+                if (error != null) {
+                    throw new ServiceProblemException(400, error.getMessage());
+                }
             }
-        }
 
-        if (response.code() == 404) {
-            throw new ServiceProblemException(404, "No universe could be found with the ID " + id);
-        }
+            if (response.code() == 404) {
+                throw new ServiceProblemException(404, "No universe could be found with the ID " + id);
+            }
 
-        throw new ServiceProblemException(500, "An unexpected error occurred while finding a universe");
+            throw new ServiceProblemException(500, "An unexpected error occurred while finding a universe");
+        }
     }
 
     public QuarantineQueryResponse queryQuarantineEntries(String hostname, String username, String password, String universe, QuarantineQueryRequest query) {
@@ -134,7 +207,21 @@ public class MdhClient {
                 .addPathSegments("quarantine/query")
                 .build();
 
-        return sendRequestExpectingResponse(username, password, url, query, QuarantineQueryResponse.class, "quarantine entry");
+        return sendQuery(hostname, username, password, universe, url, query, XmlCodec.forType(QuarantineQueryResponse.class)::read, "quarantine entry");
+    }
+
+    public CompletableFuture<QuarantineQueryResponse> queryQuarantineEntriesAsync(String hostname, String username, String password, String universe, QuarantineQueryRequest query) {
+        return startAsync(() -> {
+            HttpUrl url = new HttpUrl.Builder()
+                    .scheme("https")
+                    .host(hostname)
+                    .addPathSegments("mdm/universes")
+                    .addPathSegment(universe)
+                    .addPathSegments("quarantine/query")
+                    .build();
+
+            return sendQueryAsync(hostname, username, password, universe, url, query, XmlCodec.forType(QuarantineQueryResponse.class)::read, "quarantine entry");
+        });
     }
 
     public void updateGoldenRecords(String hostname, String username, String password, String universe, BatchUpdateRequest request) {
@@ -146,8 +233,37 @@ public class MdhClient {
                 .addPathSegment("records")
                 .build();
 
-        Response response = sendRequest(username, password, url, request, "golden record");
+        try (Response response = sendRequest(username, password, url, request, false, "golden record")) {
+            readUpdateResponse(response);
+        } finally {
+            // Even a failed save may have changed some records, so any cached queries of the universe are dropped
+            queryCache.invalidate(hostname, universe);
+        }
+    }
+
+    public CompletableFuture<Void> updateGoldenRecordsAsync(String hostname, String username, String password, String universe, BatchUpdateRequest request) {
+        // Saves share the same limit on each Hub as the blocking ones, without a thread waiting for their turn
+        CompletableFuture<Void> update = HubLimiter.callAsync(hostname, () -> startAsync(() -> {
+            HttpUrl url = new HttpUrl.Builder()
+                    .scheme("https")
+                    .host(hostname)
+                    .addPathSegments("mdm/universes")
+                    .addPathSegment(universe)
+                    .addPathSegment("records")
+                    .build();
+
+            return sendAsync(createPostRequest(username, password, url, createRequestBody(request, "golden record")), false, e -> createRequestProblem("golden record", e))
+                    .thenAccept(sent -> {
+                        try (Response response = sent) {
+                            readUpdateResponse(response);
+                        }
+                    });
+        }));
+
+        return update.whenComplete((result, e) -> queryCache.invalidate(hostname, universe));
+    }
 
+    private static void readUpdateResponse(Response response) {
         if (response.isSuccessful()) {
             return;
         }
@@ -157,7 +273,16 @@ public class MdhClient {
             throw new ServiceProblemException(response.code(), "An unknown error occurred while updating golden records");
         }
 
-        MdhError error = JAXB.unmarshal(body.byteStream(), MdhError.class);
+        String content = readErrorBody(response);
+
+        MdhError error;
+        try {
+            error = XmlCodec.forType(MdhError.class).read(body.byteStream());
+        } catch (RuntimeException e) {
+            // Not every error comes from the Hub itself (e.g. a proxy's error page, or a paused circuit)
+            throw new ServiceProblemException(response.code(), "An unknown error occurred while updating golden records: " + content);
+        }
+
         if (error != null) {
             throw new ServiceProblemException(response.code(), error.getMessage());
         }
@@ -174,7 +299,71 @@ public class MdhClient {
                 .addPathSegments("records/query")
                 .build();
 
-        return sendRequestExpectingResponse(username, password, url, query, GoldenRecordQueryResponse.class, "golden record");
+        return sendQuery(hostname, username, password, universe, url, query, GoldenRecordQueryResponseReader::read, "golden record");
+    }
+
+    public CompletableFuture<GoldenRecordQueryResponse> queryGoldenRecordsAsync(String hostname, String username, String password, String universe, GoldenRecordQueryRequest query) {
+        return startAsync(() -> {
+            HttpUrl url = new HttpUrl.Builder()
+                    .scheme("https")
+                    .host(hostname)
+                    .addPathSegments("mdm/universes")
+                    .addPathSegment(universe)
+                    .addPathSegments("records/query")
+                    .build();
+
+            return sendQueryAsync(hostname, username, password, universe, url, query, GoldenRecordQueryResponseReader::read, "golden record");
+        });
+    }
+
+    /**
+     * Queries for a page of golden records, writing each one to the given generator as newline-delimited JSON while the
+     * response is still being read, instead of building them all first. This never shares its call to the Hub with other
+     * queries, or caches the response, as that would mean holding the whole page in memory.
+     */
+    public GoldenRecordQueryResponse exportGoldenRecords(String hostname, String username, String password, String universe, GoldenRecordQueryRequest query, JsonGenerator generator) {
+        HttpUrl url = new HttpUrl.Builder()
+                .scheme("https")
+                .host(hostname)
+                .addPathSegments("mdm/universes")
+                .addPathSegment(universe)
+                .addPathSegments("records/query")
+                .build();
+
+        return sendRequestExpectingResponse(username, password, url, query, stream -> GoldenRecordNdjsonWriter.write(stream, generator), "golden record");
+    }
+
+    /**
+     * Fetches a page of the versions of a golden record, starting from the given offset token (or the first page if
+     * there isn't one). As each save adds a version, this is never shared with other calls or cached.
+     */
+    public GoldenRecordHistoryResponse findGoldenRecordHistory(String hostname, String username, String password, String universe, String recordId, String offsetToken) {
+        HttpUrl.Builder url = new HttpUrl.Builder()
+                .scheme("https")
+                .host(hostname)
+                .addPathSegments("mdm/universes")
+                .addPathSegment(universe)
+                .addPathSegment("records")
+                .addPathSegment(recordId)
+                .addPathSegment("history");
+
+        if (offsetToken != null) {
+            url.addQueryParameter("offsetToken", offsetToken);
+        }
+
+        Request request = new Request.Builder()
+                .addHeader("Authorization", Credentials.basic(username, password))
+                .url(url.build())
+                .build();
+
+        Response response;
+        try {
+            response = resilience.execute(httpClient, request, true);
+        } catch (IOException e) {
+            throw createRequestProblem("golden record history", e);
+        }
+
+        return readResponse(response, GoldenRecordHistoryResponseReader::read, "golden record history");
     }
 
     public MatchEntityResponse  queryMatchEntity(String hostname, String username, String password, String universe, BatchUpdateRequest query) {
@@ -188,63 +377,285 @@ public class MdhClient {
         return sendRequestExpectingResponse(username, password, url, query, MatchEntityResponse.class, "match");
     }
 
-    private Response sendRequest(String username, String password, HttpUrl url, Object query, String type) {
-        StringWriter bodyContent = new StringWriter();
+    public CompletableFuture<MatchEntityResponse> queryMatchEntityAsync(String hostname, String username, String password, String universe, BatchUpdateRequest query) {
+        return HubLimiter.callAsync(hostname, () -> startAsync(() -> {
+            HttpUrl url = new HttpUrl.Builder()
+                    .scheme("https")
+                    .host(hostname)
+                    .addPathSegments("mdm/universes")
+                    .addPathSegments(universe)
+                    .addPathSegments("match")
+                    .build();
+
+            return sendAsync(createPostRequest(username, password, url, createRequestBody(query, "match")), true, e -> createRequestProblem("match", e))
+                    .thenApply(response -> readResponse(response, XmlCodec.forType(MatchEntityResponse.class)::read, "match"));
+        }));
+    }
 
-        try {
-            JAXB.marshal(query, bodyContent);
-        } catch (RuntimeException e) {
-            LOGGER.error("Unable to serialize the request", e);
+    /**
+     * Sends a query, sharing the call with any identical queries already in flight, and using a recently cached
+     * response if there is one. Each caller decodes its own copy of the response, as the records are renamed in place
+     * once they've been decoded, but a response is only read into memory to do that when it's being cached, or shared
+     * with another caller.
+     */
+    private <T> T sendQuery(String hostname, String username, String password, String universe, HttpUrl url, Object query, Function<InputStream, T> reader, String type) {
+        boolean coalesce = Settings.getBoolean("mdh.client.coalesce", true);
+
+        if (coalesce == false && queryCache.isEnabled() == false) {
+            return sendRequestExpectingResponse(username, password, url, query, reader, type);
+        }
 
-            throw new ServiceProblemException(500, "An unexpected error occurred while creating the request");
+        byte[] body = serialize(query, type);
+        CredentialsKey key = createFlightKey(hostname, username, password, url.toString(), body);
+
+        if (queryCache.isEnabled() == false) {
+            return queryFlights.call(
+                    key,
+                    () -> sendRequest(username, password, url, RequestBody.create(XML, body), true, type),
+                    response -> readResponse(response, reader, type),
+                    response -> readResponse(response, MdhClient::readBytes, type),
+                    response -> decode(new ByteArrayInputStream(response), reader, type)
+            );
         }
 
-        RequestBody body = RequestBody.create(XML, bodyContent.toString());
+        Supplier<byte[]> send = () -> sendRequestExpectingResponse(username, password, url, RequestBody.create(XML, body), MdhClient::readBytes, type);
 
-        Request request = new Request.Builder()
+        byte[] response = queryCache.get(hostname, universe, key, coalesce ? () -> cachedQueryFlights.call(key, send) : send);
+
+        return decode(new ByteArrayInputStream(response), reader, type);
+    }
+
+    private <T> CompletableFuture<T> sendQueryAsync(String hostname, String username, String password, String universe, HttpUrl url, Object query, Function<InputStream, T> reader, String type) {
+        boolean coalesce = Settings.getBoolean("mdh.client.coalesce", true);
+
+        byte[] body = serialize(query, type);
+
+        Supplier<CompletableFuture<Response>> sendQuery = () -> sendAsync(createPostRequest(username, password, url, RequestBody.create(XML, body)), true, e -> createRequestProblem(type, e));
+
+        if (coalesce == false && queryCache.isEnabled() == false) {
+            return sendQuery.get()
+                    .thenApply(response -> readResponse(response, reader, type));
+        }
+
+        CredentialsKey key = createFlightKey(hostname, username, password, url.toString(), body);
+
+        if (queryCache.isEnabled() == false) {
+            return queryFlights.callAsync(
+                    key,
+                    sendQuery,
+                    response -> readResponse(response, reader, type),
+                    response -> readResponse(response, MdhClient::readBytes, type),
+                    response -> decode(new ByteArrayInputStream(response), reader, type)
+            );
+        }
+
+        Supplier<CompletableFuture<byte[]>> send = () -> sendQuery.get()
+                .thenApply(response -> readResponse(response, MdhClient::readBytes, type));
+
+        return queryCache.getAsync(hostname, universe, key, coalesce ? () -> cachedQueryFlights.callAsync(key, send) : send)
+                .thenApply(response -> decode(new ByteArrayInputStream(response), reader, type));
+    }
+
+    private Response sendRequest(String username, String password, HttpUrl url, Object query, boolean idempotent, String type) {
+        return sendRequest(username, password, url, createRequestBody(query, type), idempotent, type);
+    }
+
+    private Response sendRequest(String username, String password, HttpUrl url, RequestBody body, boolean idempotent, String type) {
+        try {
+            return resilience.execute(httpClient, createPostRequest(username, password, url, body), idempotent);
+        } catch (IOException e) {
+            throw createRequestProblem(type, e);
+        }
+    }
+
+    /**
+     * Sends a request without blocking the calling thread. The returned future completes on the decoder pool rather than
+     * on OkHttp's dispatcher threads, so the response can be read and decoded by anything chained onto it without
+     * holding up the responses to other calls.
+     */
+    private CompletableFuture<Response> sendAsync(Request request, boolean idempotent, Function<IOException, ServiceProblemException> problem) {
+        CompletableFuture<Response> sent = new CompletableFuture<>();
+
+        Executor decoder = RequestTrace.propagate(HubExecutor.decoder());
+
+        resilience.executeAsync(httpClient, request, idempotent).whenComplete((response, e) -> decoder.execute(() -> {
+            if (e == null) {
+                sent.complete(response);
+            } else if (e instanceof IOException) {
+                sent.completeExceptionally(problem.apply((IOException) e));
+            } else {
+                sent.completeExceptionally(e);
+            }
+        }));
+
+        return sent;
+    }
+
+    private static Request createPostRequest(String username, String password, HttpUrl url, RequestBody body) {
+        return new Request.Builder()
                 .addHeader("Authorization", Credentials.basic(username, password))
                 .url(url)
                 .post(body)
                 .build();
+    }
+
+    private static RequestBody createRequestBody(Object query, String type) {
+        if (query instanceof BatchUpdateRequest) {
+            return new BatchUpdateRequestBody((BatchUpdateRequest) query, type);
+        }
+
+        return RequestBody.create(XML, serialize(query, type));
+    }
+
+    private static ServiceProblemException createRequestProblem(String type, IOException e) {
+        LOGGER.error("Unable to query for {}", type, e);
+
+        return new ServiceProblemException(500, "Unable to query for " + type + ": " + e.getMessage());
+    }
+
+    private <T> T sendRequestExpectingResponse(String username, String password, HttpUrl url, Object query, Class<T> aClass, String type) {
+        return sendRequestExpectingResponse(username, password, url, query, XmlCodec.forType(aClass)::read, type);
+    }
+
+    private <T> T sendRequestExpectingResponse(String username, String password, HttpUrl url, Object query, Function<InputStream, T> reader, String type) {
+        return readResponse(sendRequest(username, password, url, query, true, type), reader, type);
+    }
+
+    private <T> T sendRequestExpectingResponse(String username, String password, HttpUrl url, RequestBody requestBody, Function<InputStream, T> reader, String type) {
+        return readResponse(sendRequest(username, password, url, requestBody, true, type), reader, type);
+    }
+
+    private static <T> T readResponse(Response sent, Function<InputStream, T> reader, String type) {
+        try (Response response = sent) {
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new ServiceProblemException(500, "No response body was given while querying for " + type + " objects");
+            }
+
+            if (response.isSuccessful() == false) {
+                String responseBody = readErrorBody(response);
+
+                LOGGER.error("Unable to query {}: {}", type, responseBody);
+
+                throw new ServiceProblemException(response.code(), "Something went wrong loading the " + type + " objects: " + responseBody);
+            }
 
+            // Decode straight from the response stream, so large pages aren't buffered in memory as a String first
+            return decode(body.byteStream(), reader, type);
+        }
+    }
+
+    private static <T> T decode(InputStream stream, Function<InputStream, T> reader, String type) {
         try {
-            return httpClient
-                    .newCall(request)
-                    .execute();
-        } catch (IOException e) {
-            LOGGER.error("Unable to query for {}", type, e);
+            return RequestTrace.time("decode", () -> ServiceMetrics.codec(type, "deserialize").record(() -> reader.apply(stream)));
+        } catch (GoldenRecordNdjsonWriter.OutputException e) {
+            // The response was fine, but whoever it was being exported to went away
+            throw e;
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to deserialize the response", e);
 
-            throw new ServiceProblemException(500, "Unable to query for " + type + ": " + e.getMessage());
+            throw new ServiceProblemException(500, "Unable to deserialize the " + type + " query response");
         }
     }
 
-    private <T> T sendRequestExpectingResponse(String username, String password, HttpUrl url, Object query, Class<T> aClass, String type) {
-        Response response = sendRequest(username, password, url, query, type);
-        if (response.body() == null) {
-            throw new ServiceProblemException(500, "No response body was given while querying for " + type + " objects");
+    private static byte[] serialize(Object query, String type) {
+        ByteArrayOutputStream bodyContent = new ByteArrayOutputStream();
+
+        try {
+            ServiceMetrics.codec(type, "serialize").record(() -> XmlCodec.forObject(query).write(query, bodyContent));
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to serialize the request", e);
+
+            throw new ServiceProblemException(500, "An unexpected error occurred while creating the request");
+        }
+
+        return bodyContent.toByteArray();
+    }
+
+    /**
+     * Gives any exception thrown while preparing an asynchronous call back in the future, so callers composing calls
+     * only have to handle failures in one place
+     */
+    private static <T> CompletableFuture<T> startAsync(Supplier<CompletableFuture<T>> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+
+            return failed;
+        }
+    }
+
+    private static byte[] readBytes(InputStream stream) {
+        try {
+            return ByteStreams.toByteArray(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    /**
+     * Two reads only share a call when they're for the same Hub, with the same credentials, and have identical bodies
+     */
+    private static CredentialsKey createFlightKey(String hostname, String username, String password, String target, byte[] body) {
+        // The body is kept as a hash, so a key doesn't hold on to a copy of every query in flight
+        return new CredentialsKey(hostname, username, password, target + " " + Hashing.sha256().hashBytes(body));
+    }
 
-        String responseBody;
+    /**
+     * Read the start of an error response body, up to a fixed limit, so a huge error page can't exhaust the heap
+     */
+    private static String readErrorBody(Response response) {
         try {
-            responseBody = response.body().string();
+            String content = response.peekBody(MAX_ERROR_BODY_BYTES).string();
+
+            if (response.body() != null && response.body().contentLength() > MAX_ERROR_BODY_BYTES) {
+                return content + "...";
+            }
+
+            return content;
         } catch (IOException e) {
             LOGGER.error("Unable to fetch the response body", e);
 
-            throw new ServiceProblemException(500, "Unable to fetch the response body due to an unexpected error");
+            return "(unable to read the response body)";
         }
+    }
 
-        if (response.isSuccessful() == false) {
-            LOGGER.error("Unable to query {}: {}", type, responseBody);
+    /**
+     * Streams a batch of entities straight into the request, instead of building the whole document in memory first
+     */
+    private static class BatchUpdateRequestBody extends RequestBody {
+        private final BatchUpdateRequest request;
+        private final String type;
 
-            throw new ServiceProblemException(response.code(), "Something went wrong loading the " + type + " objects: " + responseBody);
+        private BatchUpdateRequestBody(BatchUpdateRequest request, String type) {
+            this.request = request;
+            this.type = type;
         }
 
-        try {
-            return JAXB.unmarshal(new StringReader(responseBody), aClass);
-        } catch (RuntimeException e) {
-            LOGGER.error("Unable to deserialize the response", e);
+        @Override
+        public MediaType contentType() {
+            return XML;
+        }
 
-            throw new ServiceProblemException(500, "Unable to deserialize the " + type + " query response");
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            Writer writer = new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8);
+
+            long start = System.nanoTime();
+
+            try {
+                BatchUpdateRequestWriter.write(request, writer);
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to serialize the request", e);
+
+                throw new IOException("An unexpected error occurred while creating the request", e);
+            }
+
+            writer.flush();
+
+            ServiceMetrics.codec(type, "serialize").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
@@ -0,0 +1,139 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.CredentialsKey;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * An optional, short-lived cache of query responses, so list components that refresh or re-sort every few seconds
+ * don't send the same query to the Hub each time. It's turned off unless mdh.query.cache.ttl is set. While it's off,
+ * responses aren't read into memory for it, and a query that isn't shared is decoded straight from the Hub's response.
+ *
+ * Responses are kept as the raw bytes the Hub sent (so every caller decodes its own copy of the records), are weighed
+ * by their size, and are held softly so they're given up before the service runs short of memory. Any write to a
+ * universe drops the cached responses for it, from every user.
+ */
+class QueryCache {
+    private final Cache<Key, byte[]> responses;
+    private final AtomicLong writes = new AtomicLong();
+
+    QueryCache() {
+        long ttl = Settings.getLong("mdh.query.cache.ttl", 0);
+
+        if (ttl <= 0) {
+            this.responses = null;
+        } else {
+            this.responses = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                    .maximumWeight(Settings.getLong("mdh.query.cache.bytes", 64 * 1024 * 1024))
+                    .weigher((Key key, byte[] value) -> value.length)
+                    .softValues()
+                    .build();
+        }
+    }
+
+    boolean isEnabled() {
+        return responses != null;
+    }
+
+    byte[] get(String hostname, String universe, CredentialsKey request, Supplier<byte[]> loader) {
+        if (responses == null) {
+            return loader.get();
+        }
+
+        Key key = new Key(hostname, universe, request);
+
+        byte[] response = responses.getIfPresent(key);
+        if (response != null) {
+            return response;
+        }
+
+        // If anything was written while we were querying, the response might already be out of date, so we don't keep it
+        long writesBefore = writes.get();
+
+        response = loader.get();
+
+        if (writes.get() == writesBefore) {
+            responses.put(key, response);
+        }
+
+        return response;
+    }
+
+    CompletableFuture<byte[]> getAsync(String hostname, String universe, CredentialsKey request, Supplier<CompletableFuture<byte[]>> loader) {
+        if (responses == null) {
+            return loader.get();
+        }
+
+        Key key = new Key(hostname, universe, request);
+
+        byte[] response = responses.getIfPresent(key);
+        if (response != null) {
+            return CompletableFuture.completedFuture(response);
+        }
+
+        long writesBefore = writes.get();
+
+        return loader.get().thenApply(loaded -> {
+            if (writes.get() == writesBefore) {
+                responses.put(key, loaded);
+            }
+
+            return loaded;
+        });
+    }
+
+    void invalidate(String hostname, String universe) {
+        writes.incrementAndGet();
+
+        if (responses == null) {
+            return;
+        }
+
+        Key written = new Key(hostname, universe, null);
+
+        responses.asMap().keySet().removeIf(key -> Objects.equals(key.hostname, written.hostname) && Objects.equals(key.universe, written.universe));
+    }
+
+    private static class Key {
+        private final String hostname;
+        private final String universe;
+        private final CredentialsKey request;
+
+        private Key(String hostname, String universe, CredentialsKey request) {
+            this.hostname = hostname == null ? null : hostname.toLowerCase(Locale.ENGLISH);
+            this.universe = universe == null ? null : universe.toLowerCase(Locale.ENGLISH);
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return Objects.equals(hostname, key.hostname) &&
+                    Objects.equals(universe, key.universe) &&
+                    Objects.equals(request, key.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostname, universe, request);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import com.boomi.flow.services.boomi.mdh.utilities.CredentialsKey;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import okhttp3.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical queries share one call to the Hub, without holding every response in memory to do it.
+ *
+ * The first caller for a query sends it, and anyone asking for the same query before the Hub responds joins that call.
+ * Once the Hub responds, the call is closed to anyone else: if nobody joined, the first caller decodes the response
+ * straight from the Hub as usual, and only if somebody did is the response read into memory, so each caller can decode
+ * their own copy of the records (as they're renamed in place once they've been decoded).
+ */
+class QueryFlights {
+    private final ConcurrentMap<CredentialsKey, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @param send   sends the query to the Hub
+     * @param read   decodes a response straight from the Hub
+     * @param buffer reads a response from the Hub into memory, failing the same way as read if the Hub gave an error
+     * @param decode decodes a response that was read into memory
+     */
+    <T> T call(CredentialsKey key, Supplier<Response> send, Function<Response, T> read, Function<Response, byte[]> buffer, Function<byte[], T> decode) {
+        Flight flight = new Flight(key);
+
+        Flight existing = join(flight);
+        if (existing != null) {
+            return decode.apply(HubExecutor.join(existing.response));
+        }
+
+        Response response;
+        try {
+            response = send.get();
+        } catch (RuntimeException | Error e) {
+            flight.fail(e);
+
+            throw e;
+        }
+
+        return respond(flight, response, read, buffer, decode);
+    }
+
+    /**
+     * The same as {@link #call}, for queries sent without blocking
+     */
+    <T> CompletableFuture<T> callAsync(CredentialsKey key, Supplier<CompletableFuture<Response>> send, Function<Response, T> read, Function<Response, byte[]> buffer, Function<byte[], T> decode) {
+        Flight flight = new Flight(key);
+
+        Flight existing = join(flight);
+        if (existing != null) {
+            // Each caller decodes their own copy on the decoder pool, rather than one after another on the first caller's thread
+            return existing.response.thenApplyAsync(decode, RequestTrace.propagate(HubExecutor.decoder()));
+        }
+
+        CompletableFuture<Response> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException | Error e) {
+            flight.fail(e);
+
+            throw e;
+        }
+
+        sent.whenComplete((response, e) -> {
+            if (e != null) {
+                flight.fail(e);
+            }
+        });
+
+        return sent.thenApply(response -> respond(flight, response, read, buffer, decode));
+    }
+
+    /**
+     * Joins the flight of an identical query that the Hub hasn't responded to yet, or if there isn't one, starts the
+     * given flight and gives back null
+     */
+    private Flight join(Flight flight) {
+        while (true) {
+            Flight existing = flights.putIfAbsent(flight.key, flight);
+            if (existing == null) {
+                return null;
+            }
+
+            if (existing.follow()) {
+                return existing;
+            }
+
+            // The Hub has already responded to that query, so it's being read and can't be shared any more
+            flights.remove(flight.key, existing);
+        }
+    }
+
+    private <T> T respond(Flight flight, Response response, Function<Response, T> read, Function<Response, byte[]> buffer, Function<byte[], T> decode) {
+        if (flight.close() == false) {
+            return read.apply(response);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = buffer.apply(response);
+        } catch (RuntimeException | Error e) {
+            flight.fail(e);
+
+            throw e;
+        }
+
+        flight.response.complete(bytes);
+
+        return decode.apply(bytes);
+    }
+
+    private class Flight {
+        private final CredentialsKey key;
+        private final CompletableFuture<byte[]> response = new CompletableFuture<>();
+        private int followers;
+        private boolean closed;
+
+        private Flight(CredentialsKey key) {
+            this.key = key;
+        }
+
+        private synchronized boolean follow() {
+            if (closed) {
+                return false;
+            }
+
+            followers++;
+
+            return true;
+        }
+
+        /**
+         * Stops anyone else from joining, giving back whether anyone already has
+         */
+        private boolean close() {
+            boolean followed;
+            synchronized (this) {
+                closed = true;
+                followed = followers > 0;
+            }
+
+            flights.remove(key, this);
+
+            return followed;
+        }
+
+        private void fail(Throwable e) {
+            close();
+
+            response.completeExceptionally(e);
+        }
+    }
+}
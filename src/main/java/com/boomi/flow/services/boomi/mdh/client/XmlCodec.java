@@ -0,0 +1,118 @@
+package com.boomi.flow.services.boomi.mdh.client;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.beans.Introspector;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads and writes a single type of object as XML, in the same way as the static {@link javax.xml.bind.JAXB} methods,
+ * but with the JAXBContext built once per type, and with its (non thread-safe) marshallers and unmarshallers pooled
+ * between calls.
+ */
+public class XmlCodec<T> {
+    private static final int POOL_SIZE = 32;
+
+    private static final ConcurrentMap<Class<?>, XmlCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final QName rootName;
+    private final JAXBContext context;
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private XmlCodec(Class<T> type) {
+        this.type = type;
+
+        // Types without a root element are wrapped in one named after the class, like JAXB.marshal does
+        this.rootName = type.isAnnotationPresent(XmlRootElement.class)
+                ? null
+                : new QName(Introspector.decapitalize(type.getSimpleName()));
+
+        try {
+            this.context = JAXBContext.newInstance(type);
+        } catch (JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> XmlCodec<T> forType(Class<T> type) {
+        return (XmlCodec<T>) CODECS.computeIfAbsent(type, XmlCodec::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> XmlCodec<T> forObject(T object) {
+        return forType((Class<T>) object.getClass());
+    }
+
+    public T read(InputStream stream) {
+        return read(new StreamSource(stream));
+    }
+
+    public T read(Reader reader) {
+        return read(new StreamSource(reader));
+    }
+
+    public void write(T object, OutputStream stream) {
+        write(object, new StreamResult(stream));
+    }
+
+    public void write(T object, Writer writer) {
+        write(object, new StreamResult(writer));
+    }
+
+    private T read(StreamSource source) {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+
+        try {
+            if (unmarshaller == null) {
+                unmarshaller = context.createUnmarshaller();
+            }
+
+            T result = unmarshaller.unmarshal(source, type).getValue();
+
+            unmarshallers.offer(unmarshaller);
+
+            return result;
+        } catch (JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    private void write(T object, StreamResult result) {
+        Marshaller marshaller = marshallers.poll();
+
+        try {
+            if (marshaller == null) {
+                marshaller = context.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            }
+
+            if (rootName == null) {
+                marshaller.marshal(object, result);
+            } else {
+                marshaller.marshal(new JAXBElement<>(rootName, type, object), result);
+            }
+
+            marshallers.offer(marshaller);
+        } catch (JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+}
@@ -46,23 +46,24 @@ public class XmlMapAdapter extends XmlAdapter<XmlMapWrapper, MObject> {
             Element fieldsFuzzyDetails = wrapper.elements.get(1);
             List<Property> fuzzyProperties = MapAdapterCommon.createPropertiesModel(wrapper.elements.get(1), fieldsFuzzyDetails.getChildNodes());
 
-            if (fuzzyProperties.size() ==  6) {
-                fuzzyProperties.stream()
-                        .filter(property -> property.getDeveloperName().equals("matchStrength"))
-                        .findFirst()
-                        .ifPresent(property -> property.setDeveloperName("Match Strength"));
-
-                MObject fuzzyMatchDetailsObject = new MObject(FuzzyMatchDetailsConstants.FUZZY_MATCH_DETAILS, fuzzyProperties);
-                fuzzyMatchDetailsObject.setExternalId(UUID.randomUUID().toString());
-                properties.add(new Property(FuzzyMatchDetailsConstants.FUZZY_MATCH_DETAILS, fuzzyMatchDetailsObject));
-            } else {
-                Element element = wrapper.elements.get(0);
-                String modelName = element.getNodeName();
-
-                throw new RuntimeException("The model " + modelName + " in your MDH repository cannot have a property called fuzzyMatchDetails, as it is a reserved property name");
-            }
+            addFuzzyMatchDetails(wrapper.elements.get(0).getNodeName(), properties, fuzzyProperties);
         }
 
         return properties;
     }
+
+    static void addFuzzyMatchDetails(String modelName, List<Property> properties, List<Property> fuzzyProperties) {
+        if (fuzzyProperties.size() ==  6) {
+            fuzzyProperties.stream()
+                    .filter(property -> property.getDeveloperName().equals("matchStrength"))
+                    .findFirst()
+                    .ifPresent(property -> property.setDeveloperName("Match Strength"));
+
+            MObject fuzzyMatchDetailsObject = new MObject(FuzzyMatchDetailsConstants.FUZZY_MATCH_DETAILS, fuzzyProperties);
+            fuzzyMatchDetailsObject.setExternalId(UUID.randomUUID().toString());
+            properties.add(new Property(FuzzyMatchDetailsConstants.FUZZY_MATCH_DETAILS, fuzzyMatchDetailsObject));
+        } else {
+            throw new RuntimeException("The model " + modelName + " in your MDH repository cannot have a property called fuzzyMatchDetails, as it is a reserved property name");
+        }
+    }
 }
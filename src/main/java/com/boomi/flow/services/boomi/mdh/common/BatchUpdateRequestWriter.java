@@ -0,0 +1,238 @@
+package com.boomi.flow.services.boomi.mdh.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link BatchUpdateRequest} as XML straight to a writer, entity by entity, producing exactly the same
+ * document as marshalling the request with JAXB (and {@link BatchUpdateRequestEntityAdapter}) does, but without
+ * building a DOM for each entity or the whole document in memory first.
+ */
+public class BatchUpdateRequestWriter {
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String INDENT = "    ";
+
+    public static void write(BatchUpdateRequest request, Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write("<batch");
+
+        if (request.getSource() != null) {
+            writeAttribute(writer, "src", request.getSource());
+        }
+
+        List<BatchUpdateRequest.Entity> entities = request.getEntities();
+        if (entities == null || entities.isEmpty()) {
+            writer.write("/>\n");
+            return;
+        }
+
+        writer.write('>');
+
+        for (BatchUpdateRequest.Entity entity : entities) {
+            writeEntity(writer, entity);
+        }
+
+        writer.write("\n</batch>\n");
+    }
+
+    /**
+     * Work out how many bytes (in UTF-8) an entity takes up in a batch, without keeping the XML around
+     */
+    public static long measure(BatchUpdateRequest.Entity entity) {
+        CountingWriter writer = new CountingWriter();
+
+        try {
+            writeEntity(writer, entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return writer.count;
+    }
+
+    private static void writeEntity(Writer writer, BatchUpdateRequest.Entity entity) throws IOException {
+        writeIndent(writer, 1);
+        writer.write('<');
+        writer.write(entity.getName());
+
+        if (entity.getOp() != null) {
+            writeAttribute(writer, "op", entity.getOp());
+        }
+
+        if (entity.getFields().isEmpty()) {
+            writer.write("/>");
+            return;
+        }
+
+        writer.write('>');
+
+        for (Map.Entry<String, Object> entry : entity.getFields().entrySet()) {
+            writeElement(writer, entry.getKey(), entry.getValue(), 2);
+        }
+
+        writeIndent(writer, 1);
+        writer.write("</");
+        writer.write(entity.getName());
+        writer.write('>');
+    }
+
+    /**
+     * The same hardcoded handling of scalars, maps and lists as {@link BatchUpdateRequestEntityAdapter}
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeElement(Writer writer, String name, Object value, int depth) throws IOException {
+        writeIndent(writer, depth);
+        writer.write('<');
+        writer.write(name);
+
+        if (value instanceof Map || value instanceof List) {
+            Collection<?> nestedEntities;
+
+            if (value instanceof Map) {
+                nestedEntities = ((Map<String, Object>) value).entrySet();
+            } else {
+                nestedEntities = (List<?>) value;
+            }
+
+            if (nestedEntities.isEmpty()) {
+                writer.write("/>");
+                return;
+            }
+
+            writer.write('>');
+
+            for (Object nestedEntity : nestedEntities) {
+                Map.Entry<String, Object> entry;
+                if (nestedEntity instanceof Map.Entry) {
+                    entry = (Map.Entry<String, Object>) nestedEntity;
+                } else {
+                    entry = ((Map<String, Object>) nestedEntity).entrySet().iterator().next();
+                }
+
+                writeElement(writer, entry.getKey(), entry.getValue(), depth + 1);
+            }
+
+            writeIndent(writer, depth);
+        } else {
+            String text = String.valueOf(value);
+            if (text.isEmpty()) {
+                writer.write("/>");
+                return;
+            }
+
+            writer.write('>');
+            writeEscaped(writer, text, false);
+        }
+
+        writer.write("</");
+        writer.write(name);
+        writer.write('>');
+    }
+
+    private static void writeAttribute(Writer writer, String name, String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        writeEscaped(writer, value, true);
+        writer.write('"');
+    }
+
+    private static void writeIndent(Writer writer, int depth) throws IOException {
+        writer.write('\n');
+
+        for (int i = 0; i < depth; i++) {
+            writer.write(INDENT);
+        }
+    }
+
+    /**
+     * Escapes the same characters as the JAXB runtime does when marshalling as UTF-8
+     */
+    private static void writeEscaped(Writer writer, String value, boolean isAttribute) throws IOException {
+        int start = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+
+            switch (value.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = isAttribute ? "&quot;" : null;
+                    break;
+                case '\r':
+                    replacement = "&#13;";
+                    break;
+                case '\n':
+                    replacement = isAttribute ? "&#10;" : null;
+                    break;
+                default:
+                    replacement = null;
+                    break;
+            }
+
+            if (replacement != null) {
+                writer.write(value, start, i - start);
+                writer.write(replacement);
+                start = i + 1;
+            }
+        }
+
+        writer.write(value, start, value.length() - start);
+    }
+
+    private static class CountingWriter extends Writer {
+        private long count = 0;
+
+        @Override
+        public void write(int c) {
+            count += utf8Length((char) c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                count += utf8Length(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String value, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                count += utf8Length(value.charAt(i));
+            }
+        }
+
+        private static int utf8Length(char c) {
+            if (c < 0x80) {
+                return 1;
+            }
+
+            // Each half of a surrogate pair makes up half of a 4 byte character
+            if (c < 0x800 || Character.isSurrogate(c)) {
+                return 2;
+            }
+
+            return 3;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineEntry;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineEntryConstants;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistory;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import com.google.common.base.Strings;
 import com.manywho.sdk.api.ContentType;
@@ -43,6 +44,93 @@ public class Entities {
         return mObjectToReturn;
     }
 
+    /**
+     * Creates an object for a version of a golden record, with its fields in the same shape as a loaded golden record's
+     * (so they can be renamed in the same way) and the details of the version alongside them
+     */
+    public static MObject createGoldenRecordHistoryMObject(String universeId, String modelName, GoldenRecordHistory history) {
+        List<Property> properties = new ArrayList<>();
+
+        if (history.getFields() != null) {
+            properties.addAll(createHistoryProperties(modelName, history.getFields()));
+        }
+
+        properties.add(new Property(GoldenRecordConstants.RECORD_ID_FIELD, history.getGrid()));
+        properties.add(new Property(GoldenRecordConstants.SOURCE_ID_FIELD, history.getSource()));
+        properties.add(new Property(GoldenRecordConstants.VERSION_FIELD, String.valueOf(history.getVersion())));
+        properties.add(new Property(GoldenRecordConstants.START_DATE_FIELD, EngineCompatibleDates.format(history.getStartDate())));
+        properties.add(new Property(GoldenRecordConstants.END_DATE_FIELD, EngineCompatibleDates.format(history.getEndDate())));
+        properties.add(new Property(GoldenRecordConstants.END_DATE_SOURCE_FIELD, history.getEndDateSource()));
+        properties.add(new Property(GoldenRecordConstants.TRANSACTION_ID_FIELD, history.getTransactionId()));
+
+        String developerName = universeId + "-golden-record-history";
+        MObject mObject = new MObject(developerName, history.getGrid() + ":" + history.getVersion(), properties);
+        mObject.setTypeElementBindingDeveloperName(developerName);
+
+        return mObject;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Property> createHistoryProperties(String modelName, Map<String, Object> fields) {
+        List<Property> properties = new ArrayList<>();
+
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (field.getValue() instanceof List) {
+                // this is a collection of repeatable field groups, named after the groups in it
+                List<MObject> objects = new ArrayList<>();
+                String groupName = null;
+
+                for (Map<String, Object> item : (List<Map<String, Object>>) field.getValue()) {
+                    for (Map.Entry<String, Object> group : item.entrySet()) {
+                        if (groupName == null) {
+                            groupName = group.getKey();
+                        }
+
+                        MObject object = createHistoryObject(modelName, group.getKey(), (Map<String, Object>) group.getValue());
+                        if (object != null) {
+                            objects.add(object);
+                        }
+                    }
+                }
+
+                Property propertyCollection = new Property(addingModelPrefix(modelName, groupName), objects);
+                propertyCollection.setContentType(ContentType.List);
+
+                properties.add(propertyCollection);
+            } else if (field.getValue() instanceof Map) {
+                MObject object = createHistoryObject(modelName, field.getKey(), (Map<String, Object>) field.getValue());
+                if (object == null) {
+                    continue;
+                }
+
+                // this is a field group
+                Property propertyFieldGroup = new Property(addingModelPrefix(modelName, field.getKey()), object);
+                propertyFieldGroup.setContentType(ContentType.Object);
+
+                properties.add(propertyFieldGroup);
+            } else if (field.getValue() != null) {
+                properties.add(new Property(field.getKey(), field.getValue().toString()));
+            }
+        }
+
+        return properties;
+    }
+
+    private static MObject createHistoryObject(String modelName, String name, Map<String, Object> fields) {
+        List<Property> properties = createHistoryProperties(modelName, fields);
+
+        // if we return a mobject without properties the engine shows an error
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        String developerName = addingModelPrefix(modelName, name);
+        MObject object = new MObject(developerName, UUID.randomUUID().toString(), properties);
+        object.setTypeElementBindingDeveloperName(developerName);
+
+        return object;
+    }
+
     public static MObject createQuarantineMObject(String universeId, QuarantineEntry entry) {
         List<Property> properties = new ArrayList<>();
         if (entry.getEntity() != null) {
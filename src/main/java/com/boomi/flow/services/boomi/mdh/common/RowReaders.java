@@ -0,0 +1,230 @@
+package com.boomi.flow.services.boomi.mdh.common;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.manywho.sdk.api.run.ServiceProblemException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads rows of records to import, one at a time, so an input of any size can be read without holding more than a
+ * single row in memory. A row that can't be read stops the import, so it's thrown as a 400.
+ */
+public class RowReaders {
+    private static final ObjectReader JSON = new ObjectMapper().readerFor(Map.class);
+
+    /**
+     * Reads newline-delimited JSON, where each line is an object of fields. If a line has a "fields" object (like the
+     * lines of an export do), the fields are read from that instead.
+     */
+    @SuppressWarnings("unchecked")
+    public static Iterator<Map<String, Object>> ndjson(InputStream stream) {
+        MappingIterator<Map<String, Object>> values;
+        try {
+            values = JSON.readValues(stream);
+        } catch (IOException e) {
+            throw new ServiceProblemException(400, "The records to import couldn't be read: " + e.getMessage());
+        }
+
+        return new Iterator<Map<String, Object>>() {
+            private long row = 0;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw new ServiceProblemException(400, "Row " + (row + 1) + " couldn't be read: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                row++;
+
+                Map<String, Object> value;
+                try {
+                    value = values.nextValue();
+                } catch (IOException e) {
+                    throw new ServiceProblemException(400, "Row " + row + " couldn't be read: " + e.getMessage());
+                }
+
+                // Depending on the version of Jackson, a line that's the literal null can be read as no object at all
+                if (value == null) {
+                    throw new ServiceProblemException(400, "Row " + row + " couldn't be read: it isn't an object of fields");
+                }
+
+                if (value.get("fields") instanceof Map) {
+                    return (Map<String, Object>) value.get("fields");
+                }
+
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Reads CSV with a header row naming the field each column is for. Fields inside a field group are named with its
+     * path (e.g. "contact.name"), empty cells are skipped, and repeatable field groups aren't supported.
+     */
+    public static Iterator<Map<String, Object>> csv(InputStream stream) {
+        Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+
+        List<String> header;
+        try {
+            header = readCsvRecord(reader);
+        } catch (IOException e) {
+            throw new ServiceProblemException(400, "The header row couldn't be read: " + e.getMessage());
+        }
+
+        if (header == null) {
+            return new ArrayList<Map<String, Object>>().iterator();
+        }
+
+        // Drop the byte order mark that spreadsheets like to start a UTF-8 file with
+        if (header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+
+        List<String[]> paths = new ArrayList<>();
+        for (String column : header) {
+            paths.add(column.trim().split("\\."));
+        }
+
+        return new Iterator<Map<String, Object>>() {
+            private long row = 0;
+            private List<String> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+
+                try {
+                    do {
+                        next = readCsvRecord(reader);
+                    } while (next != null && next.size() == 1 && next.get(0).isEmpty());
+                } catch (IOException e) {
+                    throw new ServiceProblemException(400, "Row " + (row + 1) + " couldn't be read: " + e.getMessage());
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (hasNext() == false) {
+                    throw new NoSuchElementException();
+                }
+
+                List<String> values = next;
+                next = null;
+                row++;
+
+                if (values.size() != paths.size()) {
+                    throw new ServiceProblemException(400, "Row " + row + " has " + values.size() + " columns, but the header has " + paths.size());
+                }
+
+                Map<String, Object> fields = new LinkedHashMap<>();
+
+                for (int i = 0; i < values.size(); i++) {
+                    if (values.get(i).isEmpty() == false) {
+                        put(fields, paths.get(i), values.get(i));
+                    }
+                }
+
+                return fields;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> fields, String[] path, String value) {
+        Map<String, Object> group = fields;
+
+        for (int i = 0; i < path.length - 1; i++) {
+            Object child = group.computeIfAbsent(path[i], name -> new LinkedHashMap<String, Object>());
+            if (child instanceof Map == false) {
+                throw new ServiceProblemException(400, "The column " + String.join(".", path) + " is inside " + path[i] + ", which is already a field");
+            }
+
+            group = (Map<String, Object>) child;
+        }
+
+        group.put(path[path.length - 1], value);
+    }
+
+    /**
+     * Reads the values of the next record in RFC 4180 CSV, where values can be quoted to contain commas, quotes (as two
+     * double quotes) and line breaks, or null if there are no more records
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+
+        boolean quoted = false;
+        boolean read = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+
+                break;
+            } else {
+                value.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("A quoted value was never closed");
+        }
+
+        if (read == false) {
+            return null;
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+}
@@ -0,0 +1,48 @@
+package com.boomi.flow.services.boomi.mdh.controllers;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.UncheckedIOException;
+
+/**
+ * Exports whole universes outside of Flow, for jobs that need a full extract (e.g. nightly reconciliations). The Hub to
+ * export from is given as the hostname parameter, and its username and token are given using Basic authentication.
+ */
+@Path("/export")
+public class ExportController {
+    private final GoldenRecordRepository goldenRecordRepository;
+
+    @Inject
+    public ExportController(GoldenRecordRepository goldenRecordRepository) {
+        this.goldenRecordRepository = goldenRecordRepository;
+    }
+
+    /**
+     * Streams every golden record in the universe as newline-delimited JSON, one record per line
+     */
+    @GET
+    @Path("/universes/{universe}/golden-records")
+    @Produces("application/x-ndjson")
+    public StreamingOutput exportGoldenRecords(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization, @QueryParam("hostname") String hostname, @PathParam("universe") String universe) {
+        ApplicationConfiguration configuration = HubCredentials.createConfiguration(authorization, hostname);
+
+        return output -> {
+            try {
+                ServiceMetrics.timeOperation("golden record", "export", () -> goldenRecordRepository.export(configuration, universe, output));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
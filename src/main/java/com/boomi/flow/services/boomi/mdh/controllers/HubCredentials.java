@@ -0,0 +1,41 @@
+package com.boomi.flow.services.boomi.mdh.controllers;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.google.common.base.Strings;
+import com.manywho.sdk.api.run.ServiceProblemException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Creates the configuration for requests made outside of Flow, where the Hub is given as the hostname parameter, and
+ * its username and token are given using Basic authentication
+ */
+class HubCredentials {
+    static ApplicationConfiguration createConfiguration(String authorization, String hostname) {
+        if (Strings.isNullOrEmpty(hostname)) {
+            throw new ServiceProblemException(400, "The hostname of the Hub must be given");
+        }
+
+        if (authorization == null || authorization.regionMatches(true, 0, "Basic ", 0, 6) == false) {
+            throw new ServiceProblemException(401, "The Hub's username and token must be given using Basic authentication");
+        }
+
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceProblemException(401, "The Basic authentication credentials given couldn't be decoded");
+        }
+
+        int separator = credentials.indexOf(':');
+        if (separator < 1) {
+            throw new ServiceProblemException(401, "The Basic authentication credentials given must include a username and token");
+        }
+
+        return new ApplicationConfiguration()
+                .setHubHostname(hostname)
+                .setHubUsername(credentials.substring(0, separator))
+                .setHubToken(credentials.substring(separator + 1));
+    }
+}
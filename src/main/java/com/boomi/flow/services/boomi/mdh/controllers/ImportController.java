@@ -0,0 +1,162 @@
+package com.boomi.flow.services.boomi.mdh.controllers;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.common.RowReaders;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordImporter;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports records from a file outside of Flow, for loads too large to go through a flow (e.g. the initial load of a
+ * universe). The Hub to import into is given as the hostname parameter, and its username and token are given using
+ * Basic authentication.
+ */
+@Path("/import")
+public class ImportController {
+    // The output belongs to the container, so it's left open, and events are separated by newlines
+    private final static JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+
+    private final GoldenRecordImporter goldenRecordImporter;
+
+    @Inject
+    public ImportController(GoldenRecordImporter goldenRecordImporter) {
+        this.goldenRecordImporter = goldenRecordImporter;
+    }
+
+    /**
+     * Imports golden records from newline-delimited JSON or CSV, while streaming back the progress as newline-delimited
+     * JSON: a line for each row that was rejected and each chunk that was saved or failed, followed by a summary
+     */
+    @POST
+    @Path("/universes/{universe}/golden-records")
+    @Consumes({ "application/x-ndjson", "text/csv" })
+    @Produces("application/x-ndjson")
+    public StreamingOutput importGoldenRecords(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization, @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType, @QueryParam("hostname") String hostname, @QueryParam("source") String source, @PathParam("universe") String universe, InputStream body) {
+        ApplicationConfiguration configuration = HubCredentials.createConfiguration(authorization, hostname);
+
+        // Anything wrong with the start of the input is given back as a 400, before the progress starts being sent
+        Iterator<Map<String, Object>> rows = isCsv(contentType)
+                ? RowReaders.csv(body)
+                : RowReaders.ndjson(body);
+
+        return output -> {
+            try (JsonGenerator generator = JSON.createGenerator(output)) {
+                GoldenRecordImporter.Summary summary = ServiceMetrics.timeOperation("golden record", "import", () -> goldenRecordImporter.importRecords(configuration, universe, source, rows, new ProgressWriter(generator)));
+
+                generator.writeStartObject();
+                generator.writeStringField("event", "complete");
+                generator.writeNumberField("rows", summary.getRows());
+                generator.writeNumberField("imported", summary.getImported());
+                generator.writeNumberField("rejected", summary.getRejected());
+                generator.writeNumberField("failed", summary.getFailed());
+                generator.writeNumberField("chunks", summary.getChunks());
+                generator.writeNumberField("failedChunks", summary.getFailedChunks());
+
+                if (summary.getError() != null) {
+                    generator.writeStringField("error", summary.getError());
+                }
+
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private static boolean isCsv(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith("text/csv");
+    }
+
+    /**
+     * Writes each event as its own line, and sends it straight away so the progress can be followed
+     */
+    private static class ProgressWriter implements GoldenRecordImporter.Listener {
+        private final JsonGenerator generator;
+
+        private ProgressWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void rejected(long row, String message) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("event", "rejected");
+                generator.writeNumberField("row", row);
+                generator.writeStringField("message", message);
+                generator.writeEndObject();
+
+                end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void saved(int chunk, String source, int records) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("event", "saved");
+                generator.writeNumberField("chunk", chunk);
+                generator.writeStringField("source", source);
+                generator.writeNumberField("records", records);
+                generator.writeEndObject();
+
+                end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void failed(int chunk, String source, List<Long> rows, String message) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("event", "failed");
+                generator.writeNumberField("chunk", chunk);
+                generator.writeStringField("source", source);
+                generator.writeNumberField("records", rows.size());
+
+                generator.writeArrayFieldStart("rows");
+                for (long row : rows) {
+                    generator.writeNumber(row);
+                }
+                generator.writeEndArray();
+
+                generator.writeStringField("message", message);
+                generator.writeEndObject();
+
+                end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void end() throws IOException {
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+}
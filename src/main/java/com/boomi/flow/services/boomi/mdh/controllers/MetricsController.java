@@ -0,0 +1,44 @@
+package com.boomi.flow.services.boomi.mdh.controllers;
+
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.base.Strings;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Serves the service's metrics in Prometheus' text format, for scraping. The metrics include the hostnames of the Hubs
+ * the service talks to, so they're only served to a scraper that gives the token in mdh.metrics.token as a Bearer
+ * token, and not at all if there isn't one.
+ */
+@Path("/metrics")
+public class MetricsController {
+    @GET
+    @Produces(TextFormat.CONTENT_TYPE_004)
+    public String metrics(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        String token = Settings.getString("mdh.metrics.token", null);
+        if (Strings.isNullOrEmpty(token)) {
+            throw new ServiceProblemException(404, "Metrics aren't served unless a token is set in mdh.metrics.token");
+        }
+
+        if (authorization == null || authorization.regionMatches(true, 0, "Bearer ", 0, 7) == false) {
+            throw new ServiceProblemException(401, "The metrics token must be given using Bearer authentication");
+        }
+
+        // Compared in constant time, so the token can't be guessed a character at a time
+        byte[] given = authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8);
+        if (MessageDigest.isEqual(given, token.getBytes(StandardCharsets.UTF_8)) == false) {
+            throw new ServiceProblemException(401, "The metrics token given is incorrect");
+        }
+
+        return ServiceMetrics.scrape();
+    }
+}
@@ -0,0 +1,23 @@
+package com.boomi.flow.services.boomi.mdh.controllers;
+
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Sends back where the time went while answering a traced request as a Server-Timing header, when both
+ * mdh.trace.enabled and mdh.trace.header are turned on
+ */
+@Provider
+public class ServerTimingFilter implements ContainerResponseFilter {
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        String timing = RequestTrace.takeServerTiming();
+        if (timing != null) {
+            response.getHeaders().add("Server-Timing", timing);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.boomi.flow.services.boomi.mdh.database;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseRepository;
+import com.boomi.flow.services.boomi.mdh.utilities.CredentialsKey;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.HubLimiter;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.boomi.flow.services.boomi.mdh.utilities.SingleFlight;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.manywho.sdk.api.draw.elements.type.TypeElement;
+import com.manywho.sdk.api.draw.elements.type.TypeElementBinding;
+import com.manywho.sdk.api.draw.elements.type.TypeElementProperty;
+import com.manywho.sdk.api.draw.elements.type.TypeElementPropertyBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the types generated for each Hub account, so describing the service doesn't have to rebuild every universe's
+ * types each time.
+ *
+ * Fresh types are returned straight away. Once they're older than the TTL they're still returned straight away, but a
+ * refresh is started in the background, which only rebuilds the types of universes whose version has changed. Types
+ * that are older than the maximum staleness are never returned, and are rebuilt before describing. Only one refresh
+ * runs at a time for each Hub account, and everyone who needs it waits for that one.
+ */
+@Singleton
+public class DescribeCache {
+    private final static Logger LOGGER = LoggerFactory.getLogger(DescribeCache.class);
+
+    private final UniverseRepository repository;
+    private final Ticker ticker;
+    private final Cache<CredentialsKey, Entry> entries;
+    private final SingleFlight<CredentialsKey, Entry> refreshes = new SingleFlight<>();
+
+    @Inject
+    public DescribeCache(UniverseRepository repository) {
+        this(repository, Ticker.systemTicker());
+    }
+
+    public DescribeCache(UniverseRepository repository, Ticker ticker) {
+        this.repository = repository;
+        this.ticker = ticker;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(Settings.getLong("mdh.describe.cache.size", 100))
+                .build();
+    }
+
+    public List<TypeElement> describe(ApplicationConfiguration configuration) {
+        CredentialsKey key = new CredentialsKey(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken());
+
+        Entry entry = entries.getIfPresent(key);
+
+        long age = entry == null ? Long.MAX_VALUE : ticker.read() - entry.loadedAt;
+
+        if (entry != null && age < TimeUnit.SECONDS.toNanos(Settings.getLong("mdh.describe.cache.max.stale", 3600))) {
+            if (age >= TimeUnit.SECONDS.toNanos(Settings.getLong("mdh.describe.cache.ttl", 60))) {
+                refreshInBackground(key, configuration, entry);
+            }
+
+            return copy(entry.types);
+        }
+
+        // Everyone describing with the same credentials at the same time waits for the same refresh
+        return copy(refreshes.call(key, () -> refresh(key, configuration, entry)).types);
+    }
+
+    /**
+     * The SDK is free to change the types we give it, so each describe gets its own copy of them, and the cached ones
+     * are never handed out
+     */
+    private static List<TypeElement> copy(List<TypeElement> types) {
+        List<TypeElement> copies = new ArrayList<>(types.size());
+
+        for (TypeElement type : types) {
+            List<TypeElementProperty> properties = new ArrayList<>();
+            for (TypeElementProperty property : type.getProperties()) {
+                properties.add(new TypeElementProperty(property.getDeveloperName(), property.getContentType(), property.getTypeElementDeveloperName()));
+            }
+
+            List<TypeElementBinding> bindings = new ArrayList<>();
+            for (TypeElementBinding binding : type.getBindings()) {
+                List<TypeElementPropertyBinding> propertyBindings = new ArrayList<>();
+                for (TypeElementPropertyBinding propertyBinding : binding.getPropertyBindings()) {
+                    propertyBindings.add(new TypeElementPropertyBinding(propertyBinding.getTypeElementPropertyDeveloperName(), propertyBinding.getDatabaseFieldName(), propertyBinding.getDatabaseContentType()));
+                }
+
+                bindings.add(new TypeElementBinding(binding.getDeveloperName(), binding.getDeveloperSummary(), binding.getDatabaseTableName(), propertyBindings));
+            }
+
+            copies.add(new TypeElement(type.getDeveloperName(), type.getDeveloperSummary(), properties, bindings));
+        }
+
+        return copies;
+    }
+
+    private void refreshInBackground(CredentialsKey key, ApplicationConfiguration configuration, Entry entry) {
+        // Only one refresh is started for each stale entry
+        if (entry.refreshing.compareAndSet(false, true) == false) {
+            return;
+        }
+
+        HubExecutor.get().execute(() -> {
+            try {
+                refreshes.call(key, () -> refresh(key, configuration, entry));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to refresh the types for the Atom at {} with the username {}, so the cached types will be used until the next describe", configuration.getHubHostname(), configuration.getHubUsername(), e);
+            } finally {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    private Entry refresh(CredentialsKey key, ApplicationConfiguration configuration, Entry previous) {
+        long loadedAt = ticker.read();
+
+        List<Universe> universes = repository.findAll(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken());
+
+        // Universes whose version hasn't changed keep their types, and the rest are built at the same time
+        List<Model> previousModels = new ArrayList<>();
+        List<Supplier<Model>> builds = new ArrayList<>();
+
+        for (Universe universe : universes) {
+            Model model = previous == null ? null : previous.models.get(universe.getId());
+
+            // A universe without a version can't be compared, so its types are always rebuilt
+            if (model != null && universe.getVersion() != null && Objects.equals(model.version, universe.getVersion())) {
+                previousModels.add(model);
+                builds.add(null);
+            } else {
+                previousModels.add(model);
+                builds.add(() -> build(configuration, universe));
+            }
+        }
+
+        List<Supplier<Model>> pending = builds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        Iterator<CompletableFuture<Model>> outcomes = HubExecutor.runAll(pending, Settings.getInt("mdh.describe.concurrency", 8))
+                .iterator();
+
+        Map<UUID, Model> models = new HashMap<>();
+        List<TypeElement> types = new ArrayList<>();
+        int rebuilt = 0;
+        int failed = 0;
+
+        for (int i = 0; i < universes.size(); i++) {
+            Universe universe = universes.get(i);
+            Model model = previousModels.get(i);
+
+            if (builds.get(i) != null) {
+                try {
+                    model = HubExecutor.join(outcomes.next());
+                    if (model != null) {
+                        rebuilt++;
+                    }
+                } catch (RuntimeException e) {
+                    // One bad universe shouldn't stop the rest from being described, so we keep any types it had before
+                    if (model == null) {
+                        LOGGER.warn("Unable to describe the universe {} in the Atom at {} with the username {}, so it will be left out", universe.getId(), configuration.getHubHostname(), configuration.getHubUsername(), e);
+                    } else {
+                        LOGGER.warn("Unable to describe the universe {} in the Atom at {} with the username {}, so its previous types will be kept", universe.getId(), configuration.getHubHostname(), configuration.getHubUsername(), e);
+                    }
+
+                    failed++;
+                }
+            }
+
+            if (model == null) {
+                continue;
+            }
+
+            models.put(universe.getId(), model);
+            types.addAll(model.types);
+        }
+
+        LOGGER.info("Built the types of {} of the {} universes in the Atom at {} with the username {} ({} failed)", rebuilt, universes.size(), configuration.getHubHostname(), configuration.getHubUsername(), failed);
+
+        Entry entry = new Entry(loadedAt, models, types);
+
+        entries.put(key, entry);
+
+        return entry;
+    }
+
+    /**
+     * Builds the types of a universe, first fetching its layout if we were only given a summary of it. Universes
+     * without a model give a null.
+     */
+    private Model build(ApplicationConfiguration configuration, Universe summary) {
+        Universe universe = summary;
+
+        if (universe.getLayout() == null || universe.getLayout().getModel() == null) {
+            if (summary.getId() == null) {
+                return null;
+            }
+
+            universe = HubLimiter.call(configuration.getHubHostname(), () -> repository.find(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), summary.getId().toString()));
+
+            if (universe == null || universe.getLayout() == null || universe.getLayout().getModel() == null) {
+                return null;
+            }
+        }
+
+        return new Model(universe.getVersion(), DescribeType.createModelTypes(universe));
+    }
+
+    private static class Model {
+        private final UUID version;
+        private final List<TypeElement> types;
+
+        private Model(UUID version, List<TypeElement> types) {
+            this.version = version;
+            this.types = types;
+        }
+    }
+
+    private static class Entry {
+        private final long loadedAt;
+        private final Map<UUID, Model> models;
+        private final List<TypeElement> types;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        private Entry(long loadedAt, Map<UUID, Model> models, List<TypeElement> types) {
+            this.loadedAt = loadedAt;
+            this.models = models;
+            this.types = Collections.unmodifiableList(types);
+        }
+    }
+}
@@ -34,7 +34,8 @@ public class DescribeType {
                 .collect(Collectors.toList());
 
         // create properties and bindings
-        List<TypeElementProperty> properties = extractProperties(universe.getLayout().getModel().getName(), universe.getLayout().getModel().getElements());
+        List<TypeElementProperty> fieldProperties = extractProperties(universe.getLayout().getModel().getName(), universe.getLayout().getModel().getElements());
+        List<TypeElementProperty> properties = new ArrayList<>(fieldProperties);
         List<TypeElementPropertyBinding> propertyBindings = extractPropertyBindings(modelName, universe.getLayout().getModel().getElements());
 
         // adding the default properties and bindings for each model type
@@ -103,9 +104,43 @@ public class DescribeType {
         // add model root type
         types.add(new TypeElement(modelName, properties, bindings));
 
+        // add golden record history type
+        types.add(createHistoryType(modelName, universeName, universeId, fieldProperties, propertyBindings));
+
         return types;
     }
 
+    /**
+     * A version of a golden record has the same fields as the golden record, but none of the other details of the
+     * model's root type, so it's described as a type of its own
+     */
+    private static TypeElement createHistoryType(String modelName, String universeName, String universeId, List<TypeElementProperty> fieldProperties, List<TypeElementPropertyBinding> propertyBindings) {
+        List<TypeElementProperty> properties = new ArrayList<>(fieldProperties);
+        properties.add(new TypeElementProperty(GoldenRecordConstants.RECORD_ID, ContentType.String));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.SOURCE_ID, ContentType.String));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.VERSION, ContentType.Number));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.START_DATE, ContentType.DateTime));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.END_DATE, ContentType.DateTime));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.END_DATE_SOURCE, ContentType.String));
+        properties.add(new TypeElementProperty(GoldenRecordConstants.TRANSACTION_ID, ContentType.String));
+
+        String developerName = modelName + " Golden Record History";
+        String developerSummaryHistory = "The structure of a version of a golden record for the " + universeName + " universe";
+        List<TypeElementPropertyBinding> propertyBindingsHistory = new ArrayList<>(propertyBindings);
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.RECORD_ID, GoldenRecordConstants.RECORD_ID_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.SOURCE_ID, GoldenRecordConstants.SOURCE_ID_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.VERSION, GoldenRecordConstants.VERSION_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.START_DATE, GoldenRecordConstants.START_DATE_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.END_DATE, GoldenRecordConstants.END_DATE_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.END_DATE_SOURCE, GoldenRecordConstants.END_DATE_SOURCE_FIELD));
+        propertyBindingsHistory.add(new TypeElementPropertyBinding(GoldenRecordConstants.TRANSACTION_ID, GoldenRecordConstants.TRANSACTION_ID_FIELD));
+
+        List<TypeElementBinding> bindings = new ArrayList<>();
+        bindings.add(new TypeElementBinding(developerName, developerSummaryHistory, universeId + "-golden-record-history", propertyBindingsHistory));
+
+        return new TypeElement(developerName, properties, bindings);
+    }
+
     private static List<Universe.Layout.Model.Element> extractOneLevelChildTypeElements(List<Universe.Layout.Model.Element> elements) {
         List<Universe.Layout.Model.Element> childTypeElement= new ArrayList<>();
 
@@ -4,7 +4,9 @@ import com.boomi.flow.services.boomi.mdh.common.Entities;
 import com.boomi.flow.services.boomi.mdh.match.FuzzyMatchDetailsConstants;
 import com.google.common.base.Strings;
 import com.manywho.sdk.api.ContentType;
+import com.boomi.flow.services.boomi.mdh.universes.ElementIndex;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.manywho.sdk.api.run.ServiceProblemException;
 import com.manywho.sdk.api.run.elements.type.MObject;
 import com.manywho.sdk.api.run.elements.type.Property;
 import org.slf4j.Logger;
@@ -16,6 +18,7 @@ import java.util.*;
 
 public class FieldMapper {
     private final static Logger LOGGER = LoggerFactory.getLogger(FieldMapper.class);
+    private final static DateTimeFormatter HUB_DATE_FORMAT = DateTimeFormatter.ISO_DATE_TIME.withZone(ZoneId.of("Z"));
 
     public enum SearchingBy {
         UNIQUE_ID,
@@ -30,19 +33,110 @@ public class FieldMapper {
     public static Map<String, Object> createMapFromModelMobject(String modelName, MObject mObject, Universe universe) {
         Map<String, Object> mapObject = new HashMap<>();
 
+        String layoutModelName = universe.getLayout().getModel().getName();
+        MappingPlan.Group fields = MappingPlan.of(universe).getFields();
+
         for (Property property: mObject.getProperties()) {
             if (property.getDeveloperName().startsWith("___") || property.getDeveloperName().equals(FuzzyMatchDetailsConstants.FUZZY_MATCH_DETAILS)) {
                 continue;
             } else {
-                Object object = createMapEntry(property, universe.getLayout().getModel().getName(), universe.getLayout().getModel().getElements());
+                putMapEntry(mapObject, property, modelName, layoutModelName, universe, fields);
+            }
+        }
 
-                if (object == null) {
-                    continue;
-                }
+        return mapObject;
+    }
+
+    /**
+     * Create the fields to send to the Hub for a row being imported, where each column is named after a field's name,
+     * unique ID or collection tag. Field groups are given as objects, and repeatable field groups as lists of objects,
+     * with the columns inside them named after the group's own fields. Our "internal" columns (e.g. the source ID) and
+     * the universe's ID field are left for the caller to deal with.
+     */
+    public static Map<String, Object> createMapFromRow(Map<String, Object> row, Universe universe) {
+        Map<String, Object> mapObject = new HashMap<>();
+        Map<String, String> columns = new HashMap<>();
 
-                String objectName = getEntryNameToSendToHubApi(modelName, property, universe.getLayout().getModel().getElements());
-                mapObject.put(objectName, object);
+        MappingPlan.Group fields = MappingPlan.of(universe).getFields();
+
+        for (Map.Entry<String, Object> column : row.entrySet()) {
+            if (column.getKey().startsWith("___") || column.getKey().equalsIgnoreCase(universe.getIdField())) {
+                continue;
             }
+
+            addRowEntry(mapObject, columns, column.getKey(), column.getKey(), column.getValue(), fields);
+        }
+
+        return mapObject;
+    }
+
+    /**
+     * Adds a column to the fields of the group it was given in, where the path is the column's full name for errors
+     * (e.g. "contact.phone"), and the columns are the ones already added to the group, by the field they were added as
+     */
+    @SuppressWarnings("unchecked")
+    private static void addRowEntry(Map<String, Object> mapObject, Map<String, String> columns, String path, String column, Object value, MappingPlan.Group fields) {
+        if (value == null) {
+            return;
+        }
+
+        if (fields.isAmbiguous(column)) {
+            throw new ServiceProblemException(400, "The column " + path + " matches more than one field, so it can't be told which one to import");
+        }
+
+        MappingPlan.Field field = fields.findImported(column);
+        if (field == null) {
+            if (path.equals(column)) {
+                throw new ServiceProblemException(400, "The column " + path + " isn't a field in the universe");
+            }
+
+            throw new ServiceProblemException(400, "The column " + path + " isn't a field in the field group " + path.substring(0, path.length() - column.length() - 1));
+        }
+
+        String existing = columns.putIfAbsent(field.getHubName(), column);
+        if (existing != null) {
+            throw new ServiceProblemException(400, "The columns " + existing + " and " + column + " are both the field " + field.getElement().getName() + ", so only one of them can be given");
+        }
+
+        Universe.Layout.Model.Element element = field.getElement();
+
+        if (field.getFields() != null && element.isRepeatable()) {
+            if (value instanceof List == false) {
+                throw new ServiceProblemException(400, "The column " + path + " is a repeatable field group, so it must be given as a list of objects");
+            }
+
+            List<Map<String, Object>> listOfObjects = new ArrayList<>();
+
+            for (Object item : (List<Object>) value) {
+                Map<String, Object> wrapperObject = new HashMap<>();
+                wrapperObject.put(element.getName(), createGroupFromRow(path, item, field.getFields()));
+
+                listOfObjects.add(wrapperObject);
+            }
+
+            mapObject.put(field.getHubName(), listOfObjects);
+        } else if (field.getFields() != null) {
+            mapObject.put(field.getHubName(), createGroupFromRow(path, value, field.getFields()));
+        } else if (value instanceof Map || value instanceof List) {
+            throw new ServiceProblemException(400, "The column " + path + " is a single field, so it can't be given as an object or list");
+        } else if (value instanceof Boolean) {
+            mapObject.put(field.getHubName(), value.toString().toLowerCase());
+        } else {
+            mapObject.put(field.getHubName(), value.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> createGroupFromRow(String path, Object value, MappingPlan.Group fields) {
+        if (value instanceof Map == false) {
+            throw new ServiceProblemException(400, "The column " + path + " is a field group, so it must be given as an object");
+        }
+
+        Map<String, Object> mapObject = new HashMap<>();
+        Map<String, String> columns = new HashMap<>();
+
+        for (Map.Entry<String, Object> child : ((Map<String, Object>) value).entrySet()) {
+            addRowEntry(mapObject, columns, path + "." + child.getKey(), child.getKey(), child.getValue(), fields);
         }
 
         return mapObject;
@@ -51,14 +145,14 @@ public class FieldMapper {
     /**
      * from the property name (uniqueId) we need to find the name to be send to hub name/collectionTag
      */
-    public static String getEntryNameToSendToHubApi(String modelName, Property property, List<Universe.Layout.Model.Element> elements) {
+    public static String getEntryNameToSendToHubApi(String modelName, Property property, Universe universe) {
         String fieldName = property.getDeveloperName();
 
         if (property.getContentType() == ContentType.Object || property.getContentType() == ContentType.List) {
             fieldName = Entities.removeModelPrefix(property.getDeveloperName(), modelName);
         }
 
-        Universe.Layout.Model.Element foundElement = findElementBy(elements, fieldName, SearchingBy.UNIQUE_ID);
+        Universe.Layout.Model.Element foundElement = findElementBy(universe, fieldName, SearchingBy.UNIQUE_ID);
 
         if (foundElement.isRepeatable()) {
             return foundElement.getCollectionTag();
@@ -71,6 +165,18 @@ public class FieldMapper {
      * preparing the response to be send to flow
      */
     public static void renameMobjectPropertiesToUseUniqueId(Universe universe, MObject mObject) {
+        // an object with only our own properties (e.g. a quarantine entry the Hub couldn't parse) has nothing to rename,
+        // and may not have a universe
+        MappingPlan.Group fields = universe == null ? null : MappingPlan.of(universe).getFields();
+
+        renameMobjectPropertiesToUseUniqueId(universe, mObject, fields, fields);
+    }
+
+    /**
+     * renames the properties of an object in a field group, using the fields in that group from the mapping plan. If
+     * the group isn't in the plan, the fields are null, and every property is searched for in the whole model instead
+     */
+    private static void renameMobjectPropertiesToUseUniqueId(Universe universe, MObject mObject, MappingPlan.Group fields, MappingPlan.Group modelFields) {
         // we don't need to rename anything related with our properties and neither with Fuzzy Match Details
         for(Property property: mObject.getProperties()) {
             if (property.getDeveloperName().startsWith("__")
@@ -90,8 +196,18 @@ public class FieldMapper {
             }
 
             String newName = property.getDeveloperName();
+
+            // the objects in one of our properties are whole records, so their properties are in the model itself
+            MappingPlan.Group childFields = modelFields;
+
             if (changePropertyName) {
-                newName = getUniqueIdByPropertyName(universe.getLayout().getModel().getName(), property, universe.getLayout().getModel().getElements());
+                MappingPlan.Field field = fields == null ? null : fields.findInbound(property.getDeveloperName());
+
+                newName = field == null
+                        ? getUniqueIdByPropertyName(universe.getLayout().getModel().getName(), property, universe)
+                        : field.getFlowName();
+
+                childFields = field == null ? null : field.getFields();
             }
 
             // if it is one of our properties we don't change the property name, but we still need to change the property names of the object in objectData
@@ -108,7 +224,7 @@ public class FieldMapper {
                         childObject.setDeveloperName(newName);
                     }
 
-                    renameMobjectPropertiesToUseUniqueId(universe, childObject);
+                    renameMobjectPropertiesToUseUniqueId(universe, childObject, childFields, modelFields);
                 }
             }
 
@@ -120,17 +236,17 @@ public class FieldMapper {
      * when the response is translated automatically mapped to MObject the names are still name/collectionTag,
      * we search in this method for a name that flow understand (uniqueId)
      */
-    public static String getUniqueIdByPropertyName(String modelName, Property property, List<Universe.Layout.Model.Element> elements) {
+    public static String getUniqueIdByPropertyName(String modelName, Property property, Universe universe) {
         String fieldName = property.getDeveloperName();
 
         if (property.getContentType() == ContentType.List) {
             fieldName = Entities.removeModelPrefix(property.getDeveloperName(), modelName);
-            Universe.Layout.Model.Element foundElement = findElementBy(elements, fieldName, SearchingBy.COLLECTION_TAG);
+            Universe.Layout.Model.Element foundElement = findElementBy(universe, fieldName, SearchingBy.COLLECTION_TAG);
 
             return foundElement.getUniqueId().toLowerCase();
         } else if(property.getContentType() == ContentType.Object) {
             fieldName = Entities.removeModelPrefix(property.getDeveloperName(), modelName);
-            Universe.Layout.Model.Element foundElement = findElementBy(elements, fieldName, SearchingBy.NAME);
+            Universe.Layout.Model.Element foundElement = findElementBy(universe, fieldName, SearchingBy.NAME);
 
             return foundElement.getUniqueId().toLowerCase();
         } else if (fieldName.startsWith(modelName + " - ")) {
@@ -140,7 +256,7 @@ public class FieldMapper {
             fieldName = Entities.removeModelPrefix(property.getDeveloperName(), modelName);
         }
 
-        Universe.Layout.Model.Element foundElement = findElementBy(elements, fieldName, SearchingBy.NAME);
+        Universe.Layout.Model.Element foundElement = findElementBy(universe, fieldName, SearchingBy.NAME);
 
         if (foundElement == null) {
             throw new RuntimeException("The field "+ fieldName + " hasn't been found, please update the service");
@@ -150,32 +266,45 @@ public class FieldMapper {
     }
 
     /*
-        this is a recursive search through all the element, we can search elements by collectionTag, Name or UniqueID
+        we can search elements (including nested ones) by collectionTag, Name or UniqueID, using an index that's built
+        once for each version of the universe
      */
-    static Universe.Layout.Model.Element findElementBy(List<Universe.Layout.Model.Element> elements, String search, SearchingBy searchingBy) {
-        Universe.Layout.Model.Element found = null;
-        for(Universe.Layout.Model.Element element: elements) {
-            if (searchingBy == SearchingBy.NAME && element.getName().equalsIgnoreCase(search) ||
-                    searchingBy == SearchingBy.COLLECTION_TAG && element.getName().equalsIgnoreCase(search) ||
-                    searchingBy == SearchingBy.UNIQUE_ID && element.getUniqueId().equalsIgnoreCase(search)) {
-                return element;
-            }
-
-            if (element.getElements() != null && element.getElements().size() > 0) {
-                found = findElementBy(element.getElements(), search, searchingBy);
-
-                if (found != null) {
-                    return found;
-                }
-            }
+    static Universe.Layout.Model.Element findElementBy(Universe universe, String search, SearchingBy searchingBy) {
+        ElementIndex index = ElementIndex.of(universe);
+
+        switch (searchingBy) {
+            case NAME:
+                return index.findByName(search);
+            case COLLECTION_TAG:
+                return index.findByCollectionTag(search);
+            case UNIQUE_ID:
+                return index.findByUniqueId(search);
+            default:
+                return null;
+        }
+    }
 
+    /**
+     * adds the value of a property to the fields being sent to the Hub, using the field it's mapped to in the given
+     * group of the mapping plan. If it isn't there (or the group isn't in the plan), the property is searched for in the
+     * whole model instead
+     */
+    private static void putMapEntry(Map<String, Object> mapObject, Property property, String modelName, String layoutModelName, Universe universe, MappingPlan.Group fields) {
+        MappingPlan.Field field = fields == null ? null : fields.findOutbound(property.getDeveloperName());
 
+        Object object = createMapEntry(property, layoutModelName, universe, field);
+        if (object == null) {
+            return;
         }
 
-        return found;
+        String objectName = field == null
+                ? getEntryNameToSendToHubApi(modelName, property, universe)
+                : field.getHubName();
+
+        mapObject.put(objectName, object);
     }
 
-    static Object createMapEntry(Property property, String modelName, List<Universe.Layout.Model.Element> elements) {
+    private static Object createMapEntry(Property property, String layoutModelName, Universe universe, MappingPlan.Field field) {
         if (property.getContentValue() != null) {
             if (property.getContentType() == null) {
                 // If we don't know the contentType, then just return the contentValue
@@ -190,20 +319,20 @@ public class FieldMapper {
                         null :
                         OffsetDateTime
                             .parse(property.getContentValue())
-                            .format(DateTimeFormatter.ISO_DATE_TIME.withZone(ZoneId.of("Z")));
+                            .format(HUB_DATE_FORMAT);
                 case Boolean:
                     return property.getContentValue().toLowerCase();
                 default:
                     return property.getContentValue();
             }
         } else if (property.getObjectData() != null) {
+            MappingPlan.Group childFields = field == null ? null : field.getFields();
+
             if (property.getContentType() == ContentType.Object) {
-                Map<String, Object> objectHashMap = new HashMap<>();
                 if (property.getObjectData().size() > 0) {
                     MObject firstAndUniqueObject = property.getObjectData().get(0);
-                    objectHashMap = createMapFromMobject(firstAndUniqueObject, modelName, elements);
 
-                    return objectHashMap.values().iterator().next();
+                    return createMapFromMobject(firstAndUniqueObject, layoutModelName, universe, childFields);
                 }
 
                 return null;
@@ -212,7 +341,15 @@ public class FieldMapper {
             List<Map<String, Object>> listOfObjects = new ArrayList<>();
 
             for (MObject mobjectItem: property.getObjectData()) {
-                listOfObjects.add(createMapFromMobject(mobjectItem, modelName, elements));
+                // each item in a collection is wrapped in the group it's a collection of
+                Universe.Layout.Model.Element element = field == null
+                        ? findElementBy(universe, Entities.removeModelPrefix(mobjectItem.getDeveloperName(), layoutModelName), SearchingBy.UNIQUE_ID)
+                        : field.getElement();
+
+                Map<String, Object> wrapperObject = new HashMap<>();
+                wrapperObject.put(element.getName(), createMapFromMobject(mobjectItem, layoutModelName, universe, childFields));
+
+                listOfObjects.add(wrapperObject);
             }
 
             return listOfObjects;
@@ -221,23 +358,14 @@ public class FieldMapper {
         return null;
     }
 
-    public static Map<String, Object> createMapFromMobject(MObject mObject, String modelName, List<Universe.Layout.Model.Element> elements) {
+    private static Map<String, Object> createMapFromMobject(MObject mObject, String layoutModelName, Universe universe, MappingPlan.Group fields) {
         Map<String, Object> mapObject = new HashMap<>();
 
+        // the properties inside a field group are named using the model's name, rather than the universe's
         for (Property property: mObject.getProperties()) {
-            Object childObject = createMapEntry(property, modelName, elements);
-            if (childObject != null) {
-                String name = getEntryNameToSendToHubApi(modelName, property, elements);
-                mapObject.put(name, childObject);
-            }
+            putMapEntry(mapObject, property, layoutModelName, layoutModelName, universe, fields);
         }
 
-        Map<String, Object> wrapperObject = new HashMap<>();
-
-        Universe.Layout.Model.Element element = findElementBy(elements, Entities.removeModelPrefix(mObject.getDeveloperName(), modelName), SearchingBy.UNIQUE_ID);
-
-        wrapperObject.put(element.getName(), mapObject);
-
-        return wrapperObject;
+        return mapObject;
     }
 }
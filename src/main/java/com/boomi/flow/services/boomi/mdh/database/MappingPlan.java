@@ -0,0 +1,189 @@
+package com.boomi.flow.services.boomi.mdh.database;
+
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The field conversions for a model, compiled once from its layout into a tree that mirrors the model: each field group
+ * holds the fields inside it, keyed on the exact property names that Flow and the Hub give them (e.g. the lowercased
+ * unique ID for a Flow property, or "model - uniqueid" for a field group). Mapping a record walks this tree alongside
+ * the record, so each property is resolved against the fields of the group it's in with a single hash lookup, and the
+ * names to write are already worked out.
+ *
+ * A lookup returns null for a name it doesn't know (e.g. one in a different case), in which case the caller falls back
+ * to searching all of the model's elements. Columns being imported are the exception: they're matched in any case, but
+ * only against the fields of the group they're in, and a column that isn't found there is rejected.
+ */
+class MappingPlan {
+    private static final Cache<String, MappingPlan> PLANS = CacheBuilder.newBuilder()
+            .maximumSize(Settings.getLong("mdh.universe.cache.size", 1000))
+            .build();
+
+    static class Field {
+        private final Universe.Layout.Model.Element element;
+        private final String hubName;
+        private final String flowName;
+        private final Group fields;
+
+        private Field(Universe.Layout.Model.Element element, String prefix) {
+            this.element = element;
+            this.hubName = element.isRepeatable() ? element.getCollectionTag() : element.getName();
+            this.flowName = element.getUniqueId() == null ? null : normalize(element.getUniqueId());
+            this.fields = isGroup(element) ? new Group(element.getElements(), prefix) : null;
+        }
+
+        Universe.Layout.Model.Element getElement() {
+            return element;
+        }
+
+        /**
+         * The name the Hub gives this field, i.e. its collection tag if it's repeatable, otherwise its name
+         */
+        String getHubName() {
+            return hubName;
+        }
+
+        /**
+         * The name Flow gives this field, i.e. its lowercased unique ID
+         */
+        String getFlowName() {
+            return flowName;
+        }
+
+        /**
+         * The fields inside this field group, or null if it's a single field
+         */
+        Group getFields() {
+            return fields;
+        }
+    }
+
+    static class Group {
+        private final List<Field> fields;
+        private final Map<String, Field> byFlowName;
+        private final Map<String, Field> byHubName;
+        private final Map<String, Field> byImportedName;
+        private final Set<String> ambiguousImportedNames;
+
+        private Group(List<Universe.Layout.Model.Element> elements, String prefix) {
+            ImmutableList.Builder<Field> fields = ImmutableList.builder();
+            Map<String, Field> byFlowName = new HashMap<>();
+            Map<String, Field> byHubName = new HashMap<>();
+            Map<String, Field> byImportedName = new HashMap<>();
+            Set<String> ambiguousImportedNames = new HashSet<>();
+
+            if (elements != null) {
+                for (Universe.Layout.Model.Element element : elements) {
+                    Field field = new Field(element, prefix);
+                    fields.add(field);
+
+                    // Flow and the Hub both give a field group the model's name as a prefix, which a single field can't have
+                    String groupPrefix = field.getFields() == null ? "" : prefix;
+
+                    if (field.getFlowName() != null) {
+                        byFlowName.putIfAbsent(groupPrefix + field.getFlowName(), field);
+                    }
+
+                    if (element.getName() != null) {
+                        byHubName.putIfAbsent(groupPrefix + element.getName(), field);
+                    }
+
+                    for (String name : new String[] { element.getName(), element.getUniqueId(), element.getCollectionTag() }) {
+                        if (name == null) {
+                            continue;
+                        }
+
+                        // A name shared by two fields in the same group can't be imported into either of them
+                        Field existing = byImportedName.putIfAbsent(normalize(name), field);
+                        if (existing != null && existing != field) {
+                            ambiguousImportedNames.add(normalize(name));
+                        }
+                    }
+                }
+            }
+
+            ambiguousImportedNames.forEach(byImportedName::remove);
+
+            this.fields = fields.build();
+            this.byFlowName = ImmutableMap.copyOf(byFlowName);
+            this.byHubName = ImmutableMap.copyOf(byHubName);
+            this.byImportedName = ImmutableMap.copyOf(byImportedName);
+            this.ambiguousImportedNames = ImmutableSet.copyOf(ambiguousImportedNames);
+        }
+
+        /**
+         * Finds the field in this group that a Flow property should be sent to the Hub as
+         */
+        Field findOutbound(String developerName) {
+            return byFlowName.get(developerName);
+        }
+
+        /**
+         * Finds the field in this group that a property returned from the Hub should be given to Flow as. The Hub names
+         * a collection after the group in it, rather than its collection tag, so every field is found by its name.
+         */
+        Field findInbound(String developerName) {
+            return byHubName.get(developerName);
+        }
+
+        /**
+         * Finds the field in this group that a column being imported should be sent to the Hub as, by its name, unique
+         * ID or collection tag, in any case. Only this group's own fields are matched, so a column for a field inside a
+         * field group has to be given inside that group's column.
+         */
+        Field findImported(String column) {
+            return byImportedName.get(normalize(column));
+        }
+
+        /**
+         * Whether a column's name is shared by more than one field in this group, so it can't be told which to import
+         */
+        boolean isAmbiguous(String column) {
+            return ambiguousImportedNames.contains(normalize(column));
+        }
+    }
+
+    private final Group fields;
+
+    static MappingPlan of(Universe universe) {
+        // As with the element index, a universe without a version can't be told apart from a changed copy of itself
+        if (universe.getId() == null || universe.getVersion() == null) {
+            return new MappingPlan(universe);
+        }
+
+        return PLANS.asMap().computeIfAbsent(universe.getId() + "/" + universe.getVersion(), key -> new MappingPlan(universe));
+    }
+
+    private MappingPlan(Universe universe) {
+        String prefix = universe.getLayout().getModel().getName() + " - ";
+
+        this.fields = new Group(universe.getLayout().getModel().getElements(), prefix);
+    }
+
+    /**
+     * The top-level fields of the model
+     */
+    Group getFields() {
+        return fields;
+    }
+
+    private static boolean isGroup(Universe.Layout.Model.Element element) {
+        return element.getElements() != null && element.getElements().isEmpty() == false;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+}
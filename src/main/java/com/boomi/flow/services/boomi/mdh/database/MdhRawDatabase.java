@@ -4,6 +4,8 @@ import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
 import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
 import com.manywho.sdk.api.draw.content.Command;
 import com.manywho.sdk.api.run.ServiceProblemException;
 import com.manywho.sdk.api.run.elements.type.ListFilter;
@@ -13,6 +15,7 @@ import com.manywho.sdk.services.database.RawDatabase;
 import javax.inject.Inject;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class MdhRawDatabase implements RawDatabase<ApplicationConfiguration> {
     private final QuarantineRepository quarantineRepository;
@@ -39,13 +42,19 @@ public class MdhRawDatabase implements RawDatabase<ApplicationConfiguration> {
         if (typeName.endsWith("-quarantine")) {
             String universe = removeEndingSubstring(typeName, "-quarantine");
 
-            return quarantineRepository.findAll(configuration, universe, filter);
+            return measure("quarantine entry", "load", () -> quarantineRepository.findAll(configuration, universe, filter));
         }
 
         if (typeName.endsWith("-golden-record")) {
             String universe = removeEndingSubstring(typeName, "-golden-record");
 
-            return goldenRecordRepository.findAll(configuration, universe, filter);
+            return measure("golden record", "load", () -> goldenRecordRepository.findAll(configuration, universe, filter));
+        }
+
+        if (typeName.endsWith("-golden-record-history")) {
+            String universe = removeEndingSubstring(typeName, "-golden-record-history");
+
+            return measure("golden record history", "load", () -> goldenRecordRepository.findHistory(configuration, universe, filter));
         }
 
         if (typeName.endsWith("-match")) {
@@ -55,13 +64,20 @@ public class MdhRawDatabase implements RawDatabase<ApplicationConfiguration> {
                 throw new RuntimeException("Only list values are supported when loading entity matches");
             }
 
-            return matchEntityRespository.matchEntity(configuration, universe, objects);
+            return measure("match", "load", () -> matchEntityRespository.matchEntity(configuration, universe, objects));
         }
 
         // TODO
         return null;
     }
 
+    /**
+     * Times the operation, and traces where its time went if tracing is enabled
+     */
+    private static <T> T measure(String type, String operation, Supplier<T> supplier) {
+        return ServiceMetrics.timeOperation(type, operation, () -> RequestTrace.trace(type, operation, supplier));
+    }
+
     private String removeEndingSubstring(String original, String ending) {
         return original.substring(0, original.length() - ending.length());
     }
@@ -88,7 +104,11 @@ public class MdhRawDatabase implements RawDatabase<ApplicationConfiguration> {
         if (typeName.endsWith("-golden-record")) {
             String universe = typeName.replace("-golden-record", "");
 
-            goldenRecordRepository.delete(configuration, universe, objects);
+            measure("golden record", "delete", () -> {
+                goldenRecordRepository.delete(configuration, universe, objects);
+
+                return null;
+            });
             return;
         }
 
@@ -110,7 +130,7 @@ public class MdhRawDatabase implements RawDatabase<ApplicationConfiguration> {
         if (typeName.endsWith("-golden-record")) {
             String universe = removeEndingSubstring(typeName,"-golden-record");
 
-            return goldenRecordRepository.update(configuration, universe, objects);
+            return measure("golden record", "save", () -> goldenRecordRepository.update(configuration, universe, objects));
         }
 
         throw new ServiceProblemException(400, "The type " + typeName + " does not support saving");
@@ -1,8 +1,6 @@
 package com.boomi.flow.services.boomi.mdh.database;
 
 import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
-import com.boomi.flow.services.boomi.mdh.universes.Universe;
-import com.boomi.flow.services.boomi.mdh.universes.UniverseRepository;
 import com.google.common.base.Strings;
 import com.manywho.sdk.api.describe.DescribeServiceRequest;
 import com.manywho.sdk.api.draw.elements.type.TypeElement;
@@ -12,18 +10,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class MdhTypeProvider implements TypeProvider<ApplicationConfiguration> {
     private final static Logger LOGGER = LoggerFactory.getLogger(MdhTypeProvider.class);
 
-    private final UniverseRepository repository;
+    private final DescribeCache describeCache;
 
     @Inject
-    public MdhTypeProvider(UniverseRepository repository) {
-        this.repository = repository;
+    public MdhTypeProvider(DescribeCache describeCache) {
+        this.describeCache = describeCache;
     }
 
     @Override
@@ -40,6 +36,10 @@ public class MdhTypeProvider implements TypeProvider<ApplicationConfiguration> {
             return true;
         }
 
+        if (name.endsWith("-golden-record-history")) {
+            return true;
+        }
+
         if (name.endsWith("-match")) {
             return true;
         }
@@ -47,14 +47,6 @@ public class MdhTypeProvider implements TypeProvider<ApplicationConfiguration> {
         return false;
     }
 
-    private static List<TypeElement> loadModelTypes(List<Universe> universes) {
-        return universes.stream()
-                .filter(universe -> universe.getLayout() != null && universe.getLayout().getModel() != null)
-                .map(DescribeType::createModelTypes)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
-    }
-
     @Override
     public List<TypeElement> describeTypes(ApplicationConfiguration configuration, DescribeServiceRequest request) {
         // TODO: Get this bug fixed in the system flows
@@ -74,8 +66,6 @@ public class MdhTypeProvider implements TypeProvider<ApplicationConfiguration> {
             throw new ServiceProblemException(400, "Hub Hostname can not be empty");
         }
 
-        List<Universe> universes = repository.findAll(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken());
-
-        return loadModelTypes(universes);
+        return describeCache.describe(configuration);
     }
 }
@@ -7,25 +7,36 @@ import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
 import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.HubLimiter;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
 import com.manywho.sdk.api.run.ServiceProblemException;
 import com.manywho.sdk.api.run.elements.type.MObject;
 import com.manywho.sdk.api.run.elements.type.Property;
+
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class MatchEntityRepository {
 
     private final MdhClient client;
+    private final UniverseCache universeCache;
 
     @Inject
-    public MatchEntityRepository(MdhClient mdhClient) {
+    public MatchEntityRepository(MdhClient mdhClient, UniverseCache universeCache) {
         this.client = mdhClient;
+        this.universeCache = universeCache;
     }
 
     public List<MObject> matchEntity(ApplicationConfiguration configuration, String universeId, List<MObject> objects) {
-        Universe universe = client.findUniverse(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
+        Universe universe = universeCache.find(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
 
+        // Keep the sources in the order they were first seen, so the results always come back in the same order
         Map<String, List<MObject>> objectsBySource = objects.stream()
                 .map(object -> Entities.setRandomUniqueIdIfEmpty(object, universe.getIdField(), true))
                 .collect(Collectors.groupingBy(object ->
@@ -34,32 +45,46 @@ public class MatchEntityRepository {
                         .filter(property -> property.getDeveloperName().equals(GoldenRecordConstants.SOURCE_ID_FIELD))
                         .map(Property::getContentValue)
                         .findFirst()
-                        .orElseThrow(() -> new ServiceProblemException(400, "No Source ID was given for the record to update"))));
+                        .orElseThrow(() -> new ServiceProblemException(400, "No Source ID was given for the record to update")),
+                        LinkedHashMap::new,
+                        Collectors.toList()));
 
-        List<List<MatchEntityResponse.MatchResult>> resultsList = new ArrayList<>();
+        List<Supplier<List<MatchEntityResponse.MatchResult>>> requests = new ArrayList<>();
         for (Map.Entry<String, List<MObject>> sourceGroup : objectsBySource.entrySet()) {
             // TODO: Check if we should be setting this to a default value, or error if no source was set
             String sourceId = sourceGroup.getKey().isEmpty()
                     ? GoldenRecordConstants.DEFAULT_SOURCE_ID
                     : sourceGroup.getKey();
 
-            List<BatchUpdateRequest.Entity> entities = sourceGroup.getValue().stream()
+            List<BatchUpdateRequest.Entity> entities = ServiceMetrics.mapping("match", "to-hub").record(() -> sourceGroup.getValue().stream()
                     .map(mObject -> createUpdateEntity(universe, mObject))
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toList()));
 
-            resultsList.add(getResults(configuration, entities, sourceId, universe));
+            // Every match counts towards the Hub's limit, whether or not it's sent alongside others
+            requests.add(() -> HubLimiter.call(configuration.getHubHostname(), () -> getResults(configuration, entities, sourceId, universe)));
         }
 
-        return resultsList.stream()
+        List<List<MatchEntityResponse.MatchResult>> resultsList;
+        if (requests.size() == 1) {
+            resultsList = Collections.singletonList(requests.get(0).get());
+        } else {
+            // Match the sources in parallel (with the calling thread taking part, and no more at once than the Hub will
+            // take), and wait for all of them before merging in the original source order
+            List<CompletableFuture<List<MatchEntityResponse.MatchResult>>> futures = HubExecutor.runAll(requests, HubLimiter.concurrency());
+
+            resultsList = HubExecutor.joinAll(futures, "match the records against the universe " + universeId);
+        }
+
+        return ServiceMetrics.mapping("match", "to-flow").record(() -> resultsList.stream()
                 .flatMap(Collection::stream)
                 .filter(result -> result.getEntity() != null)
                 .map(matchResult -> {
-                    MObject mObject = Entities.createMatchMObject(universeId, universe, matchResult);
-                    FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject);
+                    MObject mObject = RequestTrace.time("mobject", () -> Entities.createMatchMObject(universeId, universe, matchResult));
+                    RequestTrace.time("mapping", () -> FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject));
 
                     return mObject;
                 })
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     private List<MatchEntityResponse.MatchResult> getResults(ApplicationConfiguration configuration,
@@ -75,6 +100,8 @@ public class MatchEntityRepository {
                 configuration.getHubUsername(), configuration.getHubToken(), universe.getId().toString(),
                 updateRequest);
 
+        ServiceMetrics.hubPageRecords("match").record(matchResponse.getMatchResults().size());
+
         for (MatchEntityResponse.MatchResult result: matchResponse.getMatchResults()) {
             result.setIdResource(sourceId);
         }
@@ -84,7 +111,7 @@ public class MatchEntityRepository {
 
     private BatchUpdateRequest.Entity createUpdateEntity(Universe universe, MObject entity) {
         // Map all the properties to fields, except our "internal" ones
-        Map<String, Object> fields = FieldMapper.createMapFromModelMobject(universe.getName(), entity, universe);
+        Map<String, Object> fields = RequestTrace.time("mapping", () -> FieldMapper.createMapFromModelMobject(universe.getName(), entity, universe));
         fields.put(universe.getIdField(), Entities.extractFieldIdValueOrRandomGenerate(entity));
 
         return new BatchUpdateRequest.Entity()
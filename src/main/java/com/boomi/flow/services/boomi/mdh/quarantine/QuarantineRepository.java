@@ -8,8 +8,11 @@ import com.boomi.flow.services.boomi.mdh.common.Entities;
 import com.boomi.flow.services.boomi.mdh.common.ListFilters;
 import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
 import com.boomi.flow.services.boomi.mdh.universes.UniverseRepository;
 import com.boomi.flow.services.boomi.mdh.utilities.OffsetTokenGenerator;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
 import com.manywho.sdk.api.ComparisonType;
 import com.manywho.sdk.api.CriteriaType;
 import com.manywho.sdk.api.run.ServiceProblemException;
@@ -65,15 +68,19 @@ public class QuarantineRepository {
     };
 
     private final MdhClient mdhClient;
+    private final UniverseCache universeCache;
 
     @Inject
-    public QuarantineRepository(MdhClient mdhClient) {
+    public QuarantineRepository(MdhClient mdhClient, UniverseCache universeCache) {
         this.mdhClient = mdhClient;
+        this.universeCache = universeCache;
     }
 
     public List<MObject> findAll(ApplicationConfiguration configuration, String universeId, ListFilter filter) {
         LOGGER.info("Loading quarantine entries for the universe {} from the Atom at {} with the username {}", universeId, configuration.getHubHostname(), configuration.getHubUsername());
 
+        long building = System.nanoTime();
+
         Integer limit = (filter == null) ? null : filter.getLimit();
 
         QuarantineQueryRequest queryRequest = new QuarantineQueryRequest()
@@ -84,21 +91,28 @@ public class QuarantineRepository {
 
         queryRequest.setType(findStatusFilter(filter));
 
-        Universe universe = mdhClient.findUniverse(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
+        RequestTrace.record("query", System.nanoTime() - building);
+
+        UniverseCache.Found<QuarantineQueryResponse> found = universeCache.findWhile(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId,
+                () -> mdhClient.queryQuarantineEntries(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, queryRequest));
+
+        QuarantineQueryResponse result = found.getResult();
+        Universe universe = found.getUniverse();
 
-        QuarantineQueryResponse result = mdhClient.queryQuarantineEntries(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, queryRequest);
         if (result == null || result.getEntries() == null) {
             return new ArrayList<>();
         }
 
-        return result.getEntries().stream()
+        ServiceMetrics.hubPageRecords("quarantine entry").record(result.getEntries().size());
+
+        return ServiceMetrics.mapping("quarantine entry", "to-flow").record(() -> result.getEntries().stream()
                 .map(entry -> {
-                    MObject mObject = Entities.createQuarantineMObject(universeId, entry);
-                    FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject);
+                    MObject mObject = RequestTrace.time("mobject", () -> Entities.createQuarantineMObject(universeId, entry));
+                    RequestTrace.time("mapping", () -> FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject));
 
                     return mObject;
                 })
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     private String findStatusFilter(ListFilter filter) {
@@ -15,4 +15,14 @@ public class GoldenRecordConstants {
     public static final String LINKS = "Golden Record: Links";
     public static final String LINKS_FIELD = "___links";
     public static final String LINK = "Golden Record: Link";
+    public static final String VERSION = "Golden Record History: Version";
+    public static final String VERSION_FIELD = "___version";
+    public static final String START_DATE = "Golden Record History: Start Date";
+    public static final String START_DATE_FIELD = "___startDate";
+    public static final String END_DATE = "Golden Record History: End Date";
+    public static final String END_DATE_FIELD = "___endDate";
+    public static final String END_DATE_SOURCE = "Golden Record History: End Date Source";
+    public static final String END_DATE_SOURCE_FIELD = "___endDateSource";
+    public static final String TRANSACTION_ID = "Golden Record History: Transaction ID";
+    public static final String TRANSACTION_ID_FIELD = "___transactionId";
 }
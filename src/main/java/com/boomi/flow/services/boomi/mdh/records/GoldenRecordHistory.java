@@ -5,10 +5,16 @@ import com.migesok.jaxb.adapter.javatime.OffsetDateTimeXmlAdapter;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 @XmlJavaTypeAdapter(GoldenRecordHistoryAdapter.class)
 public class GoldenRecordHistory {
+    /**
+     * The format the Hub gives the dates of a version in, which isn't ISO 8601 (e.g. 02-08-2015T14:17:06.000-0400)
+     */
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM-dd-yyyy'T'HH:mm:ss.SSS[xxx][xx][X]");
+
     private OffsetDateTime endDate;
     private String grid;
     private String source;
@@ -90,6 +96,11 @@ public class GoldenRecordHistory {
         return this;
     }
 
+    /**
+     * The fields of the version, by their name in the Hub. A field group is a map of its fields, and a repeatable field
+     * group is a list with a map for each of its groups, keyed by the group's name (as in a {@link
+     * com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest.Entity}).
+     */
     public Map<String, Object> getFields() {
         return fields;
     }
@@ -7,8 +7,10 @@ import org.w3c.dom.Node;
 
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class GoldenRecordHistoryAdapter extends XmlAdapter<Element, GoldenRecordHistory> {
@@ -21,17 +23,15 @@ public class GoldenRecordHistoryAdapter extends XmlAdapter<Element, GoldenRecord
 
     @Override
     public GoldenRecordHistory unmarshal(Element wrapper) throws Exception {
-        DateTimeFormatter pattern = DateTimeFormatter.ofPattern("MM-dd-yyyy'T'HH:mm:ss.SSS[xxx][xx][X]");
-
         try {
             GoldenRecordHistory history = new GoldenRecordHistory();
 
             if (wrapper.hasAttribute("enddate")) {
-                history.setEndDate(OffsetDateTime.parse(wrapper.getAttribute("enddate"), pattern));
+                history.setEndDate(OffsetDateTime.parse(wrapper.getAttribute("enddate"), GoldenRecordHistory.DATE_FORMAT));
             }
 
             if (wrapper.hasAttribute("startdate")) {
-                history.setStartDate(OffsetDateTime.parse(wrapper.getAttribute("startdate"), pattern));
+                history.setStartDate(OffsetDateTime.parse(wrapper.getAttribute("startdate"), GoldenRecordHistory.DATE_FORMAT));
             }
 
             if (wrapper.hasAttribute("grid")) {
@@ -56,23 +56,7 @@ public class GoldenRecordHistoryAdapter extends XmlAdapter<Element, GoldenRecord
 
             // Now we deserialize the body
             if (wrapper.hasChildNodes()) {
-                Map<String, Object> fields = new HashMap<>();
-
-                for (int i = 0; i < wrapper.getChildNodes().getLength(); i++) {
-                    Node childNode = wrapper.getChildNodes().item(i);
-                    if (childNode.hasChildNodes()) {
-
-                        Node fieldNode = childNode.getFirstChild();
-                        if (fieldNode.hasChildNodes()) {
-                            // TODO: We don't care about nested things yet
-                        } else {
-                            fields.put(childNode.getNodeName(), fieldNode.getNodeValue());
-                        }
-
-                    }
-                }
-
-                history.setFields(fields);
+                history.setFields(readGroup(wrapper));
             }
 
             return history;
@@ -82,5 +66,50 @@ public class GoldenRecordHistoryAdapter extends XmlAdapter<Element, GoldenRecord
             throw new RuntimeException(e);
         }
     }
-}
 
+    private static Map<String, Object> readGroup(Element group) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+
+        for (Element child : childElements(group)) {
+            Object value = readValue(child);
+            if (value != null) {
+                fields.put(child.getNodeName(), value);
+            }
+        }
+
+        return fields;
+    }
+
+    private static Object readValue(Element field) {
+        List<Element> children = childElements(field);
+        if (children.isEmpty()) {
+            String text = field.getTextContent();
+
+            return text.isEmpty() ? null : text;
+        }
+
+        // As when loading golden records, a group whose first child is a group of its own is a repeatable field group
+        if (childElements(children.get(0)).isEmpty()) {
+            return readGroup(field);
+        }
+
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (Element child : children) {
+            groups.add(Collections.singletonMap(child.getNodeName(), readGroup(child)));
+        }
+
+        return groups;
+    }
+
+    private static List<Element> childElements(Element element) {
+        List<Element> elements = new ArrayList<>();
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                elements.add((Element) child);
+            }
+        }
+
+        return elements;
+    }
+}
@@ -10,6 +10,7 @@ public class GoldenRecordHistoryResponse {
     private Integer resultCount;
     private Integer totalCount;
     private String grid;
+    private String offsetToken;
     private List<GoldenRecordHistory> records;
 
     @XmlAttribute
@@ -42,6 +43,16 @@ public class GoldenRecordHistoryResponse {
         return this;
     }
 
+    @XmlAttribute
+    public String getOffsetToken() {
+        return offsetToken;
+    }
+
+    public GoldenRecordHistoryResponse setOffsetToken(String offsetToken) {
+        this.offsetToken = offsetToken;
+        return this;
+    }
+
     @XmlAnyElement
     public List<GoldenRecordHistory> getRecords() {
         return records;
@@ -0,0 +1,362 @@
+package com.boomi.flow.services.boomi.mdh.records;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequestWriter;
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.base.Strings;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports golden records from rows of fields (e.g. read from a file), without holding the whole input in memory. Rows
+ * are mapped to the universe's fields as they're read, and grouped by their source into chunks of the configured batch
+ * size. Each full chunk is sent to the Hub straight away, with up to mdh.import.concurrency chunks in flight at once, so
+ * reading the input waits on the Hub rather than getting ahead of it. The chunks also count towards mdh.hub.concurrency,
+ * the limit on requests to the same Hub that every save and match shares.
+ *
+ * Everything the listener is told happens on the thread doing the import, in the order the rows and chunks finish.
+ */
+public class GoldenRecordImporter {
+    private final static Logger LOGGER = LoggerFactory.getLogger(GoldenRecordImporter.class);
+
+    private final MdhClient client;
+    private final UniverseCache universeCache;
+
+    public interface Listener {
+        /**
+         * A row couldn't be mapped to the universe's fields, so it was skipped
+         */
+        void rejected(long row, String message);
+
+        /**
+         * A chunk of records was saved by the Hub
+         */
+        void saved(int chunk, String source, int records);
+
+        /**
+         * A chunk of records failed to save, or was never sent as the import stopped first, so none of the given rows
+         * were imported
+         */
+        void failed(int chunk, String source, List<Long> rows, String message);
+    }
+
+    public static class Summary {
+        private long rows;
+        private long imported;
+        private long rejected;
+        private long failed;
+        private int chunks;
+        private int failedChunks;
+        private String error;
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getFailedChunks() {
+            return failedChunks;
+        }
+
+        /**
+         * Why the import stopped before the end of the input, or null if every row was read
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    @Inject
+    public GoldenRecordImporter(MdhClient client, UniverseCache universeCache) {
+        this.client = client;
+        this.universeCache = universeCache;
+    }
+
+    /**
+     * Imports every row into the universe, using the given source for any row without a ___sourceId column. A row's
+     * ___entityId column (or its value for the universe's ID field) is used as its entity ID, and one is generated if
+     * it doesn't have either.
+     */
+    public Summary importRecords(ApplicationConfiguration configuration, String universeId, String defaultSource, Iterator<Map<String, Object>> rows, Listener listener) {
+        LOGGER.info("Importing golden records into the universe {} on the Atom at {} with the username {}", universeId, configuration.getHubHostname(), configuration.getHubUsername());
+
+        Universe universe = universeCache.find(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
+
+        int maximumRecords = Math.max(1, Settings.getInt("mdh.records.batch.size", 200));
+        long maximumBytes = Settings.getLong("mdh.records.batch.bytes", 5 * 1024 * 1024);
+        int concurrency = Math.max(1, Settings.getInt("mdh.import.concurrency", 4));
+
+        Import running = new Import(configuration, universe, concurrency, listener);
+
+        Map<String, Chunk> chunks = new LinkedHashMap<>();
+
+        try {
+            while (rows.hasNext()) {
+                Map<String, Object> row = rows.next();
+                long number = ++running.summary.rows;
+
+                String source;
+                BatchUpdateRequest.Entity entity;
+
+                long mapping = System.nanoTime();
+
+                try {
+                    source = findSource(row, defaultSource);
+                    entity = createEntity(universe, row);
+                } catch (ServiceProblemException | IllegalArgumentException e) {
+                    running.summary.rejected++;
+                    listener.rejected(number, e.getMessage());
+
+                    continue;
+                } finally {
+                    ServiceMetrics.mapping("golden record", "to-hub").record(System.nanoTime() - mapping, TimeUnit.NANOSECONDS);
+                }
+
+                long entityBytes = BatchUpdateRequestWriter.measure(entity);
+
+                Chunk chunk = chunks.computeIfAbsent(source, Chunk::new);
+
+                if (chunk.entities.isEmpty() == false && (chunk.entities.size() >= maximumRecords || chunk.bytes + entityBytes > maximumBytes)) {
+                    Chunk full = chunk;
+
+                    // The row goes into its new chunk first, so it's still reported if sending the full one fails
+                    chunk = new Chunk(source);
+                    chunk.add(number, entity, entityBytes);
+                    chunks.put(source, chunk);
+
+                    running.send(full);
+                } else {
+                    chunk.add(number, entity, entityBytes);
+                }
+
+                running.report();
+            }
+
+            Iterator<Chunk> remaining = chunks.values().iterator();
+            while (remaining.hasNext()) {
+                Chunk chunk = remaining.next();
+                remaining.remove();
+
+                running.send(chunk);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Stopped importing golden records into the universe {} after {} rows", universeId, running.summary.rows, e);
+
+            running.summary.error = e.getMessage();
+
+            // The rows that were still waiting for their chunk to fill up were never sent, so they're reported as failed
+            for (Chunk chunk : chunks.values()) {
+                running.abandon(chunk, "Not sent, as the import stopped: " + e.getMessage());
+            }
+        } finally {
+            running.finish();
+        }
+
+        LOGGER.info("Imported {} of {} golden records into the universe {} in {} chunks ({} failed)", running.summary.imported, running.summary.rows, universeId, running.summary.chunks, running.summary.failedChunks);
+
+        return running.summary;
+    }
+
+    private static String findSource(Map<String, Object> row, String defaultSource) {
+        Object source = row.get(GoldenRecordConstants.SOURCE_ID_FIELD);
+        if (source == null || source.toString().isEmpty()) {
+            return Strings.isNullOrEmpty(defaultSource) ? GoldenRecordConstants.DEFAULT_SOURCE_ID : defaultSource;
+        }
+
+        return source.toString();
+    }
+
+    private static BatchUpdateRequest.Entity createEntity(Universe universe, Map<String, Object> row) {
+        Map<String, Object> fields = FieldMapper.createMapFromRow(row, universe);
+
+        fields.put(universe.getIdField(), findEntityId(universe, row));
+
+        return new BatchUpdateRequest.Entity()
+                .setName(universe.getLayout().getModel().getName())
+                .setFields(fields);
+    }
+
+    private static String findEntityId(Universe universe, Map<String, Object> row) {
+        Object entityId = row.get(GoldenRecordConstants.ENTITY_ID_FIELD);
+
+        if (entityId == null) {
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                if (column.getKey().equalsIgnoreCase(universe.getIdField())) {
+                    entityId = column.getValue();
+                }
+            }
+        }
+
+        if (entityId == null || entityId.toString().isEmpty()) {
+            return UUID.randomUUID().toString();
+        }
+
+        return entityId.toString();
+    }
+
+    private static class Chunk {
+        private final String source;
+        private final List<Long> rows = new ArrayList<>();
+        private final List<BatchUpdateRequest.Entity> entities = new ArrayList<>();
+        private long bytes = 0;
+
+        private Chunk(String source) {
+            this.source = source;
+        }
+
+        private void add(long row, BatchUpdateRequest.Entity entity, long entityBytes) {
+            rows.add(row);
+            entities.add(entity);
+            bytes += entityBytes;
+        }
+    }
+
+    private static class Sent {
+        private final int number;
+        private final Chunk chunk;
+        private final Throwable failure;
+
+        private Sent(int number, Chunk chunk, Throwable failure) {
+            this.number = number;
+            this.chunk = chunk;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * The chunks of a single import that are in flight, and those that have finished but haven't been reported yet
+     */
+    private class Import {
+        private final ApplicationConfiguration configuration;
+        private final String universeId;
+        private final int concurrency;
+        private final Semaphore inFlight;
+        private final Queue<Sent> finished = new ConcurrentLinkedQueue<>();
+        private final Listener listener;
+        private final Summary summary = new Summary();
+
+        private Import(ApplicationConfiguration configuration, Universe universe, int concurrency, Listener listener) {
+            this.configuration = configuration;
+            this.universeId = universe.getId().toString();
+            this.concurrency = concurrency;
+            this.inFlight = new Semaphore(concurrency);
+            this.listener = listener;
+        }
+
+        private void send(Chunk chunk) {
+            if (chunk.entities.isEmpty()) {
+                return;
+            }
+
+            int number = ++summary.chunks;
+
+            // Wait for a chunk to finish if there are already too many in flight, reporting any that have
+            try {
+                while (inFlight.tryAcquire(100, TimeUnit.MILLISECONDS) == false) {
+                    report();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                RuntimeException failure = new RuntimeException("Interrupted while waiting to send a chunk of golden records to the Hub", e);
+
+                finished.add(new Sent(number, chunk, failure));
+
+                throw failure;
+            }
+
+            BatchUpdateRequest request = new BatchUpdateRequest()
+                    .setSource(chunk.source)
+                    .setEntities(chunk.entities);
+
+            // The client also holds each chunk back until it's within the limit of requests to the same Hub, which it
+            // shares with every other save and match, so several imports at once can't flood the Hub between them
+            try {
+                client.updateGoldenRecordsAsync(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, request)
+                        .whenComplete((result, e) -> {
+                            // The chunk is queued before its permit is given back, so once every permit is back, every chunk has been queued
+                            finished.add(new Sent(number, chunk, e));
+                            inFlight.release();
+                        });
+            } catch (RuntimeException e) {
+                finished.add(new Sent(number, chunk, e));
+                inFlight.release();
+            }
+        }
+
+        /**
+         * Reports a chunk that was never sent as failed, so every row that was read is accounted for
+         */
+        private void abandon(Chunk chunk, String message) {
+            if (chunk.entities.isEmpty()) {
+                return;
+            }
+
+            finished.add(new Sent(++summary.chunks, chunk, new RuntimeException(message)));
+        }
+
+        /**
+         * Tells the listener about every chunk that has finished since the last time
+         */
+        private void report() {
+            Sent sent;
+            while ((sent = finished.poll()) != null) {
+                if (sent.failure == null) {
+                    summary.imported += sent.chunk.entities.size();
+
+                    listener.saved(sent.number, sent.chunk.source, sent.chunk.entities.size());
+                } else {
+                    summary.failed += sent.chunk.entities.size();
+                    summary.failedChunks++;
+
+                    listener.failed(sent.number, sent.chunk.source, sent.chunk.rows, HubExecutor.unwrap(sent.failure).getMessage());
+                }
+            }
+        }
+
+        /**
+         * Waits for every chunk in flight to finish, and reports them
+         */
+        private void finish() {
+            inFlight.acquireUninterruptibly(concurrency);
+            inFlight.release(concurrency);
+
+            report();
+        }
+    }
+}
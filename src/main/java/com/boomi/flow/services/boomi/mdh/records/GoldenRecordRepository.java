@@ -5,7 +5,16 @@ import com.boomi.flow.services.boomi.mdh.client.MdhClient;
 import com.boomi.flow.services.boomi.mdh.common.*;
 import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.HubLimiter;
 import com.boomi.flow.services.boomi.mdh.utilities.OffsetTokenGenerator;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.manywho.sdk.api.CriteriaType;
 import com.manywho.sdk.api.run.ServiceProblemException;
 import com.manywho.sdk.api.run.elements.type.ListFilter;
 import com.manywho.sdk.api.run.elements.type.ListFilterWhere;
@@ -15,18 +24,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class GoldenRecordRepository {
     private final static Logger LOGGER = LoggerFactory.getLogger(GoldenRecordRepository.class);
+    private final static int HUB_PAGE_SIZE = 200;
+
+    // The output belongs to whoever asked for the export, so it's left open, and records are separated by newlines. A
+    // record that's cut short by a failure is left unfinished, rather than closed off to look like a whole one
+    private final static JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+            .setRootValueSeparator("\n");
 
     private final MdhClient client;
+    private final UniverseCache universeCache;
 
     @Inject
-    public GoldenRecordRepository(MdhClient client)
+    public GoldenRecordRepository(MdhClient client, UniverseCache universeCache)
     {
         this.client = client;
+        this.universeCache = universeCache;
     }
 
     public void delete(ApplicationConfiguration configuration, String universeId, List<MObject> objects) {
@@ -35,7 +60,9 @@ public class GoldenRecordRepository {
 
     public List<MObject> findAll(ApplicationConfiguration configuration, String universeId, ListFilter filter) {
         LOGGER.info("Loading golden records for the universe {} from the Atom at {} with the username {}", universeId, configuration.getHubHostname(), configuration.getHubUsername());
-        Universe universe = client.findUniverse(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
+
+        long building = System.nanoTime();
+
         GoldenRecordQueryRequest request = new GoldenRecordQueryRequest();
 
         // TODO: Cleanup everything in this filter block cause it's super ugly
@@ -172,20 +199,265 @@ public class GoldenRecordRepository {
             }
         }
 
-        GoldenRecordQueryResponse result = client.queryGoldenRecords(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, request);
+        RequestTrace.record("query", System.nanoTime() - building);
+
+        if (request.getLimit() != null && request.getLimit() > HUB_PAGE_SIZE) {
+            return findAllPages(configuration, universeId, request);
+        }
+
+        UniverseCache.Found<GoldenRecordQueryResponse> found = universeCache.findWhile(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId,
+                () -> queryPage(configuration, universeId, request));
+
+        GoldenRecordQueryResponse result = found.getResult();
+
         if (result == null || result.getRecords() == null || result.getResultCount() == 0) {
             return new ArrayList<>();
         }
 
-        return result.getRecords().stream()
-                .map(record -> {
-                            MObject mObject = Entities.createGoldenRecordMObject(universeId, record);
-                            FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject);
+        return ServiceMetrics.mapping("golden record", "to-flow").record(() -> result.getRecords().stream()
+                .map(record -> createMObject(found.getUniverse(), universeId, record))
+                .collect(Collectors.toList()));
+    }
 
-                            return mObject;
-                        }
-                )
-                .collect(Collectors.toList());
+    /**
+     * The Hub only returns up to 200 records per query, so for larger limits we follow the offset tokens it gives back,
+     * up to a configurable cap. The next page is fetched in the background while the current one is being mapped.
+     */
+    private List<MObject> findAllPages(ApplicationConfiguration configuration, String universeId, GoldenRecordQueryRequest request) {
+        int limit = request.getLimit();
+
+        int maximum = Settings.getInt("mdh.records.autopaging.max", 10000);
+        if (limit > maximum) {
+            LOGGER.warn("A limit of {} was given, but only up to {} golden records will be loaded", limit, maximum);
+
+            limit = maximum;
+        }
+
+        List<MObject> objects = new ArrayList<>();
+
+        GoldenRecordQueryRequest firstPageRequest = createPageRequest(request, request.getOffsetToken(), Math.min(limit, HUB_PAGE_SIZE));
+
+        UniverseCache.Found<GoldenRecordQueryResponse> firstPage = universeCache.findWhile(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId,
+                () -> queryPage(configuration, universeId, firstPageRequest));
+
+        Universe universe = firstPage.getUniverse();
+
+        GoldenRecordQueryRequest pageRequest = firstPageRequest;
+        CompletableFuture<GoldenRecordQueryResponse> nextPage = CompletableFuture.completedFuture(firstPage.getResult());
+
+        try {
+            while (nextPage != null) {
+                GoldenRecordQueryResponse page = HubExecutor.join(nextPage);
+                nextPage = null;
+
+                if (page == null || page.getRecords() == null || page.getResultCount() == 0) {
+                    break;
+                }
+
+                List<GoldenRecord> records = page.getRecords();
+
+                int remaining = limit - objects.size() - records.size();
+
+                // Only ask for another page if this one was full, and the Hub told us where the next one starts
+                if (remaining > 0 && page.getOffsetToken() != null && records.size() >= pageRequest.getLimit()) {
+                    pageRequest = createPageRequest(request, page.getOffsetToken(), Math.min(remaining, HUB_PAGE_SIZE));
+
+                    GoldenRecordQueryRequest nextPageRequest = pageRequest;
+                    nextPage = CompletableFuture.supplyAsync(() -> queryPage(configuration, universeId, nextPageRequest), HubExecutor.get());
+                }
+
+                long mapping = System.nanoTime();
+
+                for (GoldenRecord record : records) {
+                    if (objects.size() >= limit) {
+                        break;
+                    }
+
+                    objects.add(createMObject(universe, universeId, record));
+                }
+
+                ServiceMetrics.mapping("golden record", "to-flow").record(System.nanoTime() - mapping, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            if (nextPage != null) {
+                nextPage.cancel(false);
+            }
+        }
+
+        LOGGER.info("Loaded {} golden records for the universe {} across multiple pages", objects.size(), universeId);
+
+        return objects;
+    }
+
+    /**
+     * Loads the versions of a single golden record, given as a filter on its record ID. Long histories come back from
+     * the Hub a page at a time, so the offset tokens it gives back are followed up to the filter's limit (or
+     * mdh.records.autopaging.max, if that's smaller or there isn't one), with the next page fetched in the background
+     * while the current one is being mapped.
+     */
+    public List<MObject> findHistory(ApplicationConfiguration configuration, String universeId, ListFilter filter) {
+        if (filter == null || filter.hasWhere() == false) {
+            throw new ServiceProblemException(400, "The history of a golden record can only be loaded with a filter on its " + GoldenRecordConstants.RECORD_ID);
+        }
+
+        filter.getWhere().stream()
+                .filter(where -> GoldenRecordConstants.RECORD_ID_FIELD.equals(where.getColumnName()) == false)
+                .findFirst()
+                .ifPresent(where -> {
+                    throw new ServiceProblemException(400, String.format("An unsupported filter of %s was given", where.getColumnName()));
+                });
+
+        String recordId = ListFilters.findFilterValue(filter.getWhere(), GoldenRecordConstants.RECORD_ID_FIELD, CriteriaType.Equal)
+                .orElseThrow(() -> new ServiceProblemException(400, "The history of a golden record can only be loaded with an equals filter on its " + GoldenRecordConstants.RECORD_ID));
+
+        LOGGER.info("Loading the history of the golden record {} for the universe {} from the Atom at {} with the username {}", recordId, universeId, configuration.getHubHostname(), configuration.getHubUsername());
+
+        int limit = Settings.getInt("mdh.records.autopaging.max", 10000);
+
+        Integer requested = filter.getLimit();
+        if (requested != null && requested > 0 && requested < limit) {
+            limit = requested;
+        }
+
+        UniverseCache.Found<GoldenRecordHistoryResponse> firstPage = universeCache.findWhile(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId,
+                () -> findHistoryPage(configuration, universeId, recordId, OffsetTokenGenerator.generate(filter)));
+
+        Universe universe = firstPage.getUniverse();
+
+        List<MObject> objects = new ArrayList<>();
+
+        CompletableFuture<GoldenRecordHistoryResponse> nextPage = CompletableFuture.completedFuture(firstPage.getResult());
+
+        try {
+            while (nextPage != null) {
+                GoldenRecordHistoryResponse page = HubExecutor.join(nextPage);
+                nextPage = null;
+
+                if (page == null || page.getRecords() == null || page.getRecords().isEmpty()) {
+                    break;
+                }
+
+                // Only ask for another page if we still need more versions, and the Hub told us where the next one starts
+                if (objects.size() + page.getRecords().size() < limit && page.getOffsetToken() != null) {
+                    String offsetToken = page.getOffsetToken();
+
+                    nextPage = CompletableFuture.supplyAsync(() -> findHistoryPage(configuration, universeId, recordId, offsetToken), HubExecutor.get());
+                }
+
+                long mapping = System.nanoTime();
+
+                for (GoldenRecordHistory history : page.getRecords()) {
+                    if (objects.size() >= limit) {
+                        break;
+                    }
+
+                    objects.add(createHistoryMObject(universe, universeId, history));
+                }
+
+                ServiceMetrics.mapping("golden record history", "to-flow").record(System.nanoTime() - mapping, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            if (nextPage != null) {
+                nextPage.cancel(false);
+            }
+        }
+
+        LOGGER.info("Loaded {} versions of the golden record {} for the universe {}", objects.size(), recordId, universeId);
+
+        return objects;
+    }
+
+    private GoldenRecordHistoryResponse findHistoryPage(ApplicationConfiguration configuration, String universeId, String recordId, String offsetToken) {
+        GoldenRecordHistoryResponse page = client.findGoldenRecordHistory(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, recordId, offsetToken);
+
+        if (page != null && page.getRecords() != null) {
+            ServiceMetrics.hubPageRecords("golden record history").record(page.getRecords().size());
+        }
+
+        return page;
+    }
+
+    private static MObject createHistoryMObject(Universe universe, String universeId, GoldenRecordHistory history) {
+        MObject mObject = RequestTrace.time("mobject", () -> Entities.createGoldenRecordHistoryMObject(universeId, universe.getLayout().getModel().getName(), history));
+        RequestTrace.time("mapping", () -> FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject));
+
+        return mObject;
+    }
+
+    /**
+     * Writes every golden record in the universe to the given stream as newline-delimited JSON, following the offset
+     * tokens the Hub gives back. Each page is written out while it's being read from the Hub, so memory use stays the
+     * same no matter how big the universe is.
+     *
+     * The newline after the last record is only written once every page has been, so an export that fails part of the
+     * way through (after the response has started) never ends with a newline, and can be told apart from a whole one.
+     */
+    public long export(ApplicationConfiguration configuration, String universeId, OutputStream output) {
+        LOGGER.info("Exporting golden records for the universe {} from the Atom at {} with the username {}", universeId, configuration.getHubHostname(), configuration.getHubUsername());
+
+        long exported = 0;
+
+        try (JsonGenerator generator = JSON.createGenerator(output)) {
+            GoldenRecordQueryRequest request = new GoldenRecordQueryRequest()
+                    .setLimit(HUB_PAGE_SIZE);
+
+            while (true) {
+                GoldenRecordQueryResponse page = client.exportGoldenRecords(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, request, generator);
+
+                // Send each page on as soon as it's been written, instead of when the output's buffer fills up
+                generator.flush();
+
+                ServiceMetrics.hubPageRecords("golden record").record(page.getResultCount());
+
+                exported += page.getResultCount();
+
+                // Only ask for another page if this one was full, and the Hub told us where the next one starts
+                if (page.getResultCount() < HUB_PAGE_SIZE || page.getOffsetToken() == null) {
+                    break;
+                }
+
+                request = new GoldenRecordQueryRequest()
+                        .setOffsetToken(page.getOffsetToken())
+                        .setLimit(HUB_PAGE_SIZE);
+            }
+
+            if (exported > 0) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        LOGGER.info("Exported {} golden records for the universe {}", exported, universeId);
+
+        return exported;
+    }
+
+    private GoldenRecordQueryResponse queryPage(ApplicationConfiguration configuration, String universeId, GoldenRecordQueryRequest request) {
+        GoldenRecordQueryResponse page = client.queryGoldenRecords(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId, request);
+
+        if (page != null && page.getRecords() != null) {
+            ServiceMetrics.hubPageRecords("golden record").record(page.getRecords().size());
+        }
+
+        return page;
+    }
+
+    private static GoldenRecordQueryRequest createPageRequest(GoldenRecordQueryRequest request, String offsetToken, int limit) {
+        return new GoldenRecordQueryRequest()
+                .setView(request.getView())
+                .setSort(request.getSort())
+                .setFilter(request.getFilter())
+                .setIncludeSourceLinks(request.getIncludeSourceLinks())
+                .setOffsetToken(offsetToken)
+                .setLimit(limit);
+    }
+
+    private static MObject createMObject(Universe universe, String universeId, GoldenRecord record) {
+        MObject mObject = RequestTrace.time("mobject", () -> Entities.createGoldenRecordMObject(universeId, record));
+        RequestTrace.time("mapping", () -> FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, mObject));
+
+        return mObject;
     }
 
     public List<MObject> update(ApplicationConfiguration configuration, String universeId, List<MObject> objects) {
@@ -205,7 +477,7 @@ public class GoldenRecordRepository {
     }
 
     private List<MObject> update(ApplicationConfiguration configuration, List<MObject> objects, String universeId, String operation) {
-        Universe universe = client.findUniverse(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
+        Universe universe = universeCache.find(configuration.getHubHostname(), configuration.getHubUsername(), configuration.getHubToken(), universeId);
 
         Map<String, List<MObject>> objectsBySource = objects.stream()
                 .map(object -> Entities.setRandomUniqueIdIfEmpty(object, universe.getIdField(), true))
@@ -216,13 +488,17 @@ public class GoldenRecordRepository {
                         .findFirst()
                         .orElseThrow(() -> new ServiceProblemException(400, "No Source ID was given for the record to update"))));
 
+        List<BatchUpdateRequest> batches = new ArrayList<>();
+
+        long mapping = System.nanoTime();
+
         for (Map.Entry<String, List<MObject>> sourceGroup : objectsBySource.entrySet()) {
             // TODO: Check if we should be setting this to a default value, or error if no source was set
             String sourceId = sourceGroup.getKey();
             List<BatchUpdateRequest.Entity> entities = sourceGroup.getValue().stream()
                     .map(entity -> {
                         // Map all the properties to fields, except our "internal" ones
-                        Map<String, Object> fields = FieldMapper.createMapFromModelMobject(universe.getName(), entity, universe);
+                        Map<String, Object> fields = RequestTrace.time("mapping", () -> FieldMapper.createMapFromModelMobject(universe.getName(), entity, universe));
 
                         fields.put(universe.getIdField(), Entities.extractFieldIdValueOrRandomGenerate(entity));
 
@@ -233,20 +509,81 @@ public class GoldenRecordRepository {
                     })
                     .collect(Collectors.toList());
 
-            // Now we can save the records into the Hub
-            BatchUpdateRequest updateRequest = new BatchUpdateRequest()
-                    .setSource(sourceId)
-                    .setEntities(entities);
+            // Large saves are split up, so no single request to the Hub gets too big
+            batches.addAll(createBatches(sourceId, entities));
+        }
+
+        ServiceMetrics.mapping("golden record", "to-hub").record(System.nanoTime() - mapping, TimeUnit.NANOSECONDS);
 
-            client.updateGoldenRecords(
-                    configuration.getHubHostname(),
-                    configuration.getHubUsername(),
-                    configuration.getHubToken(),
-                    universe.getId().toString(),
-                    updateRequest
-            );
+        if (batches.isEmpty()) {
+            return objects;
         }
 
+        String universeIdentifier = universe.getId().toString();
+
+        // Now we can save the records into the Hub, with each batch counting towards the Hub's limit, however many there are
+        List<Supplier<Void>> saves = batches.stream()
+                .map(batch -> (Supplier<Void>) () -> HubLimiter.call(configuration.getHubHostname(), () -> {
+                    client.updateGoldenRecords(
+                            configuration.getHubHostname(),
+                            configuration.getHubUsername(),
+                            configuration.getHubToken(),
+                            universeIdentifier,
+                            batch
+                    );
+
+                    return null;
+                }))
+                .collect(Collectors.toList());
+
+        if (saves.size() == 1) {
+            saves.get(0).get();
+
+            return objects;
+        }
+
+        // The calling thread sends batches too, and no more are started than the Hub will take at once, so a large save
+        // doesn't park the shared pool's threads waiting for the Hub
+        List<CompletableFuture<Void>> futures = HubExecutor.runAll(saves, HubLimiter.concurrency());
+
+        // Wait for every batch to finish, so we can report on all of them together
+        HubExecutor.joinAll(futures, "save the golden records to the universe " + universeId);
+
         return objects;
     }
+
+    /**
+     * Split the entities from a single source into batches, each with no more than the configured number of records
+     * or bytes (a single record larger than the byte limit is still sent on its own)
+     */
+    private static List<BatchUpdateRequest> createBatches(String sourceId, List<BatchUpdateRequest.Entity> entities) {
+        int maximumRecords = Math.max(1, Settings.getInt("mdh.records.batch.size", 200));
+        long maximumBytes = Settings.getLong("mdh.records.batch.bytes", 5 * 1024 * 1024);
+
+        List<BatchUpdateRequest> batches = new ArrayList<>();
+        List<BatchUpdateRequest.Entity> batch = new ArrayList<>();
+        long batchBytes = 0;
+
+        for (BatchUpdateRequest.Entity entity : entities) {
+            long entityBytes = BatchUpdateRequestWriter.measure(entity);
+
+            if (batch.isEmpty() == false && (batch.size() >= maximumRecords || batchBytes + entityBytes > maximumBytes)) {
+                batches.add(new BatchUpdateRequest()
+                        .setSource(sourceId)
+                        .setEntities(batch));
+
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+
+            batch.add(entity);
+            batchBytes += entityBytes;
+        }
+
+        batches.add(new BatchUpdateRequest()
+                .setSource(sourceId)
+                .setEntities(batch));
+
+        return batches;
+    }
 }
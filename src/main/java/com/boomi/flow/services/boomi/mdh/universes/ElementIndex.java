@@ -0,0 +1,110 @@
+package com.boomi.flow.services.boomi.mdh.universes;
+
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A case-insensitive lookup of a model's elements (including those nested inside field groups) by name and unique ID.
+ * When more than one element matches, the first one found in a depth-first walk of the model wins.
+ *
+ * An index is built once for each version of a universe, so every record mapped with the same universe shares it, and
+ * a universe with a new version (e.g. after its model was changed in the Hub) gets a new one.
+ */
+public class ElementIndex {
+    private static final Cache<String, ElementIndex> INDEXES = CacheBuilder.newBuilder()
+            .maximumSize(Settings.getLong("mdh.universe.cache.size", 1000))
+            .build();
+
+    private final List<Universe.Layout.Model.Element> elements;
+    private final Map<String, Universe.Layout.Model.Element> byName;
+    private final Map<String, Universe.Layout.Model.Element> byUniqueId;
+
+    public static ElementIndex of(Universe universe) {
+        List<Universe.Layout.Model.Element> elements = universe.getLayout().getModel().getElements();
+
+        // A universe without a version can't be told apart from a changed copy of itself, so its index isn't kept
+        if (universe.getId() == null || universe.getVersion() == null) {
+            return new ElementIndex(elements);
+        }
+
+        return INDEXES.asMap().computeIfAbsent(universe.getId() + "/" + universe.getVersion(), key -> new ElementIndex(elements));
+    }
+
+    private ElementIndex(List<Universe.Layout.Model.Element> elements) {
+        ImmutableList.Builder<Universe.Layout.Model.Element> all = ImmutableList.builder();
+        addElements(elements, all);
+
+        this.elements = all.build();
+
+        Map<String, Universe.Layout.Model.Element> byName = new HashMap<>();
+        Map<String, Universe.Layout.Model.Element> byUniqueId = new HashMap<>();
+
+        for (Universe.Layout.Model.Element element : this.elements) {
+            if (element.getName() != null) {
+                byName.putIfAbsent(normalize(element.getName()), element);
+            }
+
+            if (element.getUniqueId() != null) {
+                byUniqueId.putIfAbsent(normalize(element.getUniqueId()), element);
+            }
+        }
+
+        this.byName = ImmutableMap.copyOf(byName);
+        this.byUniqueId = ImmutableMap.copyOf(byUniqueId);
+    }
+
+    /**
+     * Every element of the model, in the order of a depth-first walk
+     */
+    public List<Universe.Layout.Model.Element> getElements() {
+        return elements;
+    }
+
+    public Universe.Layout.Model.Element findByName(String name) {
+        return find(byName, name);
+    }
+
+    public Universe.Layout.Model.Element findByUniqueId(String uniqueId) {
+        return find(byUniqueId, uniqueId);
+    }
+
+    /**
+     * Finds a repeatable field group from the name the Hub gives its collection in a record, which is the name of the
+     * group in it (not the collection tag), so this is matched against element names
+     */
+    public Universe.Layout.Model.Element findByCollectionTag(String collectionTag) {
+        return findByName(collectionTag);
+    }
+
+    private static Universe.Layout.Model.Element find(Map<String, Universe.Layout.Model.Element> elements, String search) {
+        if (search == null) {
+            return null;
+        }
+
+        return elements.get(normalize(search));
+    }
+
+    private static void addElements(List<Universe.Layout.Model.Element> elements, ImmutableList.Builder<Universe.Layout.Model.Element> all) {
+        if (elements == null) {
+            return;
+        }
+
+        for (Universe.Layout.Model.Element element : elements) {
+            all.add(element);
+
+            addElements(element.getElements(), all);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,156 @@
+package com.boomi.flow.services.boomi.mdh.universes;
+
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.utilities.CredentialsKey;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the layout of recently used universes, so loading, saving and matching records doesn't need to fetch the
+ * universe from the Hub on every request. Entries expire after a TTL, and are replaced whenever a fresh copy of the
+ * universe with a different version is seen (e.g. when describing the service or loading the list of universes).
+ */
+@Singleton
+public class UniverseCache {
+    private final static Logger LOGGER = LoggerFactory.getLogger(UniverseCache.class);
+
+    private final MdhClient client;
+    private final Cache<CredentialsKey, Universe> universes;
+
+    @Inject
+    public UniverseCache(MdhClient client) {
+        this.client = client;
+        this.universes = CacheBuilder.newBuilder()
+                .expireAfterWrite(Settings.getLong("mdh.universe.cache.ttl", 300), TimeUnit.SECONDS)
+                .maximumSize(Settings.getLong("mdh.universe.cache.size", 1000))
+                .build();
+    }
+
+    public Universe find(String hostname, String username, String password, String id) {
+        CredentialsKey key = createKey(hostname, username, password, id);
+
+        Universe universe = universes.getIfPresent(key);
+        if (universe != null) {
+            return universe;
+        }
+
+        universe = RequestTrace.time("universe", () -> client.findUniverse(hostname, username, password, id));
+        if (universe != null) {
+            universes.put(key, universe);
+        }
+
+        return universe;
+    }
+
+    /**
+     * Finds the universe without blocking (unless it's already cached), so the caller can send its own request to the
+     * Hub while it waits
+     */
+    public CompletableFuture<Universe> findAsync(String hostname, String username, String password, String id) {
+        CredentialsKey key = createKey(hostname, username, password, id);
+
+        Universe cached = universes.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // The universe arrives on another thread, which the request's trace doesn't follow
+        RequestTrace trace = RequestTrace.current();
+        long start = System.nanoTime();
+
+        return client.findUniverseAsync(hostname, username, password, id)
+                .whenComplete((universe, e) -> {
+                    if (trace != null) {
+                        trace.add("universe", System.nanoTime() - start);
+                    }
+                })
+                .thenApply(universe -> {
+                    if (universe != null) {
+                        universes.put(key, universe);
+                    }
+
+                    return universe;
+                });
+    }
+
+    /**
+     * Sends a request that doesn't need the universe (e.g. a query) while the universe is looked up, so neither waits
+     * for the other, and gives back both. If the request fails, any failure to find the universe (e.g. because it
+     * doesn't exist) is thrown instead, as it's the more useful of the two.
+     */
+    public <T> Found<T> findWhile(String hostname, String username, String password, String id, Supplier<T> request) {
+        CompletableFuture<Universe> universe = findAsync(hostname, username, password, id);
+
+        T result;
+        try {
+            result = request.get();
+        } catch (RuntimeException e) {
+            HubExecutor.join(universe);
+
+            throw e;
+        }
+
+        return new Found<>(HubExecutor.join(universe), result);
+    }
+
+    /**
+     * Offer a freshly fetched copy of a universe to the cache, replacing any cached copy with a different version
+     */
+    public void update(String hostname, String username, String password, Universe universe) {
+        if (universe == null || universe.getId() == null || universe.getLayout() == null) {
+            return;
+        }
+
+        CredentialsKey key = createKey(hostname, username, password, universe.getId().toString());
+
+        Universe cached = universes.getIfPresent(key);
+        if (cached != null && Objects.equals(cached.getVersion(), universe.getVersion())) {
+            return;
+        }
+
+        if (cached != null) {
+            LOGGER.info("The universe {} has changed from version {} to {}, so the cached copy will be replaced", universe.getId(), cached.getVersion(), universe.getVersion());
+        }
+
+        universes.put(key, universe);
+    }
+
+    public void invalidate(String hostname, String username, String password, String id) {
+        universes.invalidate(createKey(hostname, username, password, id));
+    }
+
+    public static class Found<T> {
+        private final Universe universe;
+        private final T result;
+
+        private Found(Universe universe, T result) {
+            this.universe = universe;
+            this.result = result;
+        }
+
+        public Universe getUniverse() {
+            return universe;
+        }
+
+        public T getResult() {
+            return result;
+        }
+    }
+
+    private static CredentialsKey createKey(String hostname, String username, String password, String id) {
+        return new CredentialsKey(hostname, username, password, id == null ? null : id.toLowerCase(Locale.ENGLISH));
+    }
+}
@@ -13,24 +13,34 @@ public class UniverseRepository {
     private final static Logger LOGGER = LoggerFactory.getLogger(UniverseRepository.class);
 
     private final MdhClient client;
+    private final UniverseCache universeCache;
 
     @Inject
-    public UniverseRepository(MdhClient client) {
+    public UniverseRepository(MdhClient client, UniverseCache universeCache) {
         this.client = client;
+        this.universeCache = universeCache;
     }
 
     public List<Universe> findAll(String atomHostname, String atomUsername, String atomPassword) {
         LOGGER.info("Loading all universes from the Atom at {} with the username {}", atomHostname, atomUsername);
 
-        List<Universe> universes = client.findAllUniverses(atomHostname, atomUsername, atomPassword);
-
-        return Optional.ofNullable(universes)
+        List<Universe> universes = Optional.ofNullable(client.findAllUniverses(atomHostname, atomUsername, atomPassword))
                 .orElse(new ArrayList<>());
+
+        for (Universe universe : universes) {
+            universeCache.update(atomHostname, atomUsername, atomPassword, universe);
+        }
+
+        return universes;
     }
 
     public Universe find(String atomHostname, String atomUsername, String atomPassword, String id) {
         LOGGER.info("Loading the universe {} from the Atom at {} with the username {}", id, atomHostname, atomUsername);
 
-        return client.findUniverse(atomHostname, atomUsername, atomPassword, id);
+        Universe universe = client.findUniverse(atomHostname, atomUsername, atomPassword, id);
+
+        universeCache.update(atomHostname, atomUsername, atomPassword, universe);
+
+        return universe;
     }
 }
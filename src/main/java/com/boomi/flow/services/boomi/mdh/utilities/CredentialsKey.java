@@ -0,0 +1,56 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A key for something fetched from a Hub with a user's credentials, so it's only ever shared with someone who gave the
+ * same hostname, username and token. The token is part of the key as a hash, so a wrong or revoked token never gets
+ * anything without the Hub being asked first, and the token itself isn't held for as long as the key is.
+ */
+public class CredentialsKey {
+    private final String hostname;
+    private final String username;
+    private final String token;
+    private final String target;
+
+    public CredentialsKey(String hostname, String username, String token) {
+        this(hostname, username, token, null);
+    }
+
+    /**
+     * @param target what was fetched with the credentials (e.g. the ID of a universe), which is compared exactly
+     */
+    public CredentialsKey(String hostname, String username, String token, String target) {
+        this.hostname = hostname == null ? null : hostname.toLowerCase(Locale.ENGLISH);
+        this.username = username;
+        this.token = token == null ? null : Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+        this.target = target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CredentialsKey key = (CredentialsKey) o;
+
+        return Objects.equals(hostname, key.hostname) &&
+                Objects.equals(username, key.username) &&
+                Objects.equals(token, key.token) &&
+                Objects.equals(target, key.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hostname, username, token, target);
+    }
+}
@@ -0,0 +1,195 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A shared, bounded pool for running calls to the Hub in the background (e.g. prefetching the next page of records).
+ * When the pool and its queue are full, work runs on the calling thread instead, so callers slow down rather than
+ * piling up unbounded work or failing.
+ */
+public class HubExecutor {
+    private final static Logger LOGGER = LoggerFactory.getLogger(HubExecutor.class);
+
+    private static final ExecutorService EXECUTOR = create();
+    private static final ExecutorService DECODER = createDecoder();
+
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /**
+     * A pool for reading and decoding the responses to calls made without blocking. Those responses arrive on OkHttp's
+     * dispatcher threads, which mustn't be held up decoding a large response while other calls are waiting on them.
+     * Its queue isn't bounded, as it only ever holds responses that have already arrived.
+     */
+    public static ExecutorService decoder() {
+        return DECODER;
+    }
+
+    /**
+     * Waits for the given future, rethrowing any runtime exception it failed with as-is (so ServiceProblemExceptions
+     * still reach the SDK with their status code)
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException("Interrupted while waiting for a call to the Hub", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for every one of the given futures to finish, even if some of them fail, so nothing is left running in the
+     * background. If any failed, a single exception is thrown for all of them, with the status code of the first.
+     */
+    public static <T> List<T> joinAll(List<CompletableFuture<T>> futures, String description) {
+        List<T> results = new ArrayList<>();
+        List<RuntimeException> failures = new ArrayList<>();
+
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(join(future));
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        }
+
+        if (failures.isEmpty()) {
+            return results;
+        }
+
+        RuntimeException failure = failures.get(0);
+
+        LOGGER.error("Unable to {}, as {} of {} requests failed", description, failures.size(), futures.size(), failure);
+
+        int statusCode = 500;
+        if (failure instanceof ServiceProblemException) {
+            statusCode = ((ServiceProblemException) failure).getStatusCode();
+        }
+
+        throw new ServiceProblemException(statusCode, String.format("Unable to %s, as %d of %d requests failed: %s", description, failures.size(), futures.size(), failure.getMessage()));
+    }
+
+    /**
+     * Runs the given tasks, with at most the given number running at once. The calling thread runs tasks too, so this
+     * never waits on the pool to make progress, and is safe to call from one of its threads. The outcome of each task
+     * (its result, or the exception it failed with) is given back in the same order as the tasks.
+     */
+    public static <T> List<CompletableFuture<T>> runAll(List<Supplier<T>> tasks, int parallelism) {
+        List<CompletableFuture<T>> outcomes = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            outcomes.add(new CompletableFuture<>());
+        }
+
+        AtomicInteger next = new AtomicInteger();
+
+        Runnable worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < tasks.size()) {
+                try {
+                    outcomes.get(index).complete(tasks.get(index).get());
+                } catch (Throwable e) {
+                    outcomes.get(index).completeExceptionally(e);
+                }
+            }
+        };
+
+        int helpers = Math.min(parallelism, tasks.size()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            EXECUTOR.execute(worker);
+        }
+
+        worker.run();
+
+        // Wait for any tasks that the other workers are still running
+        CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .join();
+
+        return outcomes;
+    }
+
+    public static RuntimeException unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+
+        return new RuntimeException(throwable);
+    }
+
+    private static ExecutorService create() {
+        int threads = Settings.getInt("mdh.executor.threads", 32);
+        int queueSize = Settings.getInt("mdh.executor.queue.size", 1000);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("mdh-hub-%d")
+                        .setDaemon(true)
+                        .build(),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        ) {
+            @Override
+            public void execute(Runnable command) {
+                // Anything run in the background is still part of the request that started it
+                super.execute(RequestTrace.propagate(command));
+            }
+        };
+
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    private static ExecutorService createDecoder() {
+        int threads = Settings.getInt("mdh.decoder.threads", Runtime.getRuntime().availableProcessors());
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("mdh-decoder-%d")
+                        .setDaemon(true)
+                        .build()
+        );
+
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+}
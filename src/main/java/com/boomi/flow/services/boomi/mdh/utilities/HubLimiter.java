@@ -0,0 +1,143 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many requests are sent to the same Hub at once, so one large save or match can't flood an Atom. Blocking
+ * and asynchronous requests share the same limit, and wait for it in the order they asked.
+ */
+public class HubLimiter {
+    private static final ConcurrentMap<String, Permits> PERMITS = new ConcurrentHashMap<>();
+
+    public static <T> T call(String hostname, Supplier<T> supplier) {
+        Permits permits = permits(hostname);
+
+        CompletableFuture<Void> permit = permits.acquire();
+
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            permits.cancel(permit);
+
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException("Interrupted while waiting to send a request to the Hub at " + hostname, e);
+        } catch (ExecutionException e) {
+            throw HubExecutor.unwrap(e.getCause());
+        }
+
+        try {
+            return supplier.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * The same as {@link #call}, for requests that don't block: the request is started once there's a permit for it,
+     * without tying up a thread while it waits, and the permit is given back when the request completes
+     */
+    public static <T> CompletableFuture<T> callAsync(String hostname, Supplier<CompletableFuture<T>> supplier) {
+        Permits permits = permits(hostname);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        permits.acquire()
+                .thenCompose(permit -> supplier.get())
+                .whenComplete((value, e) -> {
+                    permits.release();
+
+                    if (e == null) {
+                        result.complete(value);
+                    } else {
+                        result.completeExceptionally(HubExecutor.unwrap(e));
+                    }
+                });
+
+        return result;
+    }
+
+    /**
+     * The most requests sent to the same Hub at once, which is also as many as are worth starting in parallel
+     */
+    public static int concurrency() {
+        return Math.max(1, Settings.getInt("mdh.hub.concurrency", 4));
+    }
+
+    public static void run(String hostname, Runnable runnable) {
+        call(hostname, () -> {
+            runnable.run();
+
+            return null;
+        });
+    }
+
+    private static Permits permits(String hostname) {
+        return PERMITS.computeIfAbsent(
+                hostname == null ? "" : hostname.toLowerCase(Locale.ENGLISH),
+                key -> new Permits(concurrency())
+        );
+    }
+
+    /**
+     * A fair semaphore whose permits are handed out as futures, so they can be waited for with or without a thread
+     */
+    private static class Permits {
+        private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+        private int available;
+
+        private Permits(int available) {
+            this.available = available;
+        }
+
+        private synchronized CompletableFuture<Void> acquire() {
+            if (available > 0 && waiting.isEmpty()) {
+                available--;
+
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Void> permit = new CompletableFuture<>();
+            waiting.add(permit);
+
+            return permit;
+        }
+
+        private void release() {
+            CompletableFuture<Void> next;
+
+            synchronized (this) {
+                next = waiting.poll();
+
+                if (next == null) {
+                    available++;
+
+                    return;
+                }
+            }
+
+            // The next request starts on this thread, outside the lock
+            next.complete(null);
+        }
+
+        /**
+         * Gives up a permit that's no longer wanted, whether or not it's been handed out yet
+         */
+        private void cancel(CompletableFuture<Void> permit) {
+            synchronized (this) {
+                if (waiting.remove(permit)) {
+                    return;
+                }
+            }
+
+            release();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
+/**
+ * An opt-in breakdown of where the time went while answering a single request from Flow, split into phases (looking up
+ * the universe, building the query, waiting on the Hub, decoding its response, building the MObjects and renaming their
+ * properties). Once the request has been answered, the breakdown is logged as a structured event, and can also be sent
+ * back in a Server-Timing header.
+ *
+ * The trace follows the request onto the HubExecutor's threads, so some phases can run at the same time as others (e.g.
+ * the universe is looked up while the Hub is being queried), and a phase can include others (e.g. looking up the
+ * universe includes a call to the Hub). Their durations are the total time spent in each, and won't add up to the
+ * total.
+ */
+public class RequestTrace {
+    private final static Logger LOGGER = LoggerFactory.getLogger(RequestTrace.class);
+
+    private static final List<String> PHASES = Arrays.asList("universe", "query", "hub", "decode", "mobject", "mapping");
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<RequestTrace> FINISHED = new ThreadLocal<>();
+
+    private final String type;
+    private final String operation;
+    private final long started = System.nanoTime();
+    private final ConcurrentMap<String, Phase> phases = new ConcurrentHashMap<>();
+
+    private long duration;
+
+    private RequestTrace(String type, String operation) {
+        this.type = type;
+        this.operation = operation;
+    }
+
+    /**
+     * Runs an operation from Flow, tracing it if tracing is enabled
+     */
+    public static <T> T trace(String type, String operation, Supplier<T> supplier) {
+        FINISHED.remove();
+
+        if (Settings.getBoolean("mdh.trace.enabled", false) == false) {
+            return supplier.get();
+        }
+
+        RequestTrace trace = new RequestTrace(type, operation);
+        RequestTrace previous = CURRENT.get();
+
+        CURRENT.set(trace);
+
+        String outcome = "error";
+        try {
+            T result = supplier.get();
+            outcome = "success";
+
+            return result;
+        } finally {
+            restore(previous);
+
+            trace.finish(outcome);
+        }
+    }
+
+    /**
+     * The trace of the request being answered on this thread, or null if it isn't being traced
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T time(String phase, Supplier<T> supplier) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return supplier.get();
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return supplier.get();
+        } finally {
+            trace.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    public static void time(String phase, Runnable runnable) {
+        time(phase, () -> {
+            runnable.run();
+
+            return null;
+        });
+    }
+
+    /**
+     * Adds the given time to a phase of the request being answered on this thread, if it's being traced
+     */
+    public static void record(String phase, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(phase, nanos);
+        }
+    }
+
+    /**
+     * Adds the given time to a phase of this trace, for work that finishes on a thread the trace didn't follow it to
+     */
+    public void add(String phase, long nanos) {
+        Phase recorded = phases.computeIfAbsent(phase, name -> new Phase());
+        recorded.nanos.add(nanos);
+        recorded.count.increment();
+    }
+
+    /**
+     * Carries the trace of the request being answered on this thread over to whichever thread runs the given work
+     */
+    public static Runnable propagate(Runnable runnable) {
+        return propagate(CURRENT.get(), runnable);
+    }
+
+    /**
+     * Carries the trace of the request being answered on this thread over to anything the given executor runs later,
+     * e.g. decoding a response that arrives on another thread
+     */
+    public static Executor propagate(Executor executor) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return executor;
+        }
+
+        return command -> executor.execute(propagate(trace, command));
+    }
+
+    private static Runnable propagate(RequestTrace trace, Runnable runnable) {
+        if (trace == null) {
+            return runnable;
+        }
+
+        return () -> {
+            RequestTrace previous = CURRENT.get();
+
+            CURRENT.set(trace);
+
+            try {
+                runnable.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Gives back the Server-Timing header for the last request traced on this thread (only if the header is enabled),
+     * so it's only ever sent once
+     */
+    public static String takeServerTiming() {
+        RequestTrace trace = FINISHED.get();
+        if (trace == null) {
+            return null;
+        }
+
+        FINISHED.remove();
+
+        return trace.toServerTiming();
+    }
+
+    private void finish(String outcome) {
+        duration = System.nanoTime() - started;
+
+        if (Settings.getBoolean("mdh.trace.header", false)) {
+            FINISHED.set(this);
+        }
+
+        long threshold = Settings.getLong("mdh.trace.threshold", 0);
+        if (TimeUnit.NANOSECONDS.toMillis(duration) < threshold) {
+            return;
+        }
+
+        Map<String, Object> phaseFields = new LinkedHashMap<>();
+        for (Map.Entry<String, Phase> phase : sortedPhases()) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("ms", toMillis(phase.getValue().nanos.sum()));
+            fields.put("count", phase.getValue().count.sum());
+
+            phaseFields.put(phase.getKey(), fields);
+        }
+
+        Map<String, Object> traceFields = new LinkedHashMap<>();
+        traceFields.put("type", type);
+        traceFields.put("operation", operation);
+        traceFields.put("outcome", outcome);
+        traceFields.put("ms", toMillis(duration));
+        traceFields.put("phases", phaseFields);
+
+        String summary = sortedPhases().stream()
+                .map(phase -> String.format(Locale.ENGLISH, "%s=%.1fms", phase.getKey(), toMillis(phase.getValue().nanos.sum())))
+                .collect(Collectors.joining(", "));
+
+        LOGGER.info("Traced a {} {} in {}ms ({})", type, operation, String.format(Locale.ENGLISH, "%.1f", toMillis(duration)), summary, keyValue("trace", traceFields));
+    }
+
+    private String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+
+        for (Map.Entry<String, Phase> phase : sortedPhases()) {
+            header.append(String.format(Locale.ENGLISH, "%s;dur=%.1f, ", phase.getKey(), toMillis(phase.getValue().nanos.sum())));
+        }
+
+        return header.append(String.format(Locale.ENGLISH, "total;dur=%.1f", toMillis(duration))).toString();
+    }
+
+    /**
+     * The phases in the order a request usually goes through them, followed by any others by name
+     */
+    private List<Map.Entry<String, Phase>> sortedPhases() {
+        return phases.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Phase>>comparingInt(phase -> PHASES.contains(phase.getKey()) ? PHASES.indexOf(phase.getKey()) : PHASES.size())
+                        .thenComparing(Map.Entry::getKey))
+                .collect(Collectors.toList());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private static void restore(RequestTrace previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static class Phase {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+    }
+}
@@ -0,0 +1,127 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * The service's meters, kept in a single registry that's scraped by Prometheus. Calls to the Hub are timed per attempt
+ * (so retries show up as separate requests), while operations are timed from when Flow asks for them to when they're
+ * answered, so the difference between the two is the time spent in the service itself.
+ */
+public class ServiceMetrics {
+    private static final PrometheusMeterRegistry REGISTRY = create();
+
+    public static MeterRegistry get() {
+        return REGISTRY;
+    }
+
+    public static String scrape() {
+        return REGISTRY.scrape();
+    }
+
+    /**
+     * A single attempt at calling a Hub, until its response headers arrived
+     */
+    public static Timer hubRequests(String operation, String host, String status) {
+        return Timer.builder("mdh.hub.requests")
+                .description("Requests sent to a Hub, timed until its response headers arrived")
+                .tags("operation", operation, "host", host, "status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(REGISTRY);
+    }
+
+    /**
+     * The size of the bodies sent to (the "request" direction) and received from (the "response" direction) a Hub
+     */
+    public static DistributionSummary hubPayloads(String operation, String direction) {
+        return DistributionSummary.builder("mdh.hub.payload.size")
+                .description("The size of the bodies of requests to and responses from a Hub")
+                .baseUnit("bytes")
+                .tags("operation", operation, "direction", direction)
+                .register(REGISTRY);
+    }
+
+    public static DistributionSummary hubPageRecords(String type) {
+        return DistributionSummary.builder("mdh.hub.page.records")
+                .description("The number of records in each page of results from a Hub")
+                .baseUnit("records")
+                .tags("type", type)
+                .register(REGISTRY);
+    }
+
+    /**
+     * Turning a Hub request into XML (the "serialize" phase), or a Hub response back into objects (the "deserialize"
+     * phase). Responses are decoded as they're read, so deserializing includes receiving the rest of the body.
+     */
+    public static Timer codec(String type, String phase) {
+        return Timer.builder("mdh.codec")
+                .description("Serializing requests to and deserializing responses from a Hub")
+                .tags("type", type, "phase", phase)
+                .register(REGISTRY);
+    }
+
+    /**
+     * Mapping records between the Hub's fields and Flow's properties, either "to-flow" when loading or "to-hub" when
+     * saving or matching
+     */
+    public static Timer mapping(String type, String direction) {
+        return Timer.builder("mdh.mapping")
+                .description("Mapping records between the Hub's fields and Flow's properties")
+                .tags("type", type, "direction", direction)
+                .register(REGISTRY);
+    }
+
+    public static <T> T timeOperation(String type, String operation, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        String outcome = "error";
+
+        try {
+            T result = supplier.get();
+            outcome = "success";
+
+            return result;
+        } finally {
+            Timer.builder("mdh.operations")
+                    .description("Loading, saving and deleting records, from when Flow asked to when it was answered")
+                    .tags("type", type, "operation", operation, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(60))
+                    .register(REGISTRY)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public static void timeOperation(String type, String operation, Runnable runnable) {
+        timeOperation(type, operation, () -> {
+            runnable.run();
+
+            return null;
+        });
+    }
+
+    private static PrometheusMeterRegistry create() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+
+        return registry;
+    }
+}
@@ -0,0 +1,61 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import com.google.common.base.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Service-wide tuning settings, read from a system property (e.g. -Dmdh.universe.cache.ttl=60) or the matching
+ * environment variable (e.g. MDH_UNIVERSE_CACHE_TTL=60), in that order.
+ */
+public class Settings {
+    private final static Logger LOGGER = LoggerFactory.getLogger(Settings.class);
+
+    public static String getString(String name, String defaultValue) {
+        String value = lookup(name);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+
+        return value;
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = lookup(name);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warn("The setting {} has an invalid value of {}, so the default of {} will be used", name, value, defaultValue);
+
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = lookup(name);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private static String lookup(String name) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            return value;
+        }
+
+        return System.getenv(name.toUpperCase(Locale.ENGLISH).replace('.', '_').replace('-', '_'));
+    }
+}
@@ -0,0 +1,71 @@
+package com.boomi.flow.services.boomi.mdh.utilities;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same thing share a single call: the first caller for a key makes the call,
+ * and anyone asking for the same key while it's in flight waits for it and gets the same result (or exception). Once
+ * the call finishes, the next caller for the key starts a new one, so results are never kept around.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    public V call(K key, Supplier<V> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return HubExecutor.join(existing);
+        }
+
+        try {
+            V value = supplier.get();
+
+            flight.complete(value);
+
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * The same as {@link #call}, for calls that don't block: the first caller's future is shared with everyone asking
+     * for the same key until it completes. Each caller is given their own copy of it, so nobody can complete or cancel
+     * it for the others.
+     */
+    public CompletableFuture<V> callAsync(K key, Supplier<CompletableFuture<V>> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        try {
+            supplier.get().whenComplete((value, e) -> {
+                flights.remove(key, flight);
+
+                if (e == null) {
+                    flight.complete(value);
+                } else {
+                    flight.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+
+            flight.completeExceptionally(e);
+        }
+
+        return flight.thenApply(Function.identity());
+    }
+}
@@ -0,0 +1,91 @@
+package com.boomi.flow.services.boomi.mdh;
+
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequestWriter;
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.jackson.ObjectMapperFactory;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BatchUpdateRequestWriterTests {
+    @Test
+    public void testWriterMatchesFieldMapFixtures() throws IOException {
+        for (String fixture : Arrays.asList("repeatable", "nested-fieldgroup", "nested-null-fieldgroup")) {
+            MObject mObject = ObjectMapperFactory
+                    .create()
+                    .readValue(Resources.getResource("field-map/" + fixture + "/mobject.json"), MObject.class);
+            Universe universe = JAXB.unmarshal(Resources.getResource("field-map/" + fixture + "/universe.xml"), Universe.class);
+
+            BatchUpdateRequest request = new BatchUpdateRequest()
+                    .setSource("flow")
+                    .setEntities(Collections.singletonList(new BatchUpdateRequest.Entity()
+                            .setName(universe.getLayout().getModel().getName())
+                            .setFields(FieldMapper.createMapFromModelMobject(universe.getName(), mObject, universe))));
+
+            String expected = Resources.toString(Resources.getResource("field-map/" + fixture + "/record-update-request-deserialized.xml"), Charsets.UTF_8);
+
+            Assert.assertEquals(expected, write(request));
+        }
+    }
+
+    @Test
+    public void testWriterMatchesJaxb() throws IOException {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", 1);
+        fields.put("escaped", "<tom & \"jerry\">\r\n \té中");
+        fields.put("empty", "");
+        fields.put("missing", null);
+        fields.put("empty_group", Collections.emptyMap());
+        fields.put("empty_collection", Collections.emptyList());
+        fields.put("phones", Arrays.asList(
+                Collections.singletonMap("phone", Collections.singletonMap("number", "311 555-1234")),
+                new AbstractMap.SimpleEntry<>("phone", Collections.singletonMap("number", "311 555-4321"))
+        ));
+
+        BatchUpdateRequest request = new BatchUpdateRequest()
+                .setSource("a \"source\"\r\n\t& more")
+                .setEntities(Arrays.asList(
+                        new BatchUpdateRequest.Entity()
+                                .setName("contact")
+                                .setOp("CREATE")
+                                .setFields(fields),
+                        new BatchUpdateRequest.Entity()
+                                .setName("contact")
+                ));
+
+        assertWriterMatchesJaxb(request);
+    }
+
+    @Test
+    public void testWriterMatchesJaxbForEmptyBatches() throws IOException {
+        assertWriterMatchesJaxb(new BatchUpdateRequest().setSource("flow"));
+        assertWriterMatchesJaxb(new BatchUpdateRequest());
+    }
+
+    private static void assertWriterMatchesJaxb(BatchUpdateRequest request) throws IOException {
+        StringWriter expected = new StringWriter();
+        JAXB.marshal(request, expected);
+
+        Assert.assertEquals(expected.toString(), write(request));
+    }
+
+    private static String write(BatchUpdateRequest request) throws IOException {
+        StringWriter writer = new StringWriter();
+        BatchUpdateRequestWriter.write(request, writer);
+
+        return writer.toString();
+    }
+}
@@ -1,11 +1,7 @@
 package com.boomi.flow.services.boomi.mdh;
 
 import com.boomi.flow.services.boomi.mdh.client.MdhClient;
-import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
-import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
-import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
-import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
 import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import com.google.common.collect.ImmutableMap;
@@ -86,7 +82,7 @@ public class DatabaseDeleteGoldenRecordTests {
         object.getProperties().add(new Property("field 3 1", "some value 3"));
 
         // Delete the incoming object
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .delete(TestConstants.CONFIGURATION, objectDataType, object);
 
         // Make sure we perform the delete in MDH, with the request that we're expecting
@@ -0,0 +1,212 @@
+package com.boomi.flow.services.boomi.mdh;
+
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordHistoryResponseReader;
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.Entities;
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistoryResponse;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.CriteriaType;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import com.manywho.sdk.api.run.elements.type.ListFilter;
+import com.manywho.sdk.api.run.elements.type.ListFilterWhere;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.ObjectDataType;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.xml.bind.JAXB;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseLoadGoldenRecordHistoryTests {
+    private static final String RECORD_ID = "9799d1e7-e3da-4c90-9853-68be3cdfdca4";
+
+    @Mock
+    private MdhClient client;
+
+    private ObjectDataType objectDataType = new ObjectDataType()
+            .setDeveloperName(TestConstants.UNIVERSE_ID + "-golden-record-history");
+
+    private Universe universe = JAXB.unmarshal(Resources.getResource("field-map/repeatable/universe.xml"), Universe.class);
+
+    @Before
+    public void before() throws IOException {
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(universe));
+
+        when(client.findGoldenRecordHistory(any(), any(), any(), eq(TestConstants.UNIVERSE_ID), eq(RECORD_ID), isNull()))
+                .thenReturn(readFirstPage());
+
+        lenient().when(client.findGoldenRecordHistory(any(), any(), any(), eq(TestConstants.UNIVERSE_ID), eq(RECORD_ID), eq("Mg==")))
+                .thenReturn(read("<RecordHistoryResponse resultCount=\"1\" totalCount=\"3\">" +
+                        "<accountnest2 grid=\"" + RECORD_ID + "\" source=\"crm\" startdate=\"01-29-2020T10:00:00.000Z\" version=\"3\">" +
+                        "<id>2</id><single_value>single value 2-3</single_value>" +
+                        "</accountnest2>" +
+                        "</RecordHistoryResponse>"));
+    }
+
+    @Test
+    public void testLoadReturnsEveryVersionAcrossPages() {
+        List<MObject> objects = load(createFilter(0));
+
+        assertThat(objects, hasSize(3));
+        assertThat(objects.get(0).getDeveloperName(), equalTo(TestConstants.UNIVERSE_ID + "-golden-record-history"));
+        assertThat(objects.get(0).getExternalId(), equalTo(RECORD_ID + ":1"));
+
+        assertThat(findProperty(objects.get(0), "___recordId").getContentValue(), equalTo(RECORD_ID));
+        assertThat(findProperty(objects.get(0), "___sourceId").getContentValue(), equalTo("flow"));
+        assertThat(findProperty(objects.get(0), "___version").getContentValue(), equalTo("1"));
+        assertThat(findProperty(objects.get(0), "___startDate").getContentValue(), equalTo("2020-01-27T14:17:00Z"));
+        assertThat(findProperty(objects.get(0), "___endDate").getContentValue(), equalTo("2020-01-28T09:00:00-05:00"));
+        assertThat(findProperty(objects.get(0), "___endDateSource").getContentValue(), equalTo("flow"));
+        assertThat(findProperty(objects.get(0), "___transactionId").getContentValue(), equalTo("12345678-9abc-def0-1234-56789abcdef0"));
+
+        assertThat(findProperty(objects.get(1), "___version").getContentValue(), equalTo("2"));
+        assertThat(findProperty(objects.get(1), "___endDate").getContentValue(), nullValue());
+
+        assertThat(findProperty(objects.get(2), "___version").getContentValue(), equalTo("3"));
+        assertThat(findProperty(objects.get(2), "___sourceId").getContentValue(), equalTo("crm"));
+        assertThat(findProperty(objects.get(2), "single_value").getContentValue(), equalTo("single value 2-3"));
+
+        verify(client).findGoldenRecordHistory(TestConstants.CONFIGURATION.getHubHostname(), TestConstants.CONFIGURATION.getHubUsername(), TestConstants.CONFIGURATION.getHubToken(), TestConstants.UNIVERSE_ID, RECORD_ID, null);
+        verify(client).findGoldenRecordHistory(TestConstants.CONFIGURATION.getHubHostname(), TestConstants.CONFIGURATION.getHubUsername(), TestConstants.CONFIGURATION.getHubToken(), TestConstants.UNIVERSE_ID, RECORD_ID, "Mg==");
+    }
+
+    @Test
+    public void testLoadMapsFieldGroupsLikeGoldenRecords() throws IOException {
+        // The first version has the same fields as this golden record, so they should be given to Flow the same way
+        MObject goldenRecord = Entities.createGoldenRecordMObject(TestConstants.UNIVERSE_ID, GoldenRecordQueryResponseReader.read(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponsesRepeatables.xml").openStream())
+                .getRecords()
+                .get(0));
+
+        FieldMapper.renameMobjectPropertiesToUseUniqueId(universe, goldenRecord);
+
+        MObject version = load(createFilter(0)).get(0);
+
+        assertFieldsMatch(fieldsOf(version), fieldsOf(goldenRecord));
+    }
+
+    @Test
+    public void testLoadStopsAtTheLimit() {
+        List<MObject> objects = load(createFilter(2));
+
+        assertThat(objects, hasSize(2));
+
+        verify(client, never()).findGoldenRecordHistory(any(), any(), any(), any(), any(), eq("Mg=="));
+    }
+
+    @Test
+    public void testLoadNeedsARecordId() {
+        ListFilter filter = new ListFilter();
+        filter.setWhere(Collections.singletonList(createWhere("___recordId", CriteriaType.NotEqual, RECORD_ID)));
+
+        assertBadRequest(null);
+        assertBadRequest(filter);
+
+        filter.setWhere(Collections.singletonList(createWhere("single_value", CriteriaType.Equal, "single value 2-1")));
+
+        assertBadRequest(filter);
+    }
+
+    private void assertBadRequest(ListFilter filter) {
+        try {
+            load(filter);
+
+            fail("Expected the history to need an equals filter on the record ID");
+        } catch (ServiceProblemException e) {
+            assertThat(e.getStatusCode(), equalTo(400));
+        }
+    }
+
+    private List<MObject> load(ListFilter filter) {
+        return TestConstants.createDatabase(client)
+                .findAll(TestConstants.CONFIGURATION, objectDataType, null, filter, null);
+    }
+
+    private static ListFilter createFilter(int limit) {
+        ListFilter filter = new ListFilter();
+        filter.setLimit(limit);
+        filter.setWhere(Collections.singletonList(createWhere("___recordId", CriteriaType.Equal, RECORD_ID)));
+
+        return filter;
+    }
+
+    private static ListFilterWhere createWhere(String columnName, CriteriaType criteriaType, String value) {
+        ListFilterWhere where = new ListFilterWhere();
+
+        where.setColumnName(columnName);
+        where.setCriteriaType(criteriaType);
+        where.setContentValue(value);
+
+        return where;
+    }
+
+    private static GoldenRecordHistoryResponse readFirstPage() throws IOException {
+        return GoldenRecordHistoryResponseReader.read(Resources.getResource("testXmlMapperDeserializesGoldenRecordHistoryResponseRepeatables.xml").openStream());
+    }
+
+    private static GoldenRecordHistoryResponse read(String xml) {
+        return GoldenRecordHistoryResponseReader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Property findProperty(MObject object, String developerName) {
+        return object.getProperties().stream()
+                .filter(property -> property.getDeveloperName().equals(developerName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No property named " + developerName + " was found"));
+    }
+
+    /**
+     * The fields of a record, without our own properties or its ID (which the golden record fixture doesn't have)
+     */
+    private static List<Property> fieldsOf(MObject object) {
+        return object.getProperties().stream()
+                .filter(property -> property.getDeveloperName().startsWith("___") == false)
+                .filter(property -> property.getDeveloperName().equals("id") == false)
+                .collect(Collectors.toList());
+    }
+
+    private static void assertFieldsMatch(List<Property> actual, List<Property> expected) {
+        assertThat(actual, hasSize(expected.size()));
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getDeveloperName(), equalTo(expected.get(i).getDeveloperName()));
+            assertThat(actual.get(i).getContentType(), equalTo(expected.get(i).getContentType()));
+            assertThat(actual.get(i).getContentValue(), equalTo(expected.get(i).getContentValue()));
+
+            List<MObject> expectedObjects = expected.get(i).getObjectData();
+            if (expectedObjects == null) {
+                assertThat(actual.get(i).getObjectData(), nullValue());
+                continue;
+            }
+
+            assertThat(actual.get(i).getObjectData(), hasSize(expectedObjects.size()));
+
+            for (int j = 0; j < expectedObjects.size(); j++) {
+                MObject actualObject = actual.get(i).getObjectData().get(j);
+
+                assertThat(actualObject.getDeveloperName(), equalTo(expectedObjects.get(j).getDeveloperName()));
+                assertFieldsMatch(actualObject.getProperties(), expectedObjects.get(j).getProperties());
+            }
+        }
+    }
+}
@@ -3,8 +3,6 @@ package com.boomi.flow.services.boomi.mdh;
 import com.boomi.flow.services.boomi.mdh.client.MdhClient;
 import com.boomi.flow.services.boomi.mdh.common.DateFilter;
 import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
-import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
-import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
 import com.boomi.flow.services.boomi.mdh.records.*;
 import com.manywho.sdk.api.ComparisonType;
 import com.manywho.sdk.api.ContentType;
@@ -17,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -88,17 +87,17 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
-        List<MObject> objects = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        List<MObject> objects = TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
 
         assertThat(objects, not(nullValue()));
@@ -164,21 +163,21 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         // Actual test is below here
         when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
                 .thenReturn(response);
 
-        List<MObject> objects = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        List<MObject> objects = TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
 
         verify(client)
@@ -221,15 +220,15 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         List<ListFilterWhere> wheres = new ArrayList<>();
         wheres.add(createWhere("___filterCreatedDate", CriteriaType.GreaterThan, "2013-01-01T00:00:00.0000000+00:00"));
@@ -323,7 +322,7 @@ public class DatabaseLoadGoldenRecordTests {
         when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
                 .thenReturn(response);
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
         ArgumentCaptor<String> hostname = ArgumentCaptor.forClass(String.class);
@@ -360,15 +359,15 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         ListFilter listFilter = new ListFilter();
         listFilter.setComparisonType(ComparisonType.And);
@@ -387,7 +386,7 @@ public class DatabaseLoadGoldenRecordTests {
                         ))
                 );
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
         verify(client)
@@ -410,15 +409,15 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         ListFilter listFilter = new ListFilter();
         listFilter.setComparisonType(ComparisonType.And);
@@ -441,7 +440,7 @@ public class DatabaseLoadGoldenRecordTests {
                         ))
                 );
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
         verify(client)
@@ -464,15 +463,15 @@ public class DatabaseLoadGoldenRecordTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         ListFilter listFilter = new ListFilter();
         listFilter.setComparisonType(ComparisonType.And);
@@ -492,7 +491,7 @@ public class DatabaseLoadGoldenRecordTests {
                         ))
                 );
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
         verify(client)
@@ -505,6 +504,30 @@ public class DatabaseLoadGoldenRecordTests {
                 );
     }
 
+    @Test
+    public void testLoadsShareTheCachedUniverse() {
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
+                        .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
+                        .setName("testing")
+                        .setLayout(new Universe.Layout()
+                                .setIdXPath("/item/id")
+                                .setModel(new Universe.Layout.Model()
+                                        .setName("testing")
+                                        .setElements(new ArrayList<>())))));
+
+        when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
+                .thenReturn(new GoldenRecordQueryResponse());
+
+        MdhRawDatabase database = TestConstants.createDatabase(client);
+
+        database.findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
+        database.findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
+
+        verify(client, times(1)).findUniverseAsync(any(), any(), any(), any());
+        verify(client, times(2)).queryGoldenRecords(any(), any(), any(), any(), any());
+    }
+
     private static GoldenRecord createGoldenRecord(int number) {
         List<Property> mObjectProperties = new ArrayList<>();
         mObjectProperties.add(new Property("field 1 " + number, "field 1 value " + number));
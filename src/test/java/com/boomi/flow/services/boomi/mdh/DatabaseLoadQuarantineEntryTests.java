@@ -2,18 +2,15 @@ package com.boomi.flow.services.boomi.mdh;
 
 import com.boomi.flow.services.boomi.mdh.client.MdhClient;
 import com.boomi.flow.services.boomi.mdh.common.DateFilter;
-import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
-import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineEntry;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
 import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryResponse;
-import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
-import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
 import com.manywho.sdk.api.ComparisonType;
 import com.manywho.sdk.api.CriteriaType;
 import com.manywho.sdk.api.run.ServiceProblemException;
 import com.manywho.sdk.api.run.elements.type.*;
 import org.hamcrest.Matchers;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
@@ -22,6 +19,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -34,6 +32,13 @@ public class DatabaseLoadQuarantineEntryTests {
     @Mock
     private MdhClient client;
 
+    @Before
+    public void before() {
+        // Tests that don't need a universe are given none, unless they ask for one
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     private ObjectDataType objectDataType = new ObjectDataType()
             .setDeveloperName("12fa66f9-e14d-f642-878f-030b13b64731-quarantine");
 
@@ -93,20 +98,20 @@ public class DatabaseLoadQuarantineEntryTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         when(client.queryQuarantineEntries(any(), any(), any(), any(), any()))
                 .thenReturn(response);
 
-        List<MObject> objects = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        List<MObject> objects = TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
 
         assertThat(objects, not(nullValue()));
@@ -162,7 +167,7 @@ public class DatabaseLoadQuarantineEntryTests {
         when(client.queryQuarantineEntries(any(), any(), any(), any(), any()))
                 .thenReturn(incorrectlyFormattedEntity);
 
-        List<MObject> objects = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        List<MObject> objects = TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
 
         assertThat(objects, not(nullValue()));
@@ -221,15 +226,15 @@ public class DatabaseLoadQuarantineEntryTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         QuarantineQueryRequest query = new QuarantineQueryRequest()
                 .setFilter(new QuarantineQueryRequest.Filter())
@@ -239,7 +244,7 @@ public class DatabaseLoadQuarantineEntryTests {
         when(client.queryQuarantineEntries(any(), any(), any(), any(), any()))
                 .thenReturn(response);
 
-        List<MObject> objects = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        List<MObject> objects = TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, null, null);
 
         verify(client)
@@ -286,15 +291,15 @@ public class DatabaseLoadQuarantineEntryTests {
         );
 
         // Make sure we return the expected universe layout for the test
-        when(client.findUniverse(any(), any(), any(), any()))
-                .thenReturn(new Universe()
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new Universe()
                         .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
                         .setName("testing")
                         .setLayout(new Universe.Layout()
                                 .setIdXPath("/item/id")
                                 .setModel(new Universe.Layout.Model()
                                         .setName("testing")
-                                        .setElements(createElements(uniqueIds, names)))));
+                                        .setElements(createElements(uniqueIds, names))))));
 
         List<ListFilterWhere> wheres = new ArrayList<>();
         wheres.add(createWhere("___status", CriteriaType.Equal, "ACTIVE"));
@@ -340,7 +345,7 @@ public class DatabaseLoadQuarantineEntryTests {
         when(client.queryQuarantineEntries(any(), any(), any(), any(), any()))
                 .thenReturn(response);
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
         ArgumentCaptor<String> hostname = ArgumentCaptor.forClass(String.class);
@@ -378,7 +383,7 @@ public class DatabaseLoadQuarantineEntryTests {
         listFilter.setLimit(123);
         listFilter.setWhere(wheres);
 
-        new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        TestConstants.createDatabase(client)
                 .findAll(TestConstants.CONFIGURATION, objectDataType, null, listFilter, null);
 
     }
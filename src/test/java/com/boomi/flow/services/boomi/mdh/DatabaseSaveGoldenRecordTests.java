@@ -1,11 +1,7 @@
 package com.boomi.flow.services.boomi.mdh;
 
 import com.boomi.flow.services.boomi.mdh.client.MdhClient;
-import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
-import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
-import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
 import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
-import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
 import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
 import com.boomi.flow.services.boomi.mdh.universes.Universe;
 import com.manywho.sdk.api.ContentType;
@@ -94,7 +90,7 @@ public class DatabaseSaveGoldenRecordTests {
         object.getProperties().add(new Property("testing - object field 4", objectField4, ContentType.Object));
 
         // Update using the incoming object
-        MObject result = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        MObject result = TestConstants.createDatabase(client)
                 .update(TestConstants.CONFIGURATION, objectDataType, object);
 
         // Make sure we perform the update in MDH, with the request that we're expecting
@@ -174,7 +170,7 @@ public class DatabaseSaveGoldenRecordTests {
 
 
         // Update using the incoming object
-        MObject result = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        MObject result = TestConstants.createDatabase(client)
                 .update(TestConstants.CONFIGURATION, objectDataType, object);
 
         // Make sure we perform the update in MDH, with the request that we're expecting
@@ -231,7 +227,7 @@ public class DatabaseSaveGoldenRecordTests {
 
 
         // Update using the incoming object
-        MObject result = new MdhRawDatabase(new QuarantineRepository(client), new GoldenRecordRepository(client), new MatchEntityRepository(client))
+        MObject result = TestConstants.createDatabase(client)
                 .update(TestConstants.CONFIGURATION, objectDataType, object);
 
         // Make sure we perform the update in MDH, with the request that we're expecting
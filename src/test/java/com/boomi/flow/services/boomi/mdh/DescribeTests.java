@@ -459,7 +459,7 @@ public class DescribeTests {
                 .body("culture", nullValue());
 
         response
-                .body("install.typeElements", hasSize(8))
+                .body("install.typeElements", hasSize(10))
                 .body("install.typeElements[0].bindings", hasSize(1))
                 .body("install.typeElements[0].developerName", equalTo("Fuzzy Match Details"))
                 .body("install.typeElements[0].developerSummary", equalTo("The Fuzzy Match Details object structure"))
@@ -893,385 +893,429 @@ public class DescribeTests {
                 .body("install.typeElements[3].serviceElementId", nullValue())
                 .body("install.typeElements[3].updateByName", equalTo(false));
 
+        // The history of a golden record is a type of its own, so the model's type doesn't change
         response
-                .body("install.typeElements[5].bindings", hasSize(1))
-                .body("install.typeElements[5].bindings[0].databaseTableName", equalTo("country - capital"))
-                .body("install.typeElements[5].bindings[0].developerName", equalTo("country - capital"))
-                .body("install.typeElements[5].bindings[0].developerSummary", equalTo("The structure of a child Type Capital for country"))
+                .body("install.typeElements[4].developerName", equalTo("artist Golden Record History"))
+                .body("install.typeElements[4].properties", hasSize(8))
+                .body("install.typeElements[4].properties[1].developerName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[4].properties[3].contentType", equalTo("ContentNumber"))
+                .body("install.typeElements[4].properties[3].developerName", equalTo("Golden Record History: Version"))
+                .body("install.typeElements[4].properties[4].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[4].properties[4].developerName", equalTo("Golden Record History: Start Date"))
+                .body("install.typeElements[4].properties[5].developerName", equalTo("Golden Record History: End Date"))
+                .body("install.typeElements[4].properties[6].developerName", equalTo("Golden Record History: End Date Source"))
+                .body("install.typeElements[4].properties[7].developerName", equalTo("Golden Record History: Transaction ID"))
+                .body("install.typeElements[4].bindings", hasSize(1))
+                .body("install.typeElements[4].bindings[0].databaseTableName", equalTo("ad7820f3-92a7-4919-9647-db934bda0065-golden-record-history"))
+                .body("install.typeElements[4].bindings[0].developerName", equalTo("artist Golden Record History"))
+                .body("install.typeElements[4].bindings[0].developerSummary", equalTo("The structure of a version of a golden record for the artist universe"))
+                .body("install.typeElements[4].bindings[0].propertyBindings", hasSize(8))
+                .body("install.typeElements[4].bindings[0].propertyBindings[1].databaseFieldName", equalTo("___recordId"))
+                .body("install.typeElements[4].bindings[0].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[4].bindings[0].propertyBindings[3].databaseFieldName", equalTo("___version"))
+                .body("install.typeElements[4].bindings[0].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Golden Record History: Version"));
+
+        response
+                .body("install.typeElements[6].bindings", hasSize(1))
+                .body("install.typeElements[6].bindings[0].databaseTableName", equalTo("country - capital"))
+                .body("install.typeElements[6].bindings[0].developerName", equalTo("country - capital"))
+                .body("install.typeElements[6].bindings[0].developerSummary", equalTo("The structure of a child Type Capital for country"))
+                .body("install.typeElements[6].bindings[0].id", nullValue())
+                .body("install.typeElements[6].bindings[0].propertyBindings", hasSize(2))
+                .body("install.typeElements[6].bindings[0].propertyBindings[0].databaseContentType", nullValue())
+                .body("install.typeElements[6].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name_1"))
+                .body("install.typeElements[6].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name_1"))
+                .body("install.typeElements[6].bindings[0].propertyBindings[0].typeElementPropertyId", nullValue())
+                .body("install.typeElements[6].bindings[0].propertyBindings[1].databaseContentType", equalTo("region"))
+                .body("install.typeElements[6].bindings[0].propertyBindings[1].databaseFieldName", equalTo("country - region"))
+                .body("install.typeElements[6].bindings[0].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("region"))
+                .body("install.typeElements[6].bindings[0].propertyBindings[1].typeElementPropertyId", nullValue())
+                .body("install.typeElements[6].bindings[0].serviceElementId", nullValue())
+                .body("install.typeElements[6].developerName", equalTo("country - capital"))
+                .body("install.typeElements[6].developerSummary", equalTo(""))
+                .body("install.typeElements[6].elementType", equalTo("TYPE"))
+                .body("install.typeElements[6].id", nullValue())
+                .body("install.typeElements[6].properties", hasSize(2))
+                .body("install.typeElements[6].properties[0].contentFormat", nullValue())
+                .body("install.typeElements[6].properties[0].contentType", equalTo("ContentString"))
+                .body("install.typeElements[6].properties[0].developerName", equalTo("name_1"))
+                .body("install.typeElements[6].properties[0].id", nullValue())
+                .body("install.typeElements[6].properties[0].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[6].properties[0].typeElementId", nullValue())
+                .body("install.typeElements[6].properties[1].contentFormat", nullValue())
+                .body("install.typeElements[6].properties[1].contentType", equalTo("ContentObject"))
+                .body("install.typeElements[6].properties[1].developerName", equalTo("region"))
+                .body("install.typeElements[6].properties[1].id", nullValue())
+                .body("install.typeElements[6].properties[1].typeElementDeveloperName", equalTo("country - region"))
+                .body("install.typeElements[6].properties[1].typeElementId", nullValue())
+                .body("install.typeElements[6].serviceElementId", nullValue())
+                .body("install.typeElements[6].updateByName", equalTo(false));
+
+        response.body("install.typeElements[5].bindings", hasSize(3))
+                .body("install.typeElements[5].bindings[0].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-golden-record"))
+                .body("install.typeElements[5].bindings[0].developerName", equalTo("country Golden Record"))
+                .body("install.typeElements[5].bindings[0].developerSummary", equalTo("The structure of a golden record for the country universe"))
                 .body("install.typeElements[5].bindings[0].id", nullValue())
-                .body("install.typeElements[5].bindings[0].propertyBindings", hasSize(2))
+                .body("install.typeElements[5].bindings[0].propertyBindings", hasSize(9))
                 .body("install.typeElements[5].bindings[0].propertyBindings[0].databaseContentType", nullValue())
-                .body("install.typeElements[5].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name_1"))
-                .body("install.typeElements[5].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name_1"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
                 .body("install.typeElements[5].bindings[0].propertyBindings[0].typeElementPropertyId", nullValue())
-                .body("install.typeElements[5].bindings[0].propertyBindings[1].databaseContentType", equalTo("region"))
-                .body("install.typeElements[5].bindings[0].propertyBindings[1].databaseFieldName", equalTo("country - region"))
-                .body("install.typeElements[5].bindings[0].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("region"))
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[1].databaseContentType", equalTo("capital"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
                 .body("install.typeElements[5].bindings[0].propertyBindings[1].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[2].databaseContentType", equalTo("cities"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[2].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[3].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[3].databaseFieldName", equalTo("___sourceId"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Golden Record: Source ID"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[3].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[4].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[4].databaseFieldName", equalTo("___filterCreatedDate"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Golden Record (Filter): Created Date"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[4].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[5].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[5].databaseFieldName", equalTo("___filterUpdatedDate"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Golden Record (Filter): Updated Date"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[5].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[6].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[6].databaseFieldName", equalTo("___recordId"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[6].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[7].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[7].databaseFieldName", equalTo("___entityId"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Golden Record: Entity ID"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[7].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[0].propertyBindings[8].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[0].propertyBindings[8].databaseFieldName", equalTo("___links"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[8].typeElementPropertyDeveloperName", equalTo("Golden Record: Links"))
+                .body("install.typeElements[5].bindings[0].propertyBindings[8].typeElementPropertyId", nullValue())
+
                 .body("install.typeElements[5].bindings[0].serviceElementId", nullValue())
-                .body("install.typeElements[5].developerName", equalTo("country - capital"))
-                .body("install.typeElements[5].developerSummary", equalTo(""))
+                .body("install.typeElements[5].bindings[1].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-quarantine"))
+                .body("install.typeElements[5].bindings[1].developerName", equalTo("country Quarantine"))
+                .body("install.typeElements[5].bindings[1].developerSummary", equalTo("The structure of a Quarantine country for the country universe"))
+                .body("install.typeElements[5].bindings[1].id", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings", hasSize(12))
+                .body("install.typeElements[5].bindings[1].propertyBindings[0].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[0].databaseFieldName", equalTo("name"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[0].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[1].propertyBindings[1].databaseContentType", equalTo("capital"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[1].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[1].propertyBindings[2].databaseContentType", equalTo("cities"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[2].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[1].propertyBindings[3].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[3].databaseFieldName", equalTo("___status"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Quarantine: Status"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[3].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[1].propertyBindings[4].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[4].databaseFieldName", equalTo("___sourceId"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): Source ID"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[4].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[5].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[5].databaseFieldName", equalTo("___sourceEntityId"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Quarantine: Source Entity ID"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[5].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[6].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[6].databaseFieldName", equalTo("___createdDate"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): Created Date"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[6].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[7].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[7].databaseFieldName", equalTo("___endDate"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): End Date"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[7].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[8].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[8].databaseFieldName", equalTo("___transactionId"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[8].typeElementPropertyDeveloperName", equalTo("Quarantine: Transaction ID"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[8].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[9].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[9].databaseFieldName", equalTo("___cause"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[9].typeElementPropertyDeveloperName", equalTo("Quarantine: Cause"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[9].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[10].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[10].databaseFieldName", equalTo("___reason"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[10].typeElementPropertyDeveloperName", equalTo("Quarantine: Reason"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[10].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[11].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[1].propertyBindings[11].databaseFieldName", equalTo("___resolution"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[11].typeElementPropertyDeveloperName", equalTo("Quarantine: Resolution"))
+                .body("install.typeElements[5].bindings[1].propertyBindings[11].typeElementPropertyId", nullValue())
+                .body("install.typeElements[5].bindings[1].serviceElementId", nullValue())
+                .body("install.typeElements[5].bindings[2].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-match"))
+                .body("install.typeElements[5].bindings[2].developerName", equalTo("country Match"))
+                .body("install.typeElements[5].bindings[2].developerSummary", equalTo("The structure of matches for the country universe"))
+                .body("install.typeElements[5].bindings[2].id", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings", hasSize(8))
+                .body("install.typeElements[5].bindings[2].propertyBindings[0].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[0].databaseFieldName", equalTo("name"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[0].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[1].databaseContentType", equalTo("capital"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[1].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[2].databaseContentType", equalTo("cities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[2].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[3].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[3].databaseFieldName", equalTo("Fuzzy Match Details"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Fuzzy Match Details"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[3].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[4].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[4].databaseFieldName", equalTo("Matching Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Matching Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[4].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[5].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[5].databaseFieldName", equalTo("Duplicate Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Duplicate Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[5].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[6].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[6].databaseFieldName", equalTo("Already Linked Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Already Linked Entities"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[6].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].propertyBindings[7].databaseContentType", nullValue())
+                .body("install.typeElements[5].bindings[2].propertyBindings[7].databaseFieldName", equalTo("___sourceId"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Golden Record: Source ID"))
+                .body("install.typeElements[5].bindings[2].propertyBindings[7].typeElementPropertyId", nullValue())
+
+                .body("install.typeElements[5].bindings[2].serviceElementId", nullValue())
+                .body("install.typeElements[5].developerName", equalTo("country"))
+                .body("install.typeElements[5].developerSummary", nullValue())
                 .body("install.typeElements[5].elementType", equalTo("TYPE"))
                 .body("install.typeElements[5].id", nullValue())
-                .body("install.typeElements[5].properties", hasSize(2))
+                .body("install.typeElements[5].properties", hasSize(22))
                 .body("install.typeElements[5].properties[0].contentFormat", nullValue())
                 .body("install.typeElements[5].properties[0].contentType", equalTo("ContentString"))
-                .body("install.typeElements[5].properties[0].developerName", equalTo("name_1"))
+                .body("install.typeElements[5].properties[0].developerName", equalTo("name"))
                 .body("install.typeElements[5].properties[0].id", nullValue())
                 .body("install.typeElements[5].properties[0].typeElementDeveloperName", nullValue())
                 .body("install.typeElements[5].properties[0].typeElementId", nullValue())
+
                 .body("install.typeElements[5].properties[1].contentFormat", nullValue())
                 .body("install.typeElements[5].properties[1].contentType", equalTo("ContentObject"))
-                .body("install.typeElements[5].properties[1].developerName", equalTo("region"))
+                .body("install.typeElements[5].properties[1].developerName", equalTo("capital"))
                 .body("install.typeElements[5].properties[1].id", nullValue())
-                .body("install.typeElements[5].properties[1].typeElementDeveloperName", equalTo("country - region"))
+                .body("install.typeElements[5].properties[1].typeElementDeveloperName", equalTo("country - capital"))
                 .body("install.typeElements[5].properties[1].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[2].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[2].contentType", equalTo("ContentList"))
+                .body("install.typeElements[5].properties[2].developerName", equalTo("cities"))
+                .body("install.typeElements[5].properties[2].id", nullValue())
+                .body("install.typeElements[5].properties[2].typeElementDeveloperName", equalTo("country - cities"))
+                .body("install.typeElements[5].properties[2].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[3].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[3].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[3].developerName", equalTo("Golden Record: Source ID"))
+                .body("install.typeElements[5].properties[3].id", nullValue())
+                .body("install.typeElements[5].properties[3].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[3].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[4].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[4].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[5].properties[4].developerName", equalTo("Golden Record (Filter): Created Date"))
+                .body("install.typeElements[5].properties[4].id", nullValue())
+                .body("install.typeElements[5].properties[4].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[4].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[5].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[5].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[5].properties[5].developerName", equalTo("Golden Record (Filter): Updated Date"))
+                .body("install.typeElements[5].properties[5].id", nullValue())
+                .body("install.typeElements[5].properties[5].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[5].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[6].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[6].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[6].developerName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[5].properties[6].id", nullValue())
+                .body("install.typeElements[5].properties[6].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[6].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[7].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[7].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[7].developerName", equalTo("Golden Record: Entity ID"))
+                .body("install.typeElements[5].properties[7].id", nullValue())
+                .body("install.typeElements[5].properties[7].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[7].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[8].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[8].contentType", equalTo("ContentList"))
+                .body("install.typeElements[5].properties[8].developerName", equalTo("Golden Record: Links"))
+                .body("install.typeElements[5].properties[8].id", nullValue())
+                .body("install.typeElements[5].properties[8].typeElementDeveloperName", equalTo("Golden Record: Link"))
+                .body("install.typeElements[5].properties[8].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[9].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[9].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[9].developerName", equalTo("Quarantine (Filter): Source ID"))
+                .body("install.typeElements[5].properties[9].id", nullValue())
+                .body("install.typeElements[5].properties[9].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[9].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[10].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[10].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[5].properties[10].developerName", equalTo("Quarantine (Filter): Created Date"))
+                .body("install.typeElements[5].properties[10].id", nullValue())
+                .body("install.typeElements[5].properties[10].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[10].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[11].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[11].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[11].developerName", equalTo("Quarantine: Source Entity ID"))
+                .body("install.typeElements[5].properties[11].id", nullValue())
+                .body("install.typeElements[5].properties[11].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[11].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[12].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[12].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[12].developerName", equalTo("Quarantine: Status"))
+                .body("install.typeElements[5].properties[12].id", nullValue())
+                .body("install.typeElements[5].properties[12].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[12].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[13].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[13].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[5].properties[13].developerName", equalTo("Quarantine (Filter): End Date"))
+                .body("install.typeElements[5].properties[13].id", nullValue())
+                .body("install.typeElements[5].properties[13].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[13].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[14].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[14].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[14].developerName", equalTo("Quarantine: Transaction ID"))
+                .body("install.typeElements[5].properties[14].id", nullValue())
+                .body("install.typeElements[5].properties[14].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[14].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[15].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[15].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[15].developerName", equalTo("Quarantine: Cause"))
+                .body("install.typeElements[5].properties[15].id", nullValue())
+                .body("install.typeElements[5].properties[15].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[15].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[16].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[16].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[16].developerName", equalTo("Quarantine: Reason"))
+                .body("install.typeElements[5].properties[16].id", nullValue())
+                .body("install.typeElements[5].properties[16].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[16].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[17].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[17].contentType", equalTo("ContentString"))
+                .body("install.typeElements[5].properties[17].developerName", equalTo("Quarantine: Resolution"))
+                .body("install.typeElements[5].properties[17].id", nullValue())
+                .body("install.typeElements[5].properties[17].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[5].properties[17].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[18].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[18].contentType", equalTo("ContentObject"))
+                .body("install.typeElements[5].properties[18].developerName", equalTo("Fuzzy Match Details"))
+                .body("install.typeElements[5].properties[18].id", nullValue())
+                .body("install.typeElements[5].properties[18].typeElementDeveloperName", equalTo("Fuzzy Match Details"))
+                .body("install.typeElements[5].properties[18].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[19].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[19].contentType", equalTo("ContentList"))
+                .body("install.typeElements[5].properties[19].developerName", equalTo("Duplicate Entities"))
+                .body("install.typeElements[5].properties[19].id", nullValue())
+                .body("install.typeElements[5].properties[19].typeElementDeveloperName", equalTo("country"))
+                .body("install.typeElements[5].properties[19].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[20].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[20].contentType", equalTo("ContentList"))
+                .body("install.typeElements[5].properties[20].developerName", equalTo("Matching Entities"))
+                .body("install.typeElements[5].properties[20].id", nullValue())
+                .body("install.typeElements[5].properties[20].typeElementDeveloperName", equalTo("country"))
+                .body("install.typeElements[5].properties[20].typeElementId", nullValue())
+
+                .body("install.typeElements[5].properties[21].contentFormat", nullValue())
+                .body("install.typeElements[5].properties[21].contentType", equalTo("ContentList"))
+                .body("install.typeElements[5].properties[21].developerName", equalTo("Already Linked Entities"))
+                .body("install.typeElements[5].properties[21].id", nullValue())
+                .body("install.typeElements[5].properties[21].typeElementDeveloperName", equalTo("country"))
+                .body("install.typeElements[5].properties[21].typeElementId", nullValue())
+
                 .body("install.typeElements[5].serviceElementId", nullValue())
                 .body("install.typeElements[5].updateByName", equalTo(false));
 
-        response.body("install.typeElements[4].bindings", hasSize(3))
-                .body("install.typeElements[4].bindings[0].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-golden-record"))
-                .body("install.typeElements[4].bindings[0].developerName", equalTo("country Golden Record"))
-                .body("install.typeElements[4].bindings[0].developerSummary", equalTo("The structure of a golden record for the country universe"))
-                .body("install.typeElements[4].bindings[0].id", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings", hasSize(9))
-                .body("install.typeElements[4].bindings[0].propertyBindings[0].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[0].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[1].databaseContentType", equalTo("capital"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[1].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[2].databaseContentType", equalTo("cities"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[2].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[3].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[3].databaseFieldName", equalTo("___sourceId"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Golden Record: Source ID"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[3].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[4].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[4].databaseFieldName", equalTo("___filterCreatedDate"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Golden Record (Filter): Created Date"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[4].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[5].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[5].databaseFieldName", equalTo("___filterUpdatedDate"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Golden Record (Filter): Updated Date"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[5].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[6].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[6].databaseFieldName", equalTo("___recordId"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Golden Record: Record ID"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[6].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[7].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[7].databaseFieldName", equalTo("___entityId"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Golden Record: Entity ID"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[7].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].propertyBindings[8].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[0].propertyBindings[8].databaseFieldName", equalTo("___links"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[8].typeElementPropertyDeveloperName", equalTo("Golden Record: Links"))
-                .body("install.typeElements[4].bindings[0].propertyBindings[8].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[0].serviceElementId", nullValue())
-                .body("install.typeElements[4].bindings[1].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-quarantine"))
-                .body("install.typeElements[4].bindings[1].developerName", equalTo("country Quarantine"))
-                .body("install.typeElements[4].bindings[1].developerSummary", equalTo("The structure of a Quarantine country for the country universe"))
-                .body("install.typeElements[4].bindings[1].id", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings", hasSize(12))
-                .body("install.typeElements[4].bindings[1].propertyBindings[0].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[0].databaseFieldName", equalTo("name"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[0].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[1].propertyBindings[1].databaseContentType", equalTo("capital"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[1].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[1].propertyBindings[2].databaseContentType", equalTo("cities"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[2].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[1].propertyBindings[3].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[3].databaseFieldName", equalTo("___status"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Quarantine: Status"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[3].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[1].propertyBindings[4].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[4].databaseFieldName", equalTo("___sourceId"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): Source ID"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[4].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[5].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[5].databaseFieldName", equalTo("___sourceEntityId"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Quarantine: Source Entity ID"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[5].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[6].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[6].databaseFieldName", equalTo("___createdDate"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): Created Date"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[6].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[7].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[7].databaseFieldName", equalTo("___endDate"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Quarantine (Filter): End Date"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[7].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[8].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[8].databaseFieldName", equalTo("___transactionId"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[8].typeElementPropertyDeveloperName", equalTo("Quarantine: Transaction ID"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[8].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[9].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[9].databaseFieldName", equalTo("___cause"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[9].typeElementPropertyDeveloperName", equalTo("Quarantine: Cause"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[9].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[10].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[10].databaseFieldName", equalTo("___reason"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[10].typeElementPropertyDeveloperName", equalTo("Quarantine: Reason"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[10].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[11].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[1].propertyBindings[11].databaseFieldName", equalTo("___resolution"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[11].typeElementPropertyDeveloperName", equalTo("Quarantine: Resolution"))
-                .body("install.typeElements[4].bindings[1].propertyBindings[11].typeElementPropertyId", nullValue())
-                .body("install.typeElements[4].bindings[1].serviceElementId", nullValue())
-                .body("install.typeElements[4].bindings[2].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-match"))
-                .body("install.typeElements[4].bindings[2].developerName", equalTo("country Match"))
-                .body("install.typeElements[4].bindings[2].developerSummary", equalTo("The structure of matches for the country universe"))
-                .body("install.typeElements[4].bindings[2].id", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings", hasSize(8))
-                .body("install.typeElements[4].bindings[2].propertyBindings[0].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[0].databaseFieldName", equalTo("name"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[0].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[1].databaseContentType", equalTo("capital"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[1].databaseFieldName", equalTo("country - capital"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[1].typeElementPropertyDeveloperName", equalTo("capital"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[1].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[2].databaseContentType", equalTo("cities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[2].databaseFieldName", equalTo("country - cities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[2].typeElementPropertyDeveloperName", equalTo("cities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[2].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[3].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[3].databaseFieldName", equalTo("Fuzzy Match Details"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Fuzzy Match Details"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[3].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[4].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[4].databaseFieldName", equalTo("Matching Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[4].typeElementPropertyDeveloperName", equalTo("Matching Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[4].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[5].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[5].databaseFieldName", equalTo("Duplicate Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Duplicate Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[5].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[6].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[6].databaseFieldName", equalTo("Already Linked Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[6].typeElementPropertyDeveloperName", equalTo("Already Linked Entities"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[6].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].propertyBindings[7].databaseContentType", nullValue())
-                .body("install.typeElements[4].bindings[2].propertyBindings[7].databaseFieldName", equalTo("___sourceId"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[7].typeElementPropertyDeveloperName", equalTo("Golden Record: Source ID"))
-                .body("install.typeElements[4].bindings[2].propertyBindings[7].typeElementPropertyId", nullValue())
-
-                .body("install.typeElements[4].bindings[2].serviceElementId", nullValue())
-                .body("install.typeElements[4].developerName", equalTo("country"))
-                .body("install.typeElements[4].developerSummary", nullValue())
-                .body("install.typeElements[4].elementType", equalTo("TYPE"))
-                .body("install.typeElements[4].id", nullValue())
-                .body("install.typeElements[4].properties", hasSize(22))
-                .body("install.typeElements[4].properties[0].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[0].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[0].developerName", equalTo("name"))
-                .body("install.typeElements[4].properties[0].id", nullValue())
-                .body("install.typeElements[4].properties[0].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[0].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[1].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[1].contentType", equalTo("ContentObject"))
-                .body("install.typeElements[4].properties[1].developerName", equalTo("capital"))
-                .body("install.typeElements[4].properties[1].id", nullValue())
-                .body("install.typeElements[4].properties[1].typeElementDeveloperName", equalTo("country - capital"))
-                .body("install.typeElements[4].properties[1].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[2].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[2].contentType", equalTo("ContentList"))
-                .body("install.typeElements[4].properties[2].developerName", equalTo("cities"))
-                .body("install.typeElements[4].properties[2].id", nullValue())
-                .body("install.typeElements[4].properties[2].typeElementDeveloperName", equalTo("country - cities"))
-                .body("install.typeElements[4].properties[2].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[3].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[3].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[3].developerName", equalTo("Golden Record: Source ID"))
-                .body("install.typeElements[4].properties[3].id", nullValue())
-                .body("install.typeElements[4].properties[3].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[3].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[4].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[4].contentType", equalTo("ContentDateTime"))
-                .body("install.typeElements[4].properties[4].developerName", equalTo("Golden Record (Filter): Created Date"))
-                .body("install.typeElements[4].properties[4].id", nullValue())
-                .body("install.typeElements[4].properties[4].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[4].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[5].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[5].contentType", equalTo("ContentDateTime"))
-                .body("install.typeElements[4].properties[5].developerName", equalTo("Golden Record (Filter): Updated Date"))
-                .body("install.typeElements[4].properties[5].id", nullValue())
-                .body("install.typeElements[4].properties[5].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[5].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[6].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[6].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[6].developerName", equalTo("Golden Record: Record ID"))
-                .body("install.typeElements[4].properties[6].id", nullValue())
-                .body("install.typeElements[4].properties[6].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[6].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[7].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[7].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[7].developerName", equalTo("Golden Record: Entity ID"))
-                .body("install.typeElements[4].properties[7].id", nullValue())
-                .body("install.typeElements[4].properties[7].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[7].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[8].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[8].contentType", equalTo("ContentList"))
-                .body("install.typeElements[4].properties[8].developerName", equalTo("Golden Record: Links"))
-                .body("install.typeElements[4].properties[8].id", nullValue())
-                .body("install.typeElements[4].properties[8].typeElementDeveloperName", equalTo("Golden Record: Link"))
-                .body("install.typeElements[4].properties[8].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[9].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[9].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[9].developerName", equalTo("Quarantine (Filter): Source ID"))
-                .body("install.typeElements[4].properties[9].id", nullValue())
-                .body("install.typeElements[4].properties[9].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[9].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[10].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[10].contentType", equalTo("ContentDateTime"))
-                .body("install.typeElements[4].properties[10].developerName", equalTo("Quarantine (Filter): Created Date"))
-                .body("install.typeElements[4].properties[10].id", nullValue())
-                .body("install.typeElements[4].properties[10].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[10].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[11].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[11].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[11].developerName", equalTo("Quarantine: Source Entity ID"))
-                .body("install.typeElements[4].properties[11].id", nullValue())
-                .body("install.typeElements[4].properties[11].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[11].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[12].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[12].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[12].developerName", equalTo("Quarantine: Status"))
-                .body("install.typeElements[4].properties[12].id", nullValue())
-                .body("install.typeElements[4].properties[12].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[12].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[13].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[13].contentType", equalTo("ContentDateTime"))
-                .body("install.typeElements[4].properties[13].developerName", equalTo("Quarantine (Filter): End Date"))
-                .body("install.typeElements[4].properties[13].id", nullValue())
-                .body("install.typeElements[4].properties[13].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[13].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[14].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[14].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[14].developerName", equalTo("Quarantine: Transaction ID"))
-                .body("install.typeElements[4].properties[14].id", nullValue())
-                .body("install.typeElements[4].properties[14].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[14].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[15].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[15].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[15].developerName", equalTo("Quarantine: Cause"))
-                .body("install.typeElements[4].properties[15].id", nullValue())
-                .body("install.typeElements[4].properties[15].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[15].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[16].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[16].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[16].developerName", equalTo("Quarantine: Reason"))
-                .body("install.typeElements[4].properties[16].id", nullValue())
-                .body("install.typeElements[4].properties[16].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[16].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[17].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[17].contentType", equalTo("ContentString"))
-                .body("install.typeElements[4].properties[17].developerName", equalTo("Quarantine: Resolution"))
-                .body("install.typeElements[4].properties[17].id", nullValue())
-                .body("install.typeElements[4].properties[17].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[4].properties[17].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[18].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[18].contentType", equalTo("ContentObject"))
-                .body("install.typeElements[4].properties[18].developerName", equalTo("Fuzzy Match Details"))
-                .body("install.typeElements[4].properties[18].id", nullValue())
-                .body("install.typeElements[4].properties[18].typeElementDeveloperName", equalTo("Fuzzy Match Details"))
-                .body("install.typeElements[4].properties[18].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[19].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[19].contentType", equalTo("ContentList"))
-                .body("install.typeElements[4].properties[19].developerName", equalTo("Duplicate Entities"))
-                .body("install.typeElements[4].properties[19].id", nullValue())
-                .body("install.typeElements[4].properties[19].typeElementDeveloperName", equalTo("country"))
-                .body("install.typeElements[4].properties[19].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[20].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[20].contentType", equalTo("ContentList"))
-                .body("install.typeElements[4].properties[20].developerName", equalTo("Matching Entities"))
-                .body("install.typeElements[4].properties[20].id", nullValue())
-                .body("install.typeElements[4].properties[20].typeElementDeveloperName", equalTo("country"))
-                .body("install.typeElements[4].properties[20].typeElementId", nullValue())
-
-                .body("install.typeElements[4].properties[21].contentFormat", nullValue())
-                .body("install.typeElements[4].properties[21].contentType", equalTo("ContentList"))
-                .body("install.typeElements[4].properties[21].developerName", equalTo("Already Linked Entities"))
-                .body("install.typeElements[4].properties[21].id", nullValue())
-                .body("install.typeElements[4].properties[21].typeElementDeveloperName", equalTo("country"))
-                .body("install.typeElements[4].properties[21].typeElementId", nullValue())
-
-                .body("install.typeElements[4].serviceElementId", nullValue())
-                .body("install.typeElements[4].updateByName", equalTo(false));
-
         response
-                .body("install.typeElements[7].bindings", hasSize(1))
-                .body("install.typeElements[7].bindings[0].databaseTableName", equalTo("country - region"))
-                .body("install.typeElements[7].bindings[0].developerName", equalTo("country - region"))
-                .body("install.typeElements[7].bindings[0].developerSummary", equalTo("The structure of a child Type Region for country"))
-                .body("install.typeElements[7].bindings[0].id", nullValue())
-                .body("install.typeElements[7].bindings[0].propertyBindings", hasSize(1))
-                .body("install.typeElements[7].bindings[0].propertyBindings[0].databaseContentType", nullValue())
-                .body("install.typeElements[7].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name_2"))
-                .body("install.typeElements[7].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name_2"))
-                .body("install.typeElements[7].bindings[0].propertyBindings[0].typeElementPropertyId", nullValue())
-                .body("install.typeElements[7].bindings[0].serviceElementId", nullValue())
-                .body("install.typeElements[7].developerName", equalTo("country - region"))
-                .body("install.typeElements[7].developerSummary", equalTo(""))
-                .body("install.typeElements[7].elementType", equalTo("TYPE"))
-                .body("install.typeElements[7].id", nullValue())
-                .body("install.typeElements[7].properties", hasSize(1))
-                .body("install.typeElements[7].properties[0].contentFormat", nullValue())
-                .body("install.typeElements[7].properties[0].contentType", equalTo("ContentString"))
-                .body("install.typeElements[7].properties[0].developerName", equalTo("name_2"))
-                .body("install.typeElements[7].properties[0].id", nullValue())
-                .body("install.typeElements[7].properties[0].typeElementDeveloperName", nullValue())
-                .body("install.typeElements[7].properties[0].typeElementId", nullValue())
-                .body("install.typeElements[7].serviceElementId", nullValue())
-                .body("install.typeElements[7].updateByName", equalTo(false));
+                .body("install.typeElements[8].bindings", hasSize(1))
+                .body("install.typeElements[8].bindings[0].databaseTableName", equalTo("country - region"))
+                .body("install.typeElements[8].bindings[0].developerName", equalTo("country - region"))
+                .body("install.typeElements[8].bindings[0].developerSummary", equalTo("The structure of a child Type Region for country"))
+                .body("install.typeElements[8].bindings[0].id", nullValue())
+                .body("install.typeElements[8].bindings[0].propertyBindings", hasSize(1))
+                .body("install.typeElements[8].bindings[0].propertyBindings[0].databaseContentType", nullValue())
+                .body("install.typeElements[8].bindings[0].propertyBindings[0].databaseFieldName", equalTo("name_2"))
+                .body("install.typeElements[8].bindings[0].propertyBindings[0].typeElementPropertyDeveloperName", equalTo("name_2"))
+                .body("install.typeElements[8].bindings[0].propertyBindings[0].typeElementPropertyId", nullValue())
+                .body("install.typeElements[8].bindings[0].serviceElementId", nullValue())
+                .body("install.typeElements[8].developerName", equalTo("country - region"))
+                .body("install.typeElements[8].developerSummary", equalTo(""))
+                .body("install.typeElements[8].elementType", equalTo("TYPE"))
+                .body("install.typeElements[8].id", nullValue())
+                .body("install.typeElements[8].properties", hasSize(1))
+                .body("install.typeElements[8].properties[0].contentFormat", nullValue())
+                .body("install.typeElements[8].properties[0].contentType", equalTo("ContentString"))
+                .body("install.typeElements[8].properties[0].developerName", equalTo("name_2"))
+                .body("install.typeElements[8].properties[0].id", nullValue())
+                .body("install.typeElements[8].properties[0].typeElementDeveloperName", nullValue())
+                .body("install.typeElements[8].properties[0].typeElementId", nullValue())
+                .body("install.typeElements[8].serviceElementId", nullValue())
+                .body("install.typeElements[8].updateByName", equalTo(false));
+
+        // The history of a golden record is a type of its own, so the model's type doesn't change
+        response
+                .body("install.typeElements[9].developerName", equalTo("country Golden Record History"))
+                .body("install.typeElements[9].properties", hasSize(10))
+                .body("install.typeElements[9].properties[3].developerName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[9].properties[5].contentType", equalTo("ContentNumber"))
+                .body("install.typeElements[9].properties[5].developerName", equalTo("Golden Record History: Version"))
+                .body("install.typeElements[9].properties[6].contentType", equalTo("ContentDateTime"))
+                .body("install.typeElements[9].properties[6].developerName", equalTo("Golden Record History: Start Date"))
+                .body("install.typeElements[9].properties[7].developerName", equalTo("Golden Record History: End Date"))
+                .body("install.typeElements[9].properties[8].developerName", equalTo("Golden Record History: End Date Source"))
+                .body("install.typeElements[9].properties[9].developerName", equalTo("Golden Record History: Transaction ID"))
+                .body("install.typeElements[9].bindings", hasSize(1))
+                .body("install.typeElements[9].bindings[0].databaseTableName", equalTo("168963b5-e8f3-4069-8077-d1738948422b-golden-record-history"))
+                .body("install.typeElements[9].bindings[0].developerName", equalTo("country Golden Record History"))
+                .body("install.typeElements[9].bindings[0].developerSummary", equalTo("The structure of a version of a golden record for the country universe"))
+                .body("install.typeElements[9].bindings[0].propertyBindings", hasSize(10))
+                .body("install.typeElements[9].bindings[0].propertyBindings[3].databaseFieldName", equalTo("___recordId"))
+                .body("install.typeElements[9].bindings[0].propertyBindings[3].typeElementPropertyDeveloperName", equalTo("Golden Record: Record ID"))
+                .body("install.typeElements[9].bindings[0].propertyBindings[5].databaseFieldName", equalTo("___version"))
+                .body("install.typeElements[9].bindings[0].propertyBindings[5].typeElementPropertyDeveloperName", equalTo("Golden Record History: Version"));
 
         response
                 .body("providesAutoBinding", equalTo(false))
@@ -0,0 +1,96 @@
+package com.boomi.flow.services.boomi.mdh;
+
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordHistoryResponseReader;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistory;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordHistoryResponse;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GoldenRecordHistoryResponseReaderTests {
+    @Test
+    public void testReaderMatchesJaxbForGoldenRecordHistoryResponses() throws IOException {
+        assertReaderMatchesJaxb(Resources.toString(Resources.getResource("testXmlMapperDeserializesGoldenRecordHistoryResponse.xml"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReaderMatchesJaxbForRepeatableFieldGroups() throws IOException {
+        assertReaderMatchesJaxb(Resources.toString(Resources.getResource("testXmlMapperDeserializesGoldenRecordHistoryResponseRepeatables.xml"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReaderReadsNestedFieldGroups() throws IOException {
+        GoldenRecordHistoryResponse response = read(Resources.toString(Resources.getResource("testXmlMapperDeserializesGoldenRecordHistoryResponseRepeatables.xml"), StandardCharsets.UTF_8));
+
+        assertThat(response.getOffsetToken(), equalTo("Mg=="));
+        assertThat(response.getRecords(), hasSize(2));
+
+        GoldenRecordHistory first = response.getRecords().get(0);
+        assertThat(first.getVersion(), equalTo(1L));
+        assertThat(first.getStartDate(), equalTo(OffsetDateTime.parse("2020-01-27T14:17:00Z")));
+        assertThat(first.getEndDate(), equalTo(OffsetDateTime.parse("2020-01-28T09:00:00-05:00")));
+        assertThat(first.getFields().keySet(), contains("id", "single_value", "billing_address_collection_wrapper", "other_single_value", "nest2contact"));
+        assertThat(first.getFields().get("billing_address_collection_wrapper"), equalTo(Arrays.asList(
+                ImmutableMap.of("billing_address_rename", ImmutableMap.of("billing_address_street", "street 2-1")),
+                ImmutableMap.of("billing_address_rename", ImmutableMap.of("billing_address_street", "street 2-2"))
+        )));
+        assertThat(first.getFields().get("nest2contact"), equalTo(ImmutableMap.of(
+                "nest2_contact_name", "contatc name 2",
+                "nest2_contact_phone", "contact phone 2"
+        )));
+
+        // Empty fields are left out, like the fields of a golden record are
+        GoldenRecordHistory second = response.getRecords().get(1);
+        assertThat(second.getEndDate(), nullValue());
+        assertThat(second.getFields().keySet(), contains("id", "single_value", "nest2contact"));
+    }
+
+    @Test
+    public void testReaderReturnsNoRecordsForAnEmptyResponse() {
+        GoldenRecordHistoryResponse response = read("<RecordHistoryResponse resultCount=\"0\" totalCount=\"0\"/>");
+
+        assertThat(response.getResultCount(), equalTo(0));
+        assertThat(response.getOffsetToken(), nullValue());
+        assertThat(response.getRecords(), nullValue());
+    }
+
+    private static GoldenRecordHistoryResponse read(String xml) {
+        return GoldenRecordHistoryResponseReader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertReaderMatchesJaxb(String xml) {
+        GoldenRecordHistoryResponse expected = JAXB.unmarshal(new StringReader(xml), GoldenRecordHistoryResponse.class);
+        GoldenRecordHistoryResponse actual = read(xml);
+
+        assertThat(actual.getResultCount(), equalTo(expected.getResultCount()));
+        assertThat(actual.getTotalCount(), equalTo(expected.getTotalCount()));
+        assertThat(actual.getGrid(), equalTo(expected.getGrid()));
+        assertThat(actual.getOffsetToken(), equalTo(expected.getOffsetToken()));
+        assertThat(actual.getRecords(), hasSize(expected.getRecords().size()));
+
+        for (int i = 0; i < expected.getRecords().size(); i++) {
+            GoldenRecordHistory expectedRecord = expected.getRecords().get(i);
+            GoldenRecordHistory actualRecord = actual.getRecords().get(i);
+
+            assertThat(actualRecord.getGrid(), equalTo(expectedRecord.getGrid()));
+            assertThat(actualRecord.getSource(), equalTo(expectedRecord.getSource()));
+            assertThat(actualRecord.getVersion(), equalTo(expectedRecord.getVersion()));
+            assertThat(actualRecord.getStartDate(), equalTo(expectedRecord.getStartDate()));
+            assertThat(actualRecord.getEndDate(), equalTo(expectedRecord.getEndDate()));
+            assertThat(actualRecord.getEndDateSource(), equalTo(expectedRecord.getEndDateSource()));
+            assertThat(actualRecord.getTransactionId(), equalTo(expectedRecord.getTransactionId()));
+            assertThat(actualRecord.getFields(), equalTo(expectedRecord.getFields()));
+        }
+    }
+}
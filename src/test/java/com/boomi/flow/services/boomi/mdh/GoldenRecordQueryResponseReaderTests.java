@@ -0,0 +1,135 @@
+package com.boomi.flow.services.boomi.mdh;
+
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordQueryResponseReader;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GoldenRecordQueryResponseReaderTests {
+    @Test
+    public void testReaderMatchesJaxbForGoldenRecordQueryResponses() throws IOException {
+        assertReaderMatchesJaxb(Resources.toString(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReaderMatchesJaxbForRepeatableFieldGroups() throws IOException {
+        assertReaderMatchesJaxb(Resources.toString(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponsesRepeatables.xml"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReaderMatchesJaxbForWhitespaceAndMixedContent() {
+        String xml = "<RecordQueryResponse resultCount=\"1\" totalCount=\"5\" offsetToken=\"MQ==\">\n" +
+                "    <Record recordId=\"1\" createdDate=\"2020-01-27T14:17:00Z\" updatedDate=\"not a date\">\n" +
+                "        <Fields>\n" +
+                "            <account>\n" +
+                "                <spaced>  spaced  </spaced>\n" +
+                "                <blank>   </blank>\n" +
+                "                <empty/>\n" +
+                "                <commented>x<!-- a comment -->y</commented>\n" +
+                "                <cdata><![CDATA[some <data>]]></cdata>\n" +
+                "                <mixed>text<child>1</child></mixed>\n" +
+                "                <trailing><child>1</child> tail</trailing>\n" +
+                "                <entities>a &amp; b</entities>\n" +
+                "                <empty_group><nothing/></empty_group>\n" +
+                "                <list>\n" +
+                "                    <item><name>one</name><nested><value>1</value></nested></item>\n" +
+                "                    <item><name>two</name></item>\n" +
+                "                    <item/>\n" +
+                "                </list>\n" +
+                "            </account>\n" +
+                "        </Fields>\n" +
+                "        <links/>\n" +
+                "    </Record>\n" +
+                "    <Record recordId=\"2\"/>\n" +
+                "</RecordQueryResponse>";
+
+        assertReaderMatchesJaxb(xml);
+    }
+
+    @Test
+    public void testReaderReturnsNoRecordsForAnEmptyResponse() {
+        GoldenRecordQueryResponse response = read("<RecordQueryResponse resultCount=\"0\" totalCount=\"0\"/>");
+
+        assertThat(response.getResultCount(), equalTo(0));
+        assertThat(response.getRecords(), nullValue());
+    }
+
+    private static GoldenRecordQueryResponse read(String xml) {
+        return GoldenRecordQueryResponseReader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertReaderMatchesJaxb(String xml) {
+        GoldenRecordQueryResponse expected = JAXB.unmarshal(new StringReader(xml), GoldenRecordQueryResponse.class);
+        GoldenRecordQueryResponse actual = read(xml);
+
+        assertThat(actual.getResultCount(), equalTo(expected.getResultCount()));
+        assertThat(actual.getTotalCount(), equalTo(expected.getTotalCount()));
+        assertThat(actual.getOffsetToken(), equalTo(expected.getOffsetToken()));
+        assertThat(actual.getRecords(), hasSize(expected.getRecords().size()));
+
+        for (int i = 0; i < expected.getRecords().size(); i++) {
+            GoldenRecord expectedRecord = expected.getRecords().get(i);
+            GoldenRecord actualRecord = actual.getRecords().get(i);
+
+            assertThat(actualRecord.getRecordId(), equalTo(expectedRecord.getRecordId()));
+            assertThat(actualRecord.getCreatedDate(), equalTo(expectedRecord.getCreatedDate()));
+            assertThat(actualRecord.getUpdatedDate(), equalTo(expectedRecord.getUpdatedDate()));
+            assertThat(actualRecord.getLinks(), hasSize(expectedRecord.getLinks().size()));
+
+            for (int j = 0; j < expectedRecord.getLinks().size(); j++) {
+                assertThat(actualRecord.getLinks().get(j).getSource(), equalTo(expectedRecord.getLinks().get(j).getSource()));
+                assertThat(actualRecord.getLinks().get(j).getEntityId(), equalTo(expectedRecord.getLinks().get(j).getEntityId()));
+                assertThat(actualRecord.getLinks().get(j).getEstablishedDate(), equalTo(expectedRecord.getLinks().get(j).getEstablishedDate()));
+            }
+
+            assertObjectsMatch(actualRecord.getMObject(), expectedRecord.getMObject());
+        }
+    }
+
+    private static void assertObjectsMatch(MObject actual, MObject expected) {
+        if (expected == null) {
+            assertThat(actual, nullValue());
+            return;
+        }
+
+        // The external IDs of nested objects are random, so they're the only thing we don't compare
+        assertThat(actual.getDeveloperName(), equalTo(expected.getDeveloperName()));
+        assertThat(actual.getTypeElementBindingDeveloperName(), equalTo(expected.getTypeElementBindingDeveloperName()));
+        assertThat(actual.getProperties(), hasSize(expected.getProperties().size()));
+
+        for (int i = 0; i < expected.getProperties().size(); i++) {
+            Property expectedProperty = expected.getProperties().get(i);
+            Property actualProperty = actual.getProperties().get(i);
+
+            assertThat(actualProperty.getDeveloperName(), equalTo(expectedProperty.getDeveloperName()));
+            assertThat(actualProperty.getContentType(), equalTo(expectedProperty.getContentType()));
+            assertThat(actualProperty.getContentValue(), equalTo(expectedProperty.getContentValue()));
+
+            List<MObject> expectedObjects = expectedProperty.getObjectData();
+            List<MObject> actualObjects = actualProperty.getObjectData();
+            if (expectedObjects == null) {
+                assertThat(actualObjects, nullValue());
+                continue;
+            }
+
+            assertThat(actualObjects, hasSize(expectedObjects.size()));
+
+            for (int j = 0; j < expectedObjects.size(); j++) {
+                assertObjectsMatch(actualObjects.get(j), expectedObjects.get(j));
+            }
+        }
+    }
+}
@@ -1,8 +1,76 @@
 package com.boomi.flow.services.boomi.mdh;
 
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
+import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
 public class TestConstants {
+    public static final String UNIVERSE_ID = "12fa66f9-e14d-f642-878f-030b13b64731";
+
     public static final ApplicationConfiguration CONFIGURATION = new ApplicationConfiguration()
             .setHubHostname("atom.example.com")
             .setHubUsername("username")
             .setHubToken("password");
+
+    /**
+     * Creates the database the same way as the service does, with one universe cache shared by all the repositories
+     */
+    public static MdhRawDatabase createDatabase(MdhClient client) {
+        UniverseCache universeCache = new UniverseCache(client);
+
+        return new MdhRawDatabase(new QuarantineRepository(client, universeCache), new GoldenRecordRepository(client, universeCache), new MatchEntityRepository(client, universeCache));
+    }
+
+    /**
+     * A universe whose model has a single string field, called "name"
+     */
+    public static Universe createUniverse(UUID id, String name, UUID version) {
+        Universe.Layout.Model.Element element = new Universe.Layout.Model.Element();
+        element.setName("name");
+        element.setUniqueId("NAME");
+        element.setType("STRING");
+
+        return new Universe()
+                .setId(id)
+                .setName(name)
+                .setVersion(version)
+                .setLayout(new Universe.Layout()
+                        .setIdXPath("/item/id")
+                        .setModel(new Universe.Layout.Model()
+                                .setName(name)
+                                .setElements(Collections.singletonList(element))));
+    }
+
+    /**
+     * The universe with the ID in UNIVERSE_ID, with a model called "testing"
+     */
+    public static Universe createUniverse() {
+        return createUniverse(UUID.fromString(UNIVERSE_ID), "testing", null);
+    }
+
+    /**
+     * A mock client that finds the universe from {@link #createUniverse()}, whether it's asked for with or without
+     * blocking
+     */
+    public static MdhClient createClient() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.findUniverse(any(), any(), any(), any()))
+                .thenAnswer(invocation -> createUniverse());
+
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(createUniverse()));
+
+        return client;
+    }
 }
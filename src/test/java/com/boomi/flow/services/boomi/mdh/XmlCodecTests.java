@@ -0,0 +1,85 @@
+package com.boomi.flow.services.boomi.mdh;
+
+import com.boomi.flow.services.boomi.mdh.client.MdhError;
+import com.boomi.flow.services.boomi.mdh.client.XmlCodec;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.google.common.io.Resources;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class XmlCodecTests {
+    @Test
+    public void testCodecIsCreatedOncePerType() {
+        assertThat(XmlCodec.forType(Universe.class), sameInstance(XmlCodec.forType(Universe.class)));
+    }
+
+    @Test
+    public void testCodecSerializesLikeJaxb() {
+        BatchUpdateRequest request = new BatchUpdateRequest()
+                .setSource("SF")
+                .setEntities(Collections.singletonList(new BatchUpdateRequest.Entity()
+                        .setName("contact")
+                        .setOp("CREATE")
+                        .setFields(new HashMap<String, Object>() {{
+                            put("id", 1);
+                            put("name", "bob");
+                        }})));
+
+        StringWriter expected = new StringWriter();
+        JAXB.marshal(request, expected);
+
+        // Serialize more than once, so we make sure pooled marshallers behave the same as new ones
+        for (int i = 0; i < 3; i++) {
+            StringWriter actual = new StringWriter();
+            XmlCodec.forObject(request).write(request, actual);
+
+            assertThat(actual.toString(), equalTo(expected.toString()));
+        }
+    }
+
+    @Test
+    public void testCodecSerializesTypesWithoutRootElementsLikeJaxb() {
+        QuarantineQueryRequest.Filter filter = new QuarantineQueryRequest.Filter()
+                .setSourceId("a source id");
+
+        StringWriter expected = new StringWriter();
+        JAXB.marshal(filter, expected);
+
+        StringWriter actual = new StringWriter();
+        XmlCodec.forType(QuarantineQueryRequest.Filter.class).write(filter, actual);
+
+        assertThat(actual.toString(), equalTo(expected.toString()));
+    }
+
+    @Test
+    public void testCodecDeserializesTypesWithoutRootElements() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            try (InputStream stream = Resources.getResource("mocks/universe.xml").openStream()) {
+                Universe universe = XmlCodec.forType(Universe.class).read(stream);
+
+                assertThat(universe.getName(), equalTo("person"));
+                assertThat(universe.getLayout().getModel().getElements(), not(empty()));
+            }
+        }
+    }
+
+    @Test
+    public void testCodecDeserializesErrors() {
+        MdhError error = XmlCodec.forType(MdhError.class)
+                .read(new StringReader("<error><message>Something went wrong</message></error>"));
+
+        assertThat(error.getMessage(), equalTo("Something went wrong"));
+    }
+}
@@ -0,0 +1,322 @@
+package com.boomi.flow.services.boomi.mdh.load;
+
+import com.boomi.flow.services.boomi.mdh.Application;
+import com.boomi.flow.services.boomi.mdh.ApplicationModule;
+import com.boomi.flow.services.boomi.mdh.client.HttpClientProvider;
+import com.boomi.flow.services.boomi.mdh.utilities.Settings;
+import com.google.common.base.Splitter;
+import com.google.inject.AbstractModule;
+import com.manywho.sdk.services.servers.EmbeddedServer;
+import com.manywho.sdk.services.servers.undertow.UndertowServer;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the service in-process, in front of a {@link StubHub}, and drives it with concurrent Flow data requests to
+ * give a reproducible capacity baseline. After a warmup, it reports the throughput and latency percentiles of each kind
+ * of request. It's run with:
+ *
+ *     mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.boomi.flow.services.boomi.mdh.load.LoadHarness
+ *
+ * and is configured with the mdh.load.* settings, as system properties or environment variables.
+ */
+public class LoadHarness {
+    private final static Logger LOGGER = LoggerFactory.getLogger(LoadHarness.class);
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    enum Scenario {
+        GOLDEN_RECORDS("golden-records", "-golden-record"),
+        QUARANTINE("quarantine", "-quarantine"),
+        MATCH("match", "-match");
+
+        private final String name;
+        private final String typeSuffix;
+
+        Scenario(String name, String typeSuffix) {
+            this.name = name;
+            this.typeSuffix = typeSuffix;
+        }
+
+        static Scenario fromName(String name) {
+            return Arrays.stream(values())
+                    .filter(scenario -> scenario.name.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("An unknown load scenario of " + name + " was given"));
+        }
+
+        String createRequest() {
+            JSONObject request = new JSONObject()
+                    .put("configurationValues", new JSONArray()
+                            .put(createValue("Hub Hostname", "ContentString", "hub.example.com"))
+                            .put(createValue("Hub Username", "ContentString", "username"))
+                            .put(createValue("Hub Token", "ContentPassword", "password")))
+                    .put("objectDataType", new JSONObject()
+                            .put("developerName", StubHub.UNIVERSE_ID + typeSuffix)
+                            .put("properties", new JSONArray()))
+                    .put("listFilter", new JSONObject()
+                            .put("limit", 20));
+
+            if (this == MATCH) {
+                request.put("objectData", new JSONArray()
+                        .put(new JSONObject()
+                                .put("developerName", StubHub.UNIVERSE_ID + typeSuffix)
+                                .put("properties", new JSONArray()
+                                        .put(createValue("___sourceId", "ContentString", "flow"))
+                                        .put(createValue("FIRST_NAME", "ContentString", "Ada"))
+                                        .put(createValue("LAST_NAME", "ContentString", "Lovelace"))
+                                        .put(createValue("CITY", "ContentString", "Berwyn")))));
+            }
+
+            return request.toString();
+        }
+
+        private static JSONObject createValue(String developerName, String contentType, String contentValue) {
+            return new JSONObject()
+                    .put("developerName", developerName)
+                    .put("contentType", contentType)
+                    .put("contentValue", contentValue);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Settings.getInt("mdh.load.concurrency", 16);
+        long warmup = Settings.getLong("mdh.load.warmup", 10);
+        long duration = Settings.getLong("mdh.load.duration", 30);
+        int port = Settings.getInt("mdh.load.port", 10101);
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : Splitter.on(',').trimResults().omitEmptyStrings().split(Settings.getString("mdh.load.scenarios", "golden-records,quarantine,match"))) {
+            scenarios.add(Scenario.fromName(name));
+        }
+
+        try (StubHub hub = new StubHub(Settings.getLong("mdh.load.hub.latency", 50), Settings.getLong("mdh.load.hub.jitter", 20))) {
+            hub.start();
+
+            EmbeddedServer server = startService(hub, port);
+
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(concurrency);
+            dispatcher.setMaxRequestsPerHost(concurrency);
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectionPool(new ConnectionPool(concurrency, 5, TimeUnit.MINUTES))
+                    .readTimeout(60, TimeUnit.SECONDS)
+                    .build();
+
+            try {
+                HttpUrl url = HttpUrl.parse("http://localhost:" + port + "/data");
+
+                LOGGER.info("Warming up with {} concurrent requests for {}s", concurrency, warmup);
+
+                run(client, url, scenarios, concurrency, warmup);
+
+                LOGGER.info("Running {} with {} concurrent requests for {}s", scenarios, concurrency, duration);
+
+                long hubRequests = hub.getRequestCount();
+
+                Map<Scenario, Samples> results = run(client, url, scenarios, concurrency, duration);
+
+                report(results, duration, hub.getRequestCount() - hubRequests);
+            } finally {
+                client.dispatcher().executorService().shutdown();
+                client.connectionPool().evictAll();
+
+                server.stop();
+            }
+        }
+    }
+
+    private static EmbeddedServer startService(StubHub hub, int port) throws Exception {
+        // The service's own HTTP client is used, with its pool and timeouts, but sending its requests to the stub
+        OkHttpClient httpClient = new HttpClientProvider().get().newBuilder()
+                .addInterceptor(hub.createRedirect())
+                .build();
+
+        EmbeddedServer server = new UndertowServer();
+        server.addModule(new ApplicationModule());
+        server.addModule(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(OkHttpClient.class).toInstance(httpClient);
+            }
+        });
+        server.setApplication(Application.class);
+        server.start("/", port);
+
+        return server;
+    }
+
+    /**
+     * Sends requests from the given number of workers until the time is up, with each worker cycling through the
+     * scenarios from a different starting point
+     */
+    private static Map<Scenario, Samples> run(OkHttpClient client, HttpUrl url, List<Scenario> scenarios, int concurrency, long seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        Map<Scenario, String> bodies = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : scenarios) {
+            bodies.put(scenario, scenario.createRequest());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        List<Future<Map<Scenario, Samples>>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            int offset = i;
+
+            workers.add(executor.submit(() -> {
+                Map<Scenario, Samples> samples = new EnumMap<>(Scenario.class);
+
+                for (int request = offset; System.nanoTime() < deadline; request++) {
+                    Scenario scenario = scenarios.get(request % scenarios.size());
+
+                    samples.computeIfAbsent(scenario, key -> new Samples())
+                            .add(send(client, url, scenario, bodies.get(scenario)));
+                }
+
+                return samples;
+            }));
+        }
+
+        Map<Scenario, Samples> results = new EnumMap<>(Scenario.class);
+        try {
+            for (Future<Map<Scenario, Samples>> worker : workers) {
+                worker.get().forEach((scenario, samples) -> results.computeIfAbsent(scenario, key -> new Samples()).addAll(samples));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns how long the request took in nanoseconds, or -1 if it failed
+     */
+    private static long send(OkHttpClient client, HttpUrl url, Scenario scenario, String body) {
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(JSON, body))
+                .build();
+
+        long start = System.nanoTime();
+
+        try (Response response = client.newCall(request).execute()) {
+            String content = response.body() == null ? "" : response.body().string();
+
+            if (response.isSuccessful() == false) {
+                LOGGER.warn("A {} request failed with a {}: {}", scenario.name, response.code(), content);
+
+                return -1;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("A {} request failed", scenario.name, e);
+
+            return -1;
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static void report(Map<Scenario, Samples> results, long seconds, long hubRequests) {
+        LOGGER.info(String.format(Locale.ENGLISH, "%-16s %10s %8s %12s %9s %9s %9s %9s %9s",
+                "Scenario", "Requests", "Errors", "Throughput", "p50", "p90", "p99", "p99.9", "Max"));
+
+        Samples total = new Samples();
+
+        for (Map.Entry<Scenario, Samples> result : results.entrySet()) {
+            log(result.getKey().name, result.getValue(), seconds);
+
+            total.addAll(result.getValue());
+        }
+
+        log("total", total, seconds);
+
+        LOGGER.info("The stub Hub was sent {} requests ({}/s)", hubRequests, String.format(Locale.ENGLISH, "%.1f", hubRequests / (double) seconds));
+    }
+
+    private static void log(String name, Samples samples, long seconds) {
+        long[] latencies = samples.sorted();
+
+        LOGGER.info(String.format(Locale.ENGLISH, "%-16s %10d %8d %10.1f/s %7.1fms %7.1fms %7.1fms %7.1fms %7.1fms",
+                name,
+                latencies.length + samples.errors,
+                samples.errors,
+                latencies.length / (double) seconds,
+                percentile(latencies, 50),
+                percentile(latencies, 90),
+                percentile(latencies, 99),
+                percentile(latencies, 99.9),
+                percentile(latencies, 100)));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000d;
+    }
+
+    /**
+     * The latencies of the successful requests, and a count of the ones that failed
+     */
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private int errors;
+
+        void add(long latency) {
+            if (latency < 0) {
+                errors++;
+                return;
+            }
+
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+
+            latencies[size++] = latency;
+        }
+
+        void addAll(Samples samples) {
+            for (int i = 0; i < samples.size; i++) {
+                add(samples.latencies[i]);
+            }
+
+            errors += samples.errors;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+
+            return sorted;
+        }
+    }
+}
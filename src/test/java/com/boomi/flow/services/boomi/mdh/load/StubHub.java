@@ -0,0 +1,170 @@
+package com.boomi.flow.services.boomi.mdh.load;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for an MDH Hub, which replays recorded responses for the "person" universe after a configurable
+ * latency (plus up to the given amount of random jitter), so the whole service can be driven without a real Atom.
+ *
+ * The service always talks to Hubs over HTTPS, so its HTTP client needs the interceptor from {@link #createRedirect()}
+ * to send its requests here instead.
+ */
+public class StubHub implements Closeable {
+    private final static Logger LOGGER = LoggerFactory.getLogger(StubHub.class);
+
+    public static final String UNIVERSE_ID = "12fa46f9-e14d-4042-878e-30b273b61731";
+
+    private static final Pattern UNIVERSE_PATH = Pattern.compile("^/mdm/universes/([^/]+)(/.*)?$");
+
+    private final long latency;
+    private final long jitter;
+
+    private final byte[] universes = read("load/universes.xml");
+    private final byte[] universe = read("mocks/universe.xml");
+    private final byte[] goldenRecords = read("load/golden-records.xml");
+    private final byte[] quarantineEntries = read("load/quarantine-entries.xml");
+    private final byte[] matchEntities = read("load/match-entities.xml");
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public StubHub(long latency, long jitter) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+
+        LOGGER.info("Started a stub Hub on port {}, with a latency of {}ms (+ up to {}ms)", getPort(), latency, jitter);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Sends every request meant for a Hub to this stub instead, over plain HTTP
+     */
+    public Interceptor createRedirect() {
+        return chain -> {
+            Request request = chain.request();
+
+            HttpUrl url = request.url().newBuilder()
+                    .scheme("http")
+                    .host(server.getAddress().getHostString())
+                    .port(getPort())
+                    .build();
+
+            return chain.proceed(request.newBuilder()
+                    .url(url)
+                    .build());
+        };
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+
+        try (InputStream body = exchange.getRequestBody()) {
+            ByteStreams.exhaust(body);
+        }
+
+        byte[] response = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+
+        try {
+            Thread.sleep(latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (response == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=utf-8");
+        exchange.sendResponseHeaders(200, response.length == 0 ? -1 : response.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+
+    private byte[] route(String method, String path) {
+        if ("GET".equals(method) && "/mdm/universes".equals(path)) {
+            return universes;
+        }
+
+        Matcher matcher = UNIVERSE_PATH.matcher(path);
+        if (matcher.matches() == false || UNIVERSE_ID.equals(matcher.group(1)) == false) {
+            return null;
+        }
+
+        String resource = matcher.group(2) == null ? "" : matcher.group(2);
+
+        if ("GET".equals(method) && resource.isEmpty()) {
+            return universe;
+        }
+
+        if ("POST".equals(method)) {
+            switch (resource) {
+                case "/records/query":
+                    return goldenRecords;
+                case "/quarantine/query":
+                    return quarantineEntries;
+                case "/match":
+                    return matchEntities;
+                case "/records":
+                    return new byte[0];
+            }
+        }
+
+        return null;
+    }
+
+    private static byte[] read(String name) {
+        try {
+            return Resources.toByteArray(Resources.getResource(name));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the recorded response " + name, e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineEntry;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryResponse;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+public class ConcurrentUniverseLookupTest {
+    private static MObject createObject() {
+        List<Property> properties = new ArrayList<>();
+        properties.add(new Property("name", "record"));
+
+        return new MObject("testing", "", properties);
+    }
+
+    /**
+     * Only gives back the universe once the query has been sent, so a repository that waits for the universe before
+     * querying never finishes
+     */
+    private static MdhClient createClient(CountDownLatch queried) {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Assert.assertTrue("The query wasn't sent while the universe was being found", queried.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+
+                    return TestConstants.createUniverse();
+                }));
+
+        return client;
+    }
+
+    @Test
+    public void testGoldenRecordsAreQueriedWhileTheUniverseIsFound() {
+        CountDownLatch queried = new CountDownLatch(1);
+
+        MdhClient client = createClient(queried);
+        when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    queried.countDown();
+
+                    return new GoldenRecordQueryResponse()
+                            .setResultCount(1)
+                            .setRecords(Collections.singletonList(new GoldenRecord()
+                                    .setRecordId(UUID.randomUUID().toString())
+                                    .setMObject(createObject())));
+                });
+
+        List<MObject> objects = new GoldenRecordRepository(client, new UniverseCache(client))
+                .findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, null);
+
+        Assert.assertEquals(1, objects.size());
+        Assert.assertTrue(objects.get(0).getProperties().stream().anyMatch(property -> "record".equals(property.getContentValue())));
+    }
+
+    @Test
+    public void testQuarantineEntriesAreQueriedWhileTheUniverseIsFound() {
+        CountDownLatch queried = new CountDownLatch(1);
+
+        MdhClient client = createClient(queried);
+        when(client.queryQuarantineEntries(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    queried.countDown();
+
+                    return new QuarantineQueryResponse()
+                            .setEntries(Collections.singletonList(new QuarantineEntry()
+                                    .setEntity(createObject())));
+                });
+
+        List<MObject> objects = new QuarantineRepository(client, new UniverseCache(client))
+                .findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, null);
+
+        Assert.assertEquals(1, objects.size());
+    }
+
+    @Test
+    public void testAMissingUniverseIsReportedOverAFailedQuery() {
+        MdhClient client = mock(MdhClient.class);
+
+        CompletableFuture<Universe> missing = new CompletableFuture<>();
+        missing.completeExceptionally(new ServiceProblemException(404, "No universe could be found with the ID " + TestConstants.UNIVERSE_ID));
+
+        when(client.findUniverseAsync(any(), any(), any(), any()))
+                .thenReturn(missing);
+        when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
+                .thenThrow(new ServiceProblemException(500, "Something went wrong loading the golden record objects"));
+
+        try {
+            new GoldenRecordRepository(client, new UniverseCache(client)).findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, null);
+
+            Assert.fail("Expected the load to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(404, e.getStatusCode());
+        }
+    }
+}
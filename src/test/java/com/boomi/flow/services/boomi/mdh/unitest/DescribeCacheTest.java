@@ -0,0 +1,243 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.database.DescribeCache;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseRepository;
+import com.google.common.base.Ticker;
+import com.manywho.sdk.api.draw.elements.type.TypeElement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class DescribeCacheTest {
+    private static final UUID FIRST_ID = UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731");
+    private static final UUID SECOND_ID = UUID.fromString("7d8a8f4e-5c8f-4d2b-9e6a-2b6d1c6c1a10");
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private static Universe createSummary(UUID id, String name, UUID version) {
+        return new Universe()
+                .setId(id)
+                .setName(name)
+                .setVersion(version);
+    }
+
+    private void advance(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static TypeElement findType(List<TypeElement> types, String developerName) {
+        return types.stream()
+                .filter(type -> type.getDeveloperName().equals(developerName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No type named " + developerName));
+    }
+
+    private static List<String> names(List<TypeElement> types) {
+        return types.stream()
+                .map(TypeElement::getDeveloperName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFreshTypesAreReturnedFromTheCache() {
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Collections.singletonList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID())));
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        List<TypeElement> first = cache.describe(TestConstants.CONFIGURATION);
+
+        advance(30);
+
+        List<TypeElement> second = cache.describe(TestConstants.CONFIGURATION);
+
+        Assert.assertEquals(names(first), names(second));
+        verify(repository, times(1)).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void testChangingTheTypesDoesNotChangeTheCachedOnes() {
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Collections.singletonList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID())));
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        List<TypeElement> first = cache.describe(TestConstants.CONFIGURATION);
+        int properties = findType(first, "first").getProperties().size();
+        int propertyBindings = findType(first, "first").getBindings().get(0).getPropertyBindings().size();
+
+        findType(first, "first").getProperties().clear();
+        findType(first, "first").getBindings().get(0).getPropertyBindings().clear();
+        first.clear();
+
+        List<TypeElement> second = cache.describe(TestConstants.CONFIGURATION);
+
+        Assert.assertEquals(properties, findType(second, "first").getProperties().size());
+        Assert.assertEquals(propertyBindings, findType(second, "first").getBindings().get(0).getPropertyBindings().size());
+        verify(repository, times(1)).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void testStaleTypesAreRefreshedInTheBackground() {
+        UUID unchangedVersion = UUID.randomUUID();
+
+        // Universes are listed as summaries, so each one that's built has its layout fetched first
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Arrays.asList(createSummary(FIRST_ID, "first", unchangedVersion), createSummary(SECOND_ID, "second", UUID.randomUUID())))
+                .thenReturn(Arrays.asList(createSummary(FIRST_ID, "first", unchangedVersion), createSummary(SECOND_ID, "second", UUID.randomUUID())));
+        when(repository.find(any(), any(), any(), eq(FIRST_ID.toString())))
+                .thenReturn(TestConstants.createUniverse(FIRST_ID, "first", unchangedVersion));
+        when(repository.find(any(), any(), any(), eq(SECOND_ID.toString())))
+                .thenReturn(TestConstants.createUniverse(SECOND_ID, "second", UUID.randomUUID()));
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        List<TypeElement> original = cache.describe(TestConstants.CONFIGURATION);
+
+        advance(120);
+
+        // The stale types are given back straight away, while they're refreshed
+        List<TypeElement> stale = cache.describe(TestConstants.CONFIGURATION);
+        Assert.assertEquals(names(original), names(stale));
+
+        verify(repository, timeout(5000).times(2)).findAll(any(), any(), any());
+
+        // Only the universe whose version changed is rebuilt
+        verify(repository, timeout(5000).times(2)).find(any(), any(), any(), eq(SECOND_ID.toString()));
+        verify(repository, times(1)).find(any(), any(), any(), eq(FIRST_ID.toString()));
+    }
+
+    @Test
+    public void testTypesOlderThanTheMaximumStalenessAreRebuiltFirst() {
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Collections.singletonList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID())))
+                .thenReturn(Collections.singletonList(TestConstants.createUniverse(SECOND_ID, "second", UUID.randomUUID())));
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        cache.describe(TestConstants.CONFIGURATION);
+
+        advance(7200);
+
+        List<TypeElement> types = cache.describe(TestConstants.CONFIGURATION);
+
+        findType(types, "second");
+        verify(repository, times(2)).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void testConcurrentDescribesShareOneRefresh() throws Exception {
+        CountDownLatch listing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any())).thenAnswer(invocation -> {
+            listing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+
+            return Collections.singletonList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID()));
+        });
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<TypeElement>> first = executor.submit(() -> cache.describe(TestConstants.CONFIGURATION));
+            Assert.assertTrue(listing.await(5, TimeUnit.SECONDS));
+
+            Future<List<TypeElement>> second = executor.submit(() -> cache.describe(TestConstants.CONFIGURATION));
+
+            // Give the second describe time to join the refresh that's already running
+            Thread.sleep(200);
+            release.countDown();
+
+            Assert.assertEquals(names(first.get(5, TimeUnit.SECONDS)), names(second.get(5, TimeUnit.SECONDS)));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(repository, times(1)).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void testTypesAreNotSharedAcrossTokens() {
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Collections.singletonList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID())));
+
+        DescribeCache cache = new DescribeCache(repository, ticker);
+
+        cache.describe(TestConstants.CONFIGURATION);
+        cache.describe(new ApplicationConfiguration()
+                .setHubHostname("atom.example.com")
+                .setHubUsername("username")
+                .setHubToken("another password"));
+
+        verify(repository, times(2)).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void testSummariesAreFetchedBeforeBuildingTheirTypes() {
+        Universe summary = new Universe()
+                .setId(SECOND_ID)
+                .setName("second");
+
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Arrays.asList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID()), summary));
+        when(repository.find(any(), any(), any(), eq(SECOND_ID.toString())))
+                .thenReturn(TestConstants.createUniverse(SECOND_ID, "second", UUID.randomUUID()));
+
+        List<TypeElement> types = new DescribeCache(repository, ticker).describe(TestConstants.CONFIGURATION);
+
+        findType(types, "first");
+        findType(types, "second");
+        verify(repository, times(1)).find(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testAFailingUniverseIsLeftOut() {
+        Universe broken = TestConstants.createUniverse(SECOND_ID, "second", UUID.randomUUID());
+        broken.getLayout().getModel().setElements(null);
+
+        UniverseRepository repository = mock(UniverseRepository.class);
+        when(repository.findAll(any(), any(), any()))
+                .thenReturn(Arrays.asList(TestConstants.createUniverse(FIRST_ID, "first", UUID.randomUUID()), broken, TestConstants.createUniverse(UUID.randomUUID(), "third", UUID.randomUUID())));
+
+        List<TypeElement> types = new DescribeCache(repository, ticker).describe(TestConstants.CONFIGURATION);
+
+        // The types of the other universes are still given back, in the same order as the universes
+        int first = types.indexOf(findType(types, "first"));
+        int third = types.indexOf(findType(types, "third"));
+
+        Assert.assertTrue(first < third);
+        Assert.assertFalse(types.stream().anyMatch(type -> type.getDeveloperName().equals("second")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.universes.ElementIndex;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class ElementIndexTest {
+    private static Universe.Layout.Model.Element createElement(String uniqueId, String name, Universe.Layout.Model.Element... children) {
+        Universe.Layout.Model.Element element = new Universe.Layout.Model.Element();
+        element.setUniqueId(uniqueId);
+        element.setName(name);
+        element.setElements(Arrays.asList(children));
+
+        return element;
+    }
+
+    private static Universe createUniverse(String version, List<Universe.Layout.Model.Element> elements) {
+        return new Universe()
+                .setId(UUID.fromString("12fa66f9-e14d-f642-878f-030b13b64731"))
+                .setVersion(version == null ? null : UUID.fromString(version))
+                .setName("testing")
+                .setLayout(new Universe.Layout()
+                        .setIdXPath("/item/id")
+                        .setModel(new Universe.Layout.Model()
+                                .setName("testing")
+                                .setElements(elements)));
+    }
+
+    @Test
+    public void testNestedElementsAreFoundIgnoringCase() {
+        Universe.Layout.Model.Element street = createElement("STREET", "street");
+        Universe.Layout.Model.Element address = createElement("ADDRESS", "address", street);
+
+        ElementIndex index = ElementIndex.of(createUniverse(null, Arrays.asList(createElement("NAME", "name"), address)));
+
+        Assert.assertSame(street, index.findByName("STREET"));
+        Assert.assertSame(street, index.findByUniqueId("street"));
+        Assert.assertSame(address, index.findByUniqueId("Address"));
+        Assert.assertNull(index.findByName("city"));
+        Assert.assertNull(index.findByName(null));
+    }
+
+    @Test
+    public void testTheFirstElementFoundDepthFirstWins() {
+        Universe.Layout.Model.Element nested = createElement("NESTED_CITY", "city");
+        Universe.Layout.Model.Element sibling = createElement("CITY", "city");
+
+        ElementIndex index = ElementIndex.of(createUniverse(null, Arrays.asList(createElement("ADDRESS", "address", nested), sibling)));
+
+        Assert.assertSame(nested, index.findByName("city"));
+    }
+
+    @Test
+    public void testCollectionsAreFoundByName() {
+        Universe.Layout.Model.Element products = createElement("PRODUCTS", "products", createElement("PRODUCT", "product"));
+        products.setCollectionTag("products_wrapper");
+
+        ElementIndex index = ElementIndex.of(createUniverse(null, Collections.singletonList(products)));
+
+        Assert.assertSame(products, index.findByCollectionTag("products"));
+        Assert.assertNull(index.findByCollectionTag("products_wrapper"));
+    }
+
+    @Test
+    public void testIndexesAreBuiltOncePerUniverseVersion() {
+        List<Universe.Layout.Model.Element> elements = new ArrayList<>();
+        elements.add(createElement("NAME", "name"));
+
+        Universe universe = createUniverse("5e1b0ef8-9a6f-4ba5-9bd4-4a6b2e4b8a11", elements);
+
+        Assert.assertSame(ElementIndex.of(universe), ElementIndex.of(universe));
+
+        // A copy of the same version shares the index, while a new version gets one of its own
+        Assert.assertSame(ElementIndex.of(universe), ElementIndex.of(createUniverse("5e1b0ef8-9a6f-4ba5-9bd4-4a6b2e4b8a11", new ArrayList<>(elements))));
+
+        elements.add(createElement("CITY", "city"));
+
+        Assert.assertNotNull(ElementIndex.of(createUniverse("6f2c1f09-ab70-4cb6-8ce5-5b7c3f5c9b22", elements)).findByName("city"));
+    }
+
+    @Test
+    public void testUniversesWithoutAVersionAreNotKept() {
+        List<Universe.Layout.Model.Element> elements = new ArrayList<>();
+        elements.add(createElement("NAME", "name"));
+
+        Universe universe = createUniverse(null, elements);
+
+        Assert.assertNull(ElementIndex.of(universe).findByName("city"));
+
+        elements.add(createElement("CITY", "city"));
+
+        Assert.assertNotNull(ElementIndex.of(universe).findByName("city"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.google.common.io.Resources;
+import com.google.common.collect.ImmutableMap;
+import com.manywho.sdk.api.ContentType;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class FieldMapperPlanTest {
+    private static final Universe UNIVERSE = JAXB.unmarshal(Resources.getResource("field-map/nested-fieldgroup/universe.xml"), Universe.class);
+    private static final String MODEL_NAME = UNIVERSE.getLayout().getModel().getName();
+
+    private static Property createProperty(String developerName, ContentType contentType) {
+        Property property = new Property(developerName, (String) null);
+        property.setContentType(contentType);
+
+        return property;
+    }
+
+    private static String toHub(String developerName, ContentType contentType) {
+        return FieldMapper.getEntryNameToSendToHubApi(MODEL_NAME, createProperty(developerName, contentType), UNIVERSE);
+    }
+
+    private static String toFlow(String developerName, ContentType contentType) {
+        return FieldMapper.getUniqueIdByPropertyName(MODEL_NAME, createProperty(developerName, contentType), UNIVERSE);
+    }
+
+    @Test
+    public void testPropertiesAreSentToTheHubByNameOrCollectionTag() {
+        Assert.assertEquals("name", toHub("name", ContentType.String));
+        Assert.assertEquals("street", toHub("street", ContentType.String));
+        Assert.assertEquals("contact", toHub(MODEL_NAME + " - contact", ContentType.Object));
+        Assert.assertEquals("products_wrapper", toHub(MODEL_NAME + " - products", ContentType.List));
+    }
+
+    @Test
+    public void testHubFieldsAreGivenToFlowByUniqueId() {
+        Assert.assertEquals("street", toFlow("street", ContentType.String));
+        Assert.assertEquals("address", toFlow(MODEL_NAME + " - address", ContentType.String));
+        Assert.assertEquals("contact", toFlow(MODEL_NAME + " - contact", ContentType.Object));
+        Assert.assertEquals("products", toFlow(MODEL_NAME + " - products", ContentType.List));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCollectionsFromTheHubAreNotFoundByTheirCollectionTag() {
+        // The Hub names a collection in a record after the group in it, so a collection tag here isn't one of ours
+        toFlow(MODEL_NAME + " - products_wrapper", ContentType.List);
+    }
+
+    @Test
+    public void testNamesInADifferentCaseAreStillFound() {
+        Assert.assertEquals("street", toHub("STREET", ContentType.String));
+        Assert.assertEquals("contact", toHub(MODEL_NAME + " - CONTACT", ContentType.Object));
+        Assert.assertEquals("street", toFlow("Street", ContentType.String));
+        Assert.assertEquals("contact", toFlow(MODEL_NAME + " - Contact", ContentType.Object));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownFieldsFromTheHubAreRejected() {
+        toFlow("unknown", ContentType.String);
+    }
+
+    @Test
+    public void testHubFieldsAreFoundInTheGroupTheyAreIn() {
+        MObject contact = new MObject(MODEL_NAME + " - contact", Collections.singletonList(new Property("name", "Joe Doe")));
+
+        MObject record = new MObject("record", Arrays.asList(
+                new Property("name", "Joe"),
+                new Property(MODEL_NAME + " - contact", contact, ContentType.Object)
+        ));
+
+        FieldMapper.renameMobjectPropertiesToUseUniqueId(UNIVERSE, record);
+
+        // Both fields are called "name" in the Hub, but the one in the contact group has its own unique ID
+        Assert.assertEquals("name", record.getProperties().get(0).getDeveloperName());
+        Assert.assertEquals(MODEL_NAME + " - contact", record.getProperties().get(1).getDeveloperName());
+        Assert.assertEquals("name_1", contact.getProperties().get(0).getDeveloperName());
+    }
+
+    @Test
+    public void testFlowPropertiesAreFoundInTheGroupTheyAreIn() {
+        MObject product = new MObject(MODEL_NAME + " - product", Collections.singletonList(new Property("productname", "Widget", ContentType.String)));
+        MObject products = new MObject(MODEL_NAME + " - products", Collections.singletonList(new Property(MODEL_NAME + " - product", product, ContentType.Object)));
+        MObject contact = new MObject(MODEL_NAME + " - contact", Collections.singletonList(new Property("name_1", "Joe Doe", ContentType.String)));
+
+        MObject record = new MObject("record", Arrays.asList(
+                new Property("name", "Joe", ContentType.String),
+                new Property(MODEL_NAME + " - contact", contact, ContentType.Object),
+                new Property(MODEL_NAME + " - products", Collections.singletonList(products), ContentType.List)
+        ));
+
+        Map<String, Object> fields = FieldMapper.createMapFromModelMobject(UNIVERSE.getName(), record, UNIVERSE);
+
+        Assert.assertEquals("Joe", fields.get("name"));
+        Assert.assertEquals(ImmutableMap.of("name", "Joe Doe"), fields.get("contact"));
+        Assert.assertEquals(
+                Collections.singletonList(ImmutableMap.of("products", ImmutableMap.of("product", ImmutableMap.of("productname", "Widget")))),
+                fields.get("products_wrapper")
+        );
+    }
+}
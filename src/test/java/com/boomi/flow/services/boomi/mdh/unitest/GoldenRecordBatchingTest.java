@@ -0,0 +1,161 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class GoldenRecordBatchingTest {
+    @After
+    public void after() {
+        System.clearProperty("mdh.records.batch.size");
+        System.clearProperty("mdh.records.batch.bytes");
+        System.clearProperty("mdh.hub.concurrency");
+    }
+
+    private static List<MObject> createObjects(int count, String sourceId) {
+        List<MObject> objects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Property> properties = new ArrayList<>();
+            properties.add(new Property("NAME", "record " + i));
+            properties.add(new Property(GoldenRecordConstants.SOURCE_ID_FIELD, sourceId));
+
+            objects.add(new MObject(TestConstants.UNIVERSE_ID + "-golden-record", "", properties));
+        }
+
+        return objects;
+    }
+
+    private static List<Integer> captureBatchSizes(MdhClient client, int times) {
+        ArgumentCaptor<BatchUpdateRequest> captor = ArgumentCaptor.forClass(BatchUpdateRequest.class);
+        verify(client, times(times)).updateGoldenRecords(any(), any(), any(), any(), captor.capture());
+
+        return captor.getAllValues().stream()
+                .map(request -> request.getEntities().size())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLargeSavesAreSplitIntoBatches() {
+        MdhClient client = TestConstants.createClient();
+
+        new GoldenRecordRepository(client, new UniverseCache(client))
+                .update(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects(450, "flow"));
+
+        Assert.assertEquals(Arrays.asList(50, 200, 200), captureBatchSizes(client, 3));
+    }
+
+    @Test
+    public void testBatchesAreSplitByBytes() {
+        System.setProperty("mdh.records.batch.bytes", "1");
+
+        MdhClient client = TestConstants.createClient();
+
+        new GoldenRecordRepository(client, new UniverseCache(client))
+                .update(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects(3, "flow"));
+
+        // Every record is bigger than the limit, so each one is sent on its own
+        Assert.assertEquals(Arrays.asList(1, 1, 1), captureBatchSizes(client, 3));
+    }
+
+    @Test
+    public void testBatchesAreNotMixedAcrossSources() {
+        System.setProperty("mdh.records.batch.size", "2");
+
+        MdhClient client = TestConstants.createClient();
+
+        List<MObject> objects = createObjects(3, "flow");
+        objects.addAll(createObjects(1, "salesforce"));
+
+        new GoldenRecordRepository(client, new UniverseCache(client))
+                .update(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, objects);
+
+        ArgumentCaptor<BatchUpdateRequest> captor = ArgumentCaptor.forClass(BatchUpdateRequest.class);
+        verify(client, times(3)).updateGoldenRecords(any(), any(), any(), any(), captor.capture());
+
+        for (BatchUpdateRequest request : captor.getAllValues()) {
+            Assert.assertTrue(request.getEntities().size() <= 2);
+        }
+
+        Assert.assertEquals(1, captor.getAllValues().stream().filter(request -> request.getSource().equals("salesforce")).count());
+    }
+
+    @Test
+    public void testFailedBatchesAreReportedTogether() {
+        System.setProperty("mdh.records.batch.size", "1");
+
+        MdhClient client = TestConstants.createClient();
+
+        doNothing()
+                .doThrow(new ServiceProblemException(400, "Bad record"))
+                .doNothing()
+                .when(client).updateGoldenRecords(any(), any(), any(), any(), any());
+
+        try {
+            new GoldenRecordRepository(client, new UniverseCache(client))
+                    .update(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects(3, "flow"));
+
+            Assert.fail("Expected the save to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(400, e.getStatusCode());
+            Assert.assertTrue(e.getMessage().contains("1 of 3 requests failed"));
+            Assert.assertTrue(e.getMessage().contains("Bad record"));
+        }
+
+        // Every batch is still sent, even when one of them fails
+        verify(client, times(3)).updateGoldenRecords(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testBatchesAreSentWithinTheHubLimit() {
+        System.setProperty("mdh.records.batch.size", "1");
+        System.setProperty("mdh.hub.concurrency", "2");
+
+        // The limit is per Hub, so this test has a Hub of its own
+        ApplicationConfiguration configuration = new ApplicationConfiguration()
+                .setHubHostname("limited.example.com")
+                .setHubUsername("username")
+                .setHubToken("password");
+
+        MdhClient client = TestConstants.createClient();
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+            Thread.sleep(20);
+
+            running.decrementAndGet();
+
+            return null;
+        }).when(client).updateGoldenRecords(any(), any(), any(), any(), any());
+
+        new GoldenRecordRepository(client, new UniverseCache(client))
+                .update(configuration, TestConstants.UNIVERSE_ID, createObjects(10, "flow"));
+
+        verify(client, times(10)).updateGoldenRecords(any(), any(), any(), any(), any());
+
+        Assert.assertTrue(mostRunning.get() <= 2);
+    }
+}
@@ -0,0 +1,230 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.GoldenRecordNdjsonWriter;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.controllers.ExportController;
+import com.boomi.flow.services.boomi.mdh.load.StubHub;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import okhttp3.OkHttpClient;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class GoldenRecordExportTest {
+    @Test
+    public void testRecordsAreWrittenOnePerLineWithTheirFieldsNested() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        GoldenRecordQueryResponse response;
+        try (InputStream stream = Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponsesRepeatables.xml").openStream();
+             JsonGenerator generator = new JsonFactory().setRootValueSeparator(null).createGenerator(output)) {
+            response = GoldenRecordNdjsonWriter.write(stream, generator);
+        }
+
+        Assert.assertEquals(1, (int) response.getResultCount());
+        Assert.assertEquals(2, (int) response.getTotalCount());
+        Assert.assertNull(response.getRecords());
+
+        String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assert.assertEquals(1, lines.length);
+
+        JSONObject record = new JSONObject(lines[0]);
+        Assert.assertEquals("9799d1e7-e3da-4c90-9853-68be3cdfdca4", record.getString("recordId"));
+        Assert.assertEquals("2020-01-27T14:17Z", record.getString("createdDate"));
+
+        JSONObject fields = record.getJSONObject("fields");
+        Assert.assertEquals("single value 2-1", fields.getString("single_value"));
+        Assert.assertEquals("other single value 2", fields.getString("other_single_value"));
+        Assert.assertEquals("contact phone 2", fields.getJSONObject("nest2contact").getString("nest2_contact_phone"));
+
+        JSONArray addresses = fields.getJSONArray("billing_address_collection_wrapper");
+        Assert.assertEquals(2, addresses.length());
+        Assert.assertEquals("street 2-2", addresses.getJSONObject(1).getString("billing_address_street"));
+
+        JSONArray links = record.getJSONArray("links");
+        Assert.assertEquals(1, links.length());
+        Assert.assertEquals("flow", links.getJSONObject(0).getString("source"));
+        Assert.assertEquals("2", links.getJSONObject(0).getString("entityId"));
+    }
+
+    @Test
+    public void testEveryPageIsExportedByFollowingTheOffsetTokens() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.exportGoldenRecords(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    GoldenRecordQueryRequest request = invocation.getArgument(4);
+                    JsonGenerator generator = invocation.getArgument(5);
+
+                    int page = request.getOffsetToken() == null ? 0 : Integer.parseInt(request.getOffsetToken());
+                    int size = page < 2 ? 200 : 50;
+
+                    for (int i = 0; i < size; i++) {
+                        generator.writeStartObject();
+                        generator.writeStringField("recordId", page + "-" + i);
+                        generator.writeEndObject();
+                    }
+
+                    return new GoldenRecordQueryResponse()
+                            .setResultCount(size)
+                            .setOffsetToken(page < 2 ? String.valueOf(page + 1) : "3");
+                });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = new GoldenRecordRepository(client, new UniverseCache(client))
+                .export(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, output);
+
+        Assert.assertEquals(450, exported);
+
+        String exportedLines = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(exportedLines.endsWith("}\n"));
+
+        String[] lines = exportedLines.split("\n");
+        Assert.assertEquals(450, lines.length);
+        Assert.assertEquals("0-0", new JSONObject(lines[0]).getString("recordId"));
+        Assert.assertEquals("2-49", new JSONObject(lines[449]).getString("recordId"));
+
+        // The last page wasn't full, so its offset token isn't followed
+        ArgumentCaptor<GoldenRecordQueryRequest> captor = ArgumentCaptor.forClass(GoldenRecordQueryRequest.class);
+        verify(client, times(3)).exportGoldenRecords(any(), any(), any(), any(), captor.capture(), any());
+
+        List<GoldenRecordQueryRequest> requests = captor.getAllValues();
+        Assert.assertNull(requests.get(0).getOffsetToken());
+        Assert.assertEquals("1", requests.get(1).getOffsetToken());
+        Assert.assertEquals("2", requests.get(2).getOffsetToken());
+
+        for (GoldenRecordQueryRequest request : requests) {
+            Assert.assertEquals(200, (int) request.getLimit());
+        }
+    }
+
+    @Test
+    public void testAnExportThatFailsBetweenPagesDoesntEndWithANewline() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.exportGoldenRecords(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    GoldenRecordQueryRequest request = invocation.getArgument(4);
+                    JsonGenerator generator = invocation.getArgument(5);
+
+                    if (request.getOffsetToken() != null) {
+                        throw new ServiceProblemException(503, "The Hub is unavailable");
+                    }
+
+                    for (int i = 0; i < 200; i++) {
+                        generator.writeStartObject();
+                        generator.writeStringField("recordId", "0-" + i);
+                        generator.writeEndObject();
+                    }
+
+                    return new GoldenRecordQueryResponse()
+                            .setResultCount(200)
+                            .setOffsetToken("1");
+                });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertProblem(503, () -> new GoldenRecordRepository(client, new UniverseCache(client)).export(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, output));
+
+        String exported = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertFalse(exported.endsWith("\n"));
+        Assert.assertEquals(200, exported.split("\n").length);
+    }
+
+    @Test
+    public void testARecordCutShortIsLeftUnfinished() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.exportGoldenRecords(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    JsonGenerator generator = invocation.getArgument(5);
+
+                    generator.writeStartObject();
+                    generator.writeStringField("recordId", "0-0");
+                    generator.writeEndObject();
+
+                    generator.writeStartObject();
+                    generator.writeStringField("recordId", "0-1");
+                    generator.writeFieldName("fields");
+                    generator.writeStartObject();
+
+                    throw new ServiceProblemException(502, "The connection to the Hub was lost");
+                });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertProblem(502, () -> new GoldenRecordRepository(client, new UniverseCache(client)).export(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, output));
+
+        Assert.assertEquals("{\"recordId\":\"0-0\"}\n{\"recordId\":\"0-1\",\"fields\":{", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTheEndpointStreamsTheUniverseFromTheHub() throws IOException {
+        try (StubHub hub = new StubHub(0, 0)) {
+            hub.start();
+
+            MdhClient client = new MdhClient(new OkHttpClient.Builder()
+                    .addInterceptor(hub.createRedirect())
+                    .build());
+
+            ExportController controller = new ExportController(new GoldenRecordRepository(client, new UniverseCache(client)));
+
+            StreamingOutput export = controller.exportGoldenRecords(createBasic("username:password"), "hub.example.com", StubHub.UNIVERSE_ID);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            export.write(output);
+
+            String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+            Assert.assertEquals(50, lines.length);
+
+            JSONObject first = new JSONObject(lines[0]);
+            Assert.assertEquals("72bba6e1-c170-5853-aea7-8e4eb1a52cae", first.getString("recordId"));
+            Assert.assertEquals("Ada", first.getJSONObject("fields").getString("first_name"));
+        }
+    }
+
+    @Test
+    public void testTheEndpointNeedsTheHubsCredentials() {
+        ExportController controller = new ExportController(mock(GoldenRecordRepository.class));
+
+        assertProblem(400, () -> controller.exportGoldenRecords(createBasic("username:password"), null, TestConstants.UNIVERSE_ID));
+        assertProblem(401, () -> controller.exportGoldenRecords(null, "hub.example.com", TestConstants.UNIVERSE_ID));
+        assertProblem(401, () -> controller.exportGoldenRecords("Bearer token", "hub.example.com", TestConstants.UNIVERSE_ID));
+        assertProblem(401, () -> controller.exportGoldenRecords(createBasic("username"), "hub.example.com", TestConstants.UNIVERSE_ID));
+    }
+
+    private static void assertProblem(int status, Runnable runnable) {
+        try {
+            runnable.run();
+
+            Assert.fail("Expected a " + status + " to be thrown");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(status, e.getStatusCode());
+        }
+    }
+
+    private static String createBasic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+}
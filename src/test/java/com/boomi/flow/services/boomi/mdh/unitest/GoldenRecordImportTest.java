@@ -0,0 +1,429 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.common.RowReaders;
+import com.boomi.flow.services.boomi.mdh.controllers.ImportController;
+import com.boomi.flow.services.boomi.mdh.database.FieldMapper;
+import com.boomi.flow.services.boomi.mdh.load.StubHub;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordImporter;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import okhttp3.OkHttpClient;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXB;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+public class GoldenRecordImportTest {
+    @After
+    public void after() {
+        System.clearProperty("mdh.records.batch.size");
+        System.clearProperty("mdh.import.concurrency");
+    }
+
+    @Test
+    public void testCsvRowsAreReadWithQuotingAndFieldGroups() {
+        String csv = "\uFEFFname,contact.phone,contact.email,notes\r\n"
+                + "Ada,555-1000,,\"Said \"\"hello\"\", then left\"\r\n"
+                + "\r\n"
+                + "Grace,,grace@example.com,\"Two\nlines\"\n";
+
+        Iterator<Map<String, Object>> rows = RowReaders.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(ImmutableMap.of(
+                "name", "Ada",
+                "contact", ImmutableMap.of("phone", "555-1000"),
+                "notes", "Said \"hello\", then left"
+        ), rows.next());
+
+        Assert.assertEquals(ImmutableMap.of(
+                "name", "Grace",
+                "contact", ImmutableMap.of("email", "grace@example.com"),
+                "notes", "Two\nlines"
+        ), rows.next());
+
+        Assert.assertFalse(rows.hasNext());
+    }
+
+    @Test
+    public void testNdjsonRowsCanBeExportedRecords() {
+        String ndjson = "{\"name\":\"Ada\",\"contact\":{\"phone\":\"555-1000\"}}\n"
+                + "{\"recordId\":\"1234\",\"fields\":{\"name\":\"Grace\"},\"links\":[]}\n"
+                + "{\"name\":";
+
+        Iterator<Map<String, Object>> rows = RowReaders.ndjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(ImmutableMap.of("name", "Ada", "contact", ImmutableMap.of("phone", "555-1000")), rows.next());
+        Assert.assertEquals(ImmutableMap.of("name", "Grace"), rows.next());
+
+        try {
+            rows.hasNext();
+            rows.next();
+
+            Assert.fail("Expected the broken row to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(400, e.getStatusCode());
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Row 3 couldn't be read"));
+        }
+    }
+
+    @Test
+    public void testAnNdjsonRowThatIsntAnObjectCantBeRead() {
+        String ndjson = "{\"name\":\"Ada\"}\n"
+                + "null\n"
+                + "[\"Grace\"]\n";
+
+        Iterator<Map<String, Object>> rows = RowReaders.ndjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(ImmutableMap.of("name", "Ada"), rows.next());
+
+        for (int row = 2; row <= 3; row++) {
+            try {
+                rows.hasNext();
+                rows.next();
+
+                Assert.fail("Expected row " + row + " to fail");
+            } catch (ServiceProblemException e) {
+                Assert.assertEquals(400, e.getStatusCode());
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Row " + row + " couldn't be read"));
+            }
+        }
+    }
+
+    @Test
+    public void testRowsAreMappedLikeFlowObjects() throws IOException {
+        Universe universe = JAXB.unmarshal(Resources.getResource("field-map/repeatable/universe.xml"), Universe.class);
+
+        // Columns can be named after a field's unique ID, name or collection tag, in any case
+        Map<String, Object> row = ImmutableMap.<String, Object>builder()
+                .put("SINGLE_VALUE", "single value 2-1")
+                .put("other_single_value", "other single value 2")
+                .put("Single_Boolean_Value", false)
+                .put("nest2contact", ImmutableMap.of("NEST2_CONTACT_NAME", "contatc name 2", "nest2_contact_phone", "contact phone 2"))
+                .put("billing_address_collection_name", Arrays.asList(
+                        ImmutableMap.of("billing_address_street", "street 2-1"),
+                        ImmutableMap.of("BILLING_ADDRESS_STREET", "street 2-2")
+                ))
+                .put(GoldenRecordConstants.SOURCE_ID_FIELD, "flow")
+                .put("id", "1")
+                .build();
+
+        BatchUpdateRequest.Entity entity = new BatchUpdateRequest.Entity()
+                .setName(universe.getLayout().getModel().getName())
+                .setFields(FieldMapper.createMapFromRow(row, universe));
+
+        StringWriter bodyContent = new StringWriter();
+        JAXB.marshal(new BatchUpdateRequest().setSource("flow").setEntities(Collections.singletonList(entity)), bodyContent);
+
+        String expected = Resources.toString(Resources.getResource("field-map/repeatable/record-update-request-deserialized.xml"), Charsets.UTF_8);
+
+        Assert.assertEquals(expected, bodyContent.toString());
+    }
+
+    @Test
+    public void testRowsAreChunkedBySourceAndBadRowsAreRejected() {
+        System.setProperty("mdh.records.batch.size", "2");
+
+        MdhClient client = TestConstants.createClient();
+
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+        when(client.updateGoldenRecordsAsync(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            BatchUpdateRequest request = invocation.getArgument(4);
+
+            // The second chunk from the "crm" source fails
+            if ("crm".equals(request.getSource()) && request.getEntities().get(0).getFields().get("name").equals("record 5")) {
+                CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new ServiceProblemException(400, "The batch was invalid"));
+
+                return failed;
+            }
+
+            return CompletableFuture.completedFuture(null);
+        });
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            rows.add(ImmutableMap.of("name", "record " + i, GoldenRecordConstants.SOURCE_ID_FIELD, i % 2 == 0 ? "flow" : "crm"));
+        }
+
+        rows.add(3, ImmutableMap.of("unknown", "field"));
+
+        RecordingListener listener = new RecordingListener();
+
+        GoldenRecordImporter.Summary summary = new GoldenRecordImporter(client, new UniverseCache(client))
+                .importRecords(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, null, rows.iterator(), listener);
+
+        Assert.assertEquals(8, summary.getRows());
+        Assert.assertEquals(1, summary.getRejected());
+        Assert.assertEquals(5, summary.getImported());
+        Assert.assertEquals(2, summary.getFailed());
+        Assert.assertEquals(4, summary.getChunks());
+        Assert.assertEquals(1, summary.getFailedChunks());
+        Assert.assertNull(summary.getError());
+
+        Assert.assertEquals(Collections.singletonList("rejected 4: The column unknown isn't a field in the universe"), listener.rejected);
+        Assert.assertEquals(Collections.singletonList("failed crm [6, 8]: The batch was invalid"), listener.failed);
+        Assert.assertEquals(3, listener.saved.size());
+
+        ArgumentCaptor<BatchUpdateRequest> captor = ArgumentCaptor.forClass(BatchUpdateRequest.class);
+        verify(client, times(4)).updateGoldenRecordsAsync(any(), any(), any(), eq(TestConstants.UNIVERSE_ID), captor.capture());
+
+        for (BatchUpdateRequest request : captor.getAllValues()) {
+            for (BatchUpdateRequest.Entity entity : request.getEntities()) {
+                Assert.assertEquals("testing", entity.getName());
+                Assert.assertNotNull(entity.getFields().get("id"));
+                Assert.assertNull(entity.getFields().get(GoldenRecordConstants.SOURCE_ID_FIELD));
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyTheConfiguredNumberOfChunksAreInFlight() {
+        System.setProperty("mdh.records.batch.size", "1");
+        System.setProperty("mdh.import.concurrency", "2");
+
+        MdhClient client = TestConstants.createClient();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+
+        when(client.updateGoldenRecordsAsync(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                inFlight.decrementAndGet();
+            });
+        });
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(ImmutableMap.of("name", "record " + i));
+        }
+
+        RecordingListener listener = new RecordingListener();
+
+        GoldenRecordImporter.Summary summary = new GoldenRecordImporter(client, new UniverseCache(client))
+                .importRecords(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, "crm", rows.iterator(), listener);
+
+        Assert.assertEquals(10, summary.getImported());
+        Assert.assertEquals(10, listener.saved.size());
+        Assert.assertEquals(0, inFlight.get());
+        Assert.assertTrue("Expected no more than 2 chunks in flight, but there were " + mostInFlight.get(), mostInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testAnUnreadableRowStopsTheImport() {
+        MdhClient client = TestConstants.createClient();
+        when(client.updateGoldenRecordsAsync(any(), any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        String ndjson = "{\"name\":\"Ada\"}\n[1, 2]\n{\"name\":\"Grace\"}\n";
+
+        RecordingListener listener = new RecordingListener();
+
+        GoldenRecordImporter.Summary summary = new GoldenRecordImporter(client, new UniverseCache(client))
+                .importRecords(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, "crm", RowReaders.ndjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))), listener);
+
+        Assert.assertEquals(1, summary.getRows());
+        Assert.assertEquals(0, summary.getImported());
+        Assert.assertTrue(summary.getError(), summary.getError().startsWith("Row 2 couldn't be read"));
+
+        // The row that was read before the import stopped is still accounted for
+        Assert.assertEquals(1, summary.getFailed());
+        Assert.assertEquals(1, summary.getChunks());
+        Assert.assertEquals(1, summary.getFailedChunks());
+        Assert.assertEquals(1, listener.failed.size());
+        Assert.assertTrue(listener.failed.get(0), listener.failed.get(0).startsWith("failed crm [1]: Not sent, as the import stopped: Row 2 couldn't be read"));
+
+        verify(client, never()).updateGoldenRecordsAsync(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testRowsStillWaitingForTheirChunkAreFailedWhenTheImportStops() {
+        System.setProperty("mdh.records.batch.size", "2");
+
+        MdhClient client = TestConstants.createClient();
+        when(client.updateGoldenRecordsAsync(any(), any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        String ndjson = "{\"name\":\"Ada\",\"___sourceId\":\"crm\"}\n"
+                + "{\"name\":\"Grace\",\"___sourceId\":\"crm\"}\n"
+                + "{\"name\":\"Alan\",\"___sourceId\":\"crm\"}\n"
+                + "{\"name\":\"Edsger\",\"___sourceId\":\"flow\"}\n"
+                + "{\"name\":";
+
+        RecordingListener listener = new RecordingListener();
+
+        GoldenRecordImporter.Summary summary = new GoldenRecordImporter(client, new UniverseCache(client))
+                .importRecords(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, null, RowReaders.ndjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))), listener);
+
+        Assert.assertEquals(4, summary.getRows());
+        Assert.assertEquals(2, summary.getImported());
+        Assert.assertEquals(2, summary.getFailed());
+        Assert.assertEquals(3, summary.getChunks());
+        Assert.assertEquals(2, summary.getFailedChunks());
+        Assert.assertNotNull(summary.getError());
+
+        Assert.assertEquals(Collections.singletonList("saved crm 2"), listener.saved);
+        Assert.assertEquals(2, listener.failed.size());
+        Assert.assertTrue(listener.failed.get(0), listener.failed.get(0).startsWith("failed crm [3]: Not sent, as the import stopped"));
+        Assert.assertTrue(listener.failed.get(1), listener.failed.get(1).startsWith("failed flow [4]: Not sent, as the import stopped"));
+
+        verify(client, times(1)).updateGoldenRecordsAsync(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testColumnsAreOnlyMatchedInTheGroupTheyreGivenIn() {
+        Universe universe = JAXB.unmarshal(Resources.getResource("field-map/repeatable/universe.xml"), Universe.class);
+
+        assertRejected("The column billing_address_street isn't a field in the universe",
+                ImmutableMap.of("billing_address_street", "street 1"), universe);
+
+        assertRejected("The column nest2contact.single_value isn't a field in the field group nest2contact",
+                ImmutableMap.of("nest2contact", ImmutableMap.of("single_value", "single value 1")), universe);
+
+        assertRejected("The column billing_address_collection_name.nest2_contact_name isn't a field in the field group billing_address_collection_name",
+                ImmutableMap.of("billing_address_collection_name", Collections.singletonList(ImmutableMap.of("nest2_contact_name", "name 1"))), universe);
+    }
+
+    @Test
+    public void testAFieldCanOnlyBeGivenOnce() {
+        Universe universe = JAXB.unmarshal(Resources.getResource("field-map/repeatable/universe.xml"), Universe.class);
+
+        // A LinkedHashMap, so the columns are always added in the same order
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("single_value", "single value 1");
+        row.put("SINGLE_VALUE", "single value 2");
+
+        assertRejected("The columns single_value and SINGLE_VALUE are both the field single_value, so only one of them can be given", row, universe);
+    }
+
+    @Test
+    public void testAColumnSharedByTwoFieldsIsRejected() {
+        Universe.Layout.Model.Element code = new Universe.Layout.Model.Element();
+        code.setName("code");
+        code.setUniqueId("CODE_1");
+
+        Universe.Layout.Model.Element other = new Universe.Layout.Model.Element();
+        other.setName("other_code");
+        other.setUniqueId("CODE");
+
+        Universe universe = new Universe()
+                .setId(UUID.fromString(TestConstants.UNIVERSE_ID))
+                .setName("testing")
+                .setLayout(new Universe.Layout()
+                        .setIdXPath("/testing/id")
+                        .setModel(new Universe.Layout.Model()
+                                .setName("testing")
+                                .setElements(Arrays.asList(code, other))));
+
+        assertRejected("The column Code matches more than one field, so it can't be told which one to import",
+                ImmutableMap.of("Code", "1"), universe);
+
+        // Either field can still be given by a name only it has
+        Assert.assertEquals(ImmutableMap.of("code", "1", "other_code", "2"),
+                FieldMapper.createMapFromRow(ImmutableMap.of("code_1", "1", "other_code", "2"), universe));
+    }
+
+    private static void assertRejected(String message, Map<String, Object> row, Universe universe) {
+        try {
+            FieldMapper.createMapFromRow(row, universe);
+
+            Assert.fail("Expected the row to be rejected");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(400, e.getStatusCode());
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTheEndpointStreamsTheProgressOfAnImport() throws IOException {
+        try (StubHub hub = new StubHub(0, 0)) {
+            hub.start();
+
+            MdhClient client = new MdhClient(new OkHttpClient.Builder()
+                    .addInterceptor(hub.createRedirect())
+                    .build());
+
+            ImportController controller = new ImportController(new GoldenRecordImporter(client, new UniverseCache(client)));
+
+            StringBuilder csv = new StringBuilder("id,first_name,last_name\n");
+            for (int i = 0; i < 250; i++) {
+                csv.append(UUID.randomUUID()).append(",Ada,Lovelace ").append(i).append('\n');
+            }
+
+            String authorization = "Basic " + Base64.getEncoder().encodeToString("username:password".getBytes(StandardCharsets.UTF_8));
+
+            StreamingOutput progress = controller.importGoldenRecords(authorization, "text/csv; charset=utf-8", "hub.example.com", "flow", StubHub.UNIVERSE_ID, new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            progress.write(output);
+
+            String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+            Assert.assertEquals(3, lines.length);
+
+            Assert.assertEquals("saved", new JSONObject(lines[0]).getString("event"));
+            Assert.assertEquals("saved", new JSONObject(lines[1]).getString("event"));
+
+            JSONObject summary = new JSONObject(lines[2]);
+            Assert.assertEquals("complete", summary.getString("event"));
+            Assert.assertEquals(250, summary.getInt("imported"));
+            Assert.assertEquals(2, summary.getInt("chunks"));
+            Assert.assertFalse(summary.has("error"));
+        }
+    }
+
+    private static class RecordingListener implements GoldenRecordImporter.Listener {
+        private final List<String> rejected = new ArrayList<>();
+        private final List<String> saved = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+
+        @Override
+        public void rejected(long row, String message) {
+            rejected.add("rejected " + row + ": " + message);
+        }
+
+        @Override
+        public void saved(int chunk, String source, int records) {
+            saved.add("saved " + source + " " + records);
+        }
+
+        @Override
+        public void failed(int chunk, String source, List<Long> rows, String message) {
+            failed.add("failed " + source + " " + rows + ": " + message);
+        }
+    }
+}
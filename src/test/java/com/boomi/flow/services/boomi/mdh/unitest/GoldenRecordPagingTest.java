@@ -0,0 +1,121 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecord;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.manywho.sdk.api.run.elements.type.ListFilter;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+public class GoldenRecordPagingTest {
+    @After
+    public void after() {
+        System.clearProperty("mdh.records.autopaging.max");
+    }
+
+    private static GoldenRecordQueryResponse createPage(int size, String offsetToken) {
+        List<GoldenRecord> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            List<Property> properties = new ArrayList<>();
+            properties.add(new Property("name", "record " + i));
+
+            records.add(new GoldenRecord()
+                    .setRecordId(UUID.randomUUID().toString())
+                    .setMObject(new MObject("testing", "", properties)));
+        }
+
+        return new GoldenRecordQueryResponse()
+                .setResultCount(size)
+                .setOffsetToken(offsetToken)
+                .setRecords(records);
+    }
+
+    private static MdhClient createClient(GoldenRecordQueryResponse... pages) {
+        MdhClient client = TestConstants.createClient();
+
+        when(client.queryGoldenRecords(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    GoldenRecordQueryRequest request = invocation.getArgument(4);
+                    if (request.getOffsetToken() == null) {
+                        return pages[0];
+                    }
+
+                    return pages[Integer.parseInt(request.getOffsetToken())];
+                });
+
+        return client;
+    }
+
+    private static List<GoldenRecordQueryRequest> captureRequests(MdhClient client, int times) {
+        ArgumentCaptor<GoldenRecordQueryRequest> captor = ArgumentCaptor.forClass(GoldenRecordQueryRequest.class);
+        verify(client, times(times)).queryGoldenRecords(any(), any(), any(), any(), captor.capture());
+
+        return captor.getAllValues();
+    }
+
+    private static ListFilter createFilter(int limit) {
+        ListFilter filter = new ListFilter();
+        filter.setLimit(limit);
+
+        return filter;
+    }
+
+    @Test
+    public void testLimitsLargerThanAPageFollowOffsetTokens() {
+        MdhClient client = createClient(createPage(200, "1"), createPage(200, "2"), createPage(50, "3"));
+
+        List<MObject> objects = new GoldenRecordRepository(client, new UniverseCache(client))
+                .findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createFilter(450));
+
+        Assert.assertEquals(450, objects.size());
+
+        List<GoldenRecordQueryRequest> requests = captureRequests(client, 3);
+        Assert.assertNull(requests.get(0).getOffsetToken());
+        Assert.assertEquals(Integer.valueOf(200), requests.get(0).getLimit());
+        Assert.assertEquals("1", requests.get(1).getOffsetToken());
+        Assert.assertEquals(Integer.valueOf(200), requests.get(1).getLimit());
+        Assert.assertEquals("2", requests.get(2).getOffsetToken());
+        Assert.assertEquals(Integer.valueOf(50), requests.get(2).getLimit());
+    }
+
+    @Test
+    public void testPagingStopsAtTheLastPage() {
+        MdhClient client = createClient(createPage(200, "1"), createPage(120, "2"));
+
+        List<MObject> objects = new GoldenRecordRepository(client, new UniverseCache(client))
+                .findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createFilter(1000));
+
+        Assert.assertEquals(320, objects.size());
+
+        captureRequests(client, 2);
+    }
+
+    @Test
+    public void testPagingStopsAtTheConfiguredMaximum() {
+        System.setProperty("mdh.records.autopaging.max", "250");
+
+        MdhClient client = createClient(createPage(200, "1"), createPage(50, "2"));
+
+        List<MObject> objects = new GoldenRecordRepository(client, new UniverseCache(client))
+                .findAll(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createFilter(1000));
+
+        Assert.assertEquals(250, objects.size());
+
+        List<GoldenRecordQueryRequest> requests = captureRequests(client, 2);
+        Assert.assertEquals(Integer.valueOf(50), requests.get(1).getLimit());
+    }
+}
@@ -0,0 +1,91 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.client.HttpClientProvider;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class HttpClientProviderTest {
+    @After
+    public void after() {
+        System.clearProperty("mdh.http.timeout.connect");
+        System.clearProperty("mdh.http.timeout.read");
+        System.clearProperty("mdh.http.timeout.write");
+        System.clearProperty("mdh.http.dispatcher.max.requests");
+        System.clearProperty("mdh.http.dispatcher.max.requests.per.host");
+        System.clearProperty("mdh.http.protocols");
+    }
+
+    @Test
+    public void testDefaults() {
+        OkHttpClient client = new HttpClientProvider().get();
+
+        Assert.assertEquals(10000, client.connectTimeoutMillis());
+        Assert.assertEquals(60000, client.readTimeoutMillis());
+        Assert.assertEquals(60000, client.writeTimeoutMillis());
+        Assert.assertEquals(256, client.dispatcher().getMaxRequests());
+        Assert.assertEquals(32, client.dispatcher().getMaxRequestsPerHost());
+        Assert.assertEquals(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1), client.protocols());
+    }
+
+    @Test
+    public void testSettingsAreApplied() {
+        System.setProperty("mdh.http.timeout.connect", "3");
+        System.setProperty("mdh.http.timeout.read", "30");
+        System.setProperty("mdh.http.timeout.write", "20");
+        System.setProperty("mdh.http.dispatcher.max.requests", "100");
+        System.setProperty("mdh.http.dispatcher.max.requests.per.host", "10");
+        System.setProperty("mdh.http.protocols", "http/1.1");
+
+        OkHttpClient client = new HttpClientProvider().get();
+
+        Assert.assertEquals(3000, client.connectTimeoutMillis());
+        Assert.assertEquals(30000, client.readTimeoutMillis());
+        Assert.assertEquals(20000, client.writeTimeoutMillis());
+        Assert.assertEquals(100, client.dispatcher().getMaxRequests());
+        Assert.assertEquals(10, client.dispatcher().getMaxRequestsPerHost());
+        Assert.assertEquals(Collections.singletonList(Protocol.HTTP_1_1), client.protocols());
+    }
+
+    @Test
+    public void testInvalidProtocolsFallBackToTheDefault() {
+        System.setProperty("mdh.http.protocols", "h2");
+        Assert.assertEquals(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1), new HttpClientProvider().get().protocols());
+
+        System.setProperty("mdh.http.protocols", "gopher");
+        Assert.assertEquals(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1), new HttpClientProvider().get().protocols());
+    }
+
+    @Test
+    public void testMetricsArePublishedOverJmx() throws Exception {
+        new HttpClientProvider().get();
+        new HttpClientProvider().get();
+
+        ObjectName name = new ObjectName("com.boomi.flow.services.boomi.mdh:type=HttpClient");
+
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        Assert.assertEquals(0, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ConnectionCount"));
+        Assert.assertEquals(0L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TlsHandshakes"));
+    }
+
+    @Test
+    public void testMetricsArePublishedToTheRegistry() {
+        new HttpClientProvider().get();
+        new HttpClientProvider().get();
+
+        // Only the latest client is reported
+        Assert.assertEquals(2, ServiceMetrics.get().find("mdh.http.connections").gauges().size());
+        Assert.assertEquals(0, ServiceMetrics.get().get("mdh.http.connections").tag("state", "idle").gauge().value(), 0);
+        Assert.assertEquals(0, ServiceMetrics.get().get("mdh.http.calls").tag("state", "queued").gauge().value(), 0);
+        Assert.assertEquals(0, ServiceMetrics.get().get("mdh.http.tls.handshakes").functionCounter().count(), 0);
+        Assert.assertTrue(ServiceMetrics.scrape().contains("mdh_http_connections_opened_total"));
+    }
+}
@@ -0,0 +1,242 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HubResilienceTest {
+    private static final MediaType XML = MediaType.parse("application/xml");
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Before
+    public void before() {
+        System.setProperty("mdh.retry.backoff.base", "1");
+        System.setProperty("mdh.client.coalesce", "false");
+    }
+
+    @After
+    public void after() {
+        System.clearProperty("mdh.retry.backoff.base");
+        System.clearProperty("mdh.retry.max.attempts");
+        System.clearProperty("mdh.retry.after.max");
+        System.clearProperty("mdh.circuit.failure.threshold");
+        System.clearProperty("mdh.circuit.open.duration");
+        System.clearProperty("mdh.client.coalesce");
+    }
+
+    private MdhClient createClient(Response.Builder... responses) throws IOException {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        Iterator<Response.Builder> iterator = Arrays.asList(responses).iterator();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    calls.incrementAndGet();
+
+                    Response.Builder response = iterator.hasNext()
+                            ? iterator.next()
+                            : createResponse(200).body(ResponseBody.create(XML, content));
+
+                    return response.request(chain.request()).build();
+                })
+                .build();
+
+        return new MdhClient(httpClient);
+    }
+
+    private static Response.Builder createResponse(int code) {
+        return new Response.Builder()
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Testing")
+                .body(ResponseBody.create(MediaType.parse("text/plain"), "Testing"));
+    }
+
+    private static GoldenRecordQueryResponse query(MdhClient client) {
+        return client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+    }
+
+    @Test
+    public void testReadsAreRetried() throws IOException {
+        MdhClient client = createClient(createResponse(503), createResponse(502));
+
+        Assert.assertEquals(2, query(client).getRecords().size());
+        Assert.assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testAsyncReadsAreRetried() throws Exception {
+        MdhClient client = createClient(createResponse(503), createResponse(504));
+
+        GoldenRecordQueryResponse response = client.queryGoldenRecordsAsync("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest())
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, response.getRecords().size());
+        Assert.assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testRetryAfterIsHonoured() throws IOException {
+        MdhClient client = createClient(createResponse(429).header("Retry-After", "1"));
+
+        long start = System.currentTimeMillis();
+
+        query(client);
+
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1000);
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testARetryAfterLongerThanWeWaitIsntRetried() throws IOException {
+        System.setProperty("mdh.retry.after.max", "1000");
+
+        MdhClient client = createClient(createResponse(503).header("Retry-After", "60"));
+
+        long start = System.currentTimeMillis();
+
+        try {
+            query(client);
+
+            Assert.fail("Expected the query to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(503, e.getStatusCode());
+        }
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testWritesAreNotRetried() throws IOException {
+        MdhClient client = createClient(createResponse(503));
+
+        try {
+            client.updateGoldenRecords("atom.example.com", "username", "password", "universe", new BatchUpdateRequest()
+                    .setSource("flow")
+                    .setEntities(Collections.emptyList()));
+
+            Assert.fail("Expected the update to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(503, e.getStatusCode());
+        }
+
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testTheCircuitOpensAfterRepeatedFailures() throws IOException {
+        System.setProperty("mdh.retry.max.attempts", "1");
+        System.setProperty("mdh.circuit.failure.threshold", "2");
+
+        MdhClient client = createClient(createResponse(503), createResponse(504));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                query(client);
+
+                Assert.fail("Expected the query to fail");
+            } catch (ServiceProblemException e) {
+                Assert.assertTrue(e.getStatusCode() >= 503);
+            }
+        }
+
+        // The Hub is no longer called at all, until the circuit's pause is over
+        try {
+            query(client);
+
+            Assert.fail("Expected the query to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(503, e.getStatusCode());
+            Assert.assertTrue(e.getMessage().contains("paused"));
+        }
+
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testServerErrorsThatArentRetriedStillCountAgainstTheCircuit() throws IOException {
+        System.setProperty("mdh.circuit.failure.threshold", "2");
+
+        MdhClient client = createClient(createResponse(500), createResponse(500));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                query(client);
+
+                Assert.fail("Expected the query to fail");
+            } catch (ServiceProblemException e) {
+                Assert.assertEquals(500, e.getStatusCode());
+            }
+        }
+
+        try {
+            query(client);
+
+            Assert.fail("Expected the query to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(503, e.getStatusCode());
+            Assert.assertTrue(e.getMessage().contains("paused"));
+        }
+
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testATrialRequestThatThrowsLetsAnotherOneThrough() throws IOException {
+        System.setProperty("mdh.retry.max.attempts", "1");
+        System.setProperty("mdh.circuit.failure.threshold", "1");
+        System.setProperty("mdh.circuit.open.duration", "0");
+
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    switch (calls.incrementAndGet()) {
+                        case 1:
+                            return createResponse(503).request(chain.request()).build();
+                        case 2:
+                            throw new IllegalStateException("Testing");
+                        default:
+                            return createResponse(200).body(ResponseBody.create(XML, content)).request(chain.request()).build();
+                    }
+                })
+                .build();
+
+        MdhClient client = new MdhClient(httpClient);
+
+        // The first failure opens the circuit, and the trial request after it fails without a response
+        for (int i = 0; i < 2; i++) {
+            try {
+                query(client);
+
+                Assert.fail("Expected the query to fail");
+            } catch (RuntimeException e) {
+                // Expected
+            }
+        }
+
+        Assert.assertEquals(2, query(client).getRecords().size());
+        Assert.assertEquals(3, calls.get());
+    }
+}
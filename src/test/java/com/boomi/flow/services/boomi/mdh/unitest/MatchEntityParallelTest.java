@@ -0,0 +1,128 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
+import com.boomi.flow.services.boomi.mdh.match.MatchEntityResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordConstants;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class MatchEntityParallelTest {
+    private static final List<String> SOURCES = Arrays.asList("zeta", "alpha", "mid");
+
+    private static List<MObject> createObjects() {
+        List<MObject> objects = new ArrayList<>();
+        for (String source : SOURCES) {
+            List<Property> properties = new ArrayList<>();
+            properties.add(new Property("NAME", source));
+            properties.add(new Property(GoldenRecordConstants.SOURCE_ID_FIELD, source));
+
+            objects.add(new MObject(TestConstants.UNIVERSE_ID + "-match", "", properties));
+        }
+
+        return objects;
+    }
+
+    private static MatchEntityResponse createResponse(String source) {
+        List<Property> properties = new ArrayList<>();
+        properties.add(new Property("name", source));
+
+        MatchEntityResponse.MatchResult result = new MatchEntityResponse.MatchResult();
+        result.setStatus("SUCCESS");
+        result.setEntity(new MObject("testing", "", properties));
+
+        MatchEntityResponse response = new MatchEntityResponse();
+        response.setMatchResults(Collections.singletonList(result));
+
+        return response;
+    }
+
+    @Test
+    public void testResultsAreMergedInSourceOrder() {
+        MdhClient client = TestConstants.createClient();
+
+        // Make the first sources the slowest to answer, so they finish last
+        when(client.queryMatchEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    BatchUpdateRequest request = invocation.getArgument(4);
+
+                    Thread.sleep(50 * (SOURCES.size() - SOURCES.indexOf(request.getSource())));
+
+                    return createResponse(request.getSource());
+                });
+
+        List<MObject> objects = new MatchEntityRepository(client, new UniverseCache(client))
+                .matchEntity(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects());
+
+        List<String> sources = objects.stream()
+                .map(object -> object.getProperties().stream()
+                        .filter(property -> property.getDeveloperName().equals(GoldenRecordConstants.SOURCE_ID_FIELD))
+                        .map(Property::getContentValue)
+                        .findFirst()
+                        .orElse(null))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(SOURCES, sources);
+    }
+
+    @Test
+    public void testFailingSourceWaitsForTheOthers() {
+        MdhClient client = TestConstants.createClient();
+
+        when(client.queryMatchEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    BatchUpdateRequest request = invocation.getArgument(4);
+                    if (request.getSource().equals("zeta")) {
+                        throw new ServiceProblemException(400, "Bad match");
+                    }
+
+                    Thread.sleep(100);
+
+                    return createResponse(request.getSource());
+                });
+
+        try {
+            new MatchEntityRepository(client, new UniverseCache(client))
+                    .matchEntity(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects());
+
+            Assert.fail("Expected the match to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(400, e.getStatusCode());
+            Assert.assertTrue(e.getMessage().contains("1 of 3 requests failed"));
+        }
+
+        verify(client, times(3)).queryMatchEntity(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testMatchingFromThePoolDoesNotWaitOnThePool() throws Exception {
+        MdhClient client = TestConstants.createClient();
+
+        when(client.queryMatchEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> createResponse(((BatchUpdateRequest) invocation.getArgument(4)).getSource()));
+
+        // The thread matching takes part in sending the requests, so being one of the pool's own threads is fine
+        List<MObject> objects = CompletableFuture.supplyAsync(() -> new MatchEntityRepository(client, new UniverseCache(client))
+                .matchEntity(TestConstants.CONFIGURATION, TestConstants.UNIVERSE_ID, createObjects()), HubExecutor.get())
+                .get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(SOURCES.size(), objects.size());
+    }
+}
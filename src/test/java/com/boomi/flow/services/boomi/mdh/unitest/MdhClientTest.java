@@ -0,0 +1,531 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.HubLimiter;
+import com.google.common.base.Strings;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MdhClientTest {
+    private static final MediaType XML = MediaType.parse("application/xml");
+
+    private static MdhClient createClient(int code, byte[] content) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(code)
+                        .message("Testing")
+                        .body(ResponseBody.create(XML, content))
+                        .build())
+                .build();
+
+        return new MdhClient(httpClient);
+    }
+
+    @Test
+    public void testQueryResponseIsDecodedFromTheStream() throws IOException {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        GoldenRecordQueryResponse response = createClient(200, content)
+                .queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+
+        Assert.assertEquals(Integer.valueOf(2), response.getResultCount());
+        Assert.assertEquals(2, response.getRecords().size());
+    }
+
+    @Test
+    public void testErrorResponseBodyIsTruncated() {
+        String content = Strings.repeat("x", 100 * 1024);
+
+        try {
+            createClient(503, content.getBytes())
+                    .queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+
+            Assert.fail("Expected the query to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(503, e.getStatusCode());
+            Assert.assertTrue(e.getMessage().endsWith("..."));
+            Assert.assertTrue(e.getMessage().length() < 10 * 1024);
+        }
+    }
+
+    @Test
+    public void testBatchUpdateRequestIsStreamedAsXml() {
+        BatchUpdateRequest request = new BatchUpdateRequest()
+                .setSource("flow")
+                .setEntities(Collections.singletonList(new BatchUpdateRequest.Entity()
+                        .setName("contact")
+                        .setOp("CREATE")
+                        .setFields(Collections.singletonMap("name", "bob & sam"))));
+
+        AtomicReference<String> sent = new AtomicReference<>();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    Buffer buffer = new Buffer();
+                    chain.request().body().writeTo(buffer);
+                    sent.set(buffer.readUtf8());
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, ""))
+                            .build();
+                })
+                .build();
+
+        new MdhClient(httpClient).updateGoldenRecords("atom.example.com", "username", "password", "universe", request);
+
+        StringWriter expected = new StringWriter();
+        JAXB.marshal(request, expected);
+
+        Assert.assertEquals(expected.toString(), sent.get());
+    }
+
+    @Test
+    public void testIdenticalConcurrentQueriesShareOneCall() throws Exception {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    calls.incrementAndGet();
+
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, content))
+                            .build();
+                })
+                .build();
+
+        MdhClient client = new MdhClient(httpClient);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<GoldenRecordQueryResponse> first = executor.submit(() -> client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest().setLimit(10)));
+
+            // Wait for the first query to reach the Hub before sending the second
+            while (calls.get() == 0) {
+                Thread.sleep(10);
+            }
+
+            Future<GoldenRecordQueryResponse> second = executor.submit(() -> client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest().setLimit(10)));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            // Each caller gets its own copy of the records, as they're changed in place after loading
+            Assert.assertEquals(2, first.get().getRecords().size());
+            Assert.assertEquals(2, second.get().getRecords().size());
+            Assert.assertNotSame(first.get().getRecords().get(0), second.get().getRecords().get(0));
+            Assert.assertEquals(1, calls.get());
+
+            // Different queries don't share a call
+            client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest().setLimit(20));
+            Assert.assertEquals(2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a client whose first response from the Hub is held part of the way through being read, until it's released
+     */
+    private static MdhClient createHeldClient(byte[] content, AtomicInteger calls, CountDownLatch reading, CountDownLatch release) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    Source source = new Buffer().write(content);
+
+                    if (calls.incrementAndGet() == 1) {
+                        source = new ForwardingSource(source) {
+                            @Override
+                            public long read(Buffer sink, long byteCount) throws IOException {
+                                reading.countDown();
+
+                                try {
+                                    release.await(5, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    throw new IOException(e);
+                                }
+
+                                return super.read(sink, byteCount);
+                            }
+                        };
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, content.length, Okio.buffer(source)))
+                            .build();
+                })
+                .build();
+
+        return new MdhClient(httpClient);
+    }
+
+    @Test
+    public void testQueriesDontJoinAResponseThatIsAlreadyBeingRead() throws Exception {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        MdhClient client = createHeldClient(content, calls, reading, release);
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<GoldenRecordQueryResponse> first = executor.submit(() -> client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest()));
+
+            Assert.assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // The first response is being decoded straight from the Hub, so an identical query has to send its own
+            GoldenRecordQueryResponse second = client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+
+            release.countDown();
+
+            Assert.assertEquals(2, first.get(5, TimeUnit.SECONDS).getRecords().size());
+            Assert.assertEquals(2, second.getRecords().size());
+            Assert.assertEquals(2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUncachedQuarantineQueriesAreDecodedFromTheStream() throws Exception {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesQuarantineQueryResponses.xml"));
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        MdhClient client = createHeldClient(content, calls, reading, release);
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<QuarantineQueryResponse> first = executor.submit(() -> client.queryQuarantineEntries("atom.example.com", "username", "password", "universe", new QuarantineQueryRequest()));
+
+            Assert.assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // Nobody had joined the first query when the Hub responded, so it's decoded as it's read, and not shared
+            QuarantineQueryResponse second = client.queryQuarantineEntries("atom.example.com", "username", "password", "universe", new QuarantineQueryRequest());
+
+            release.countDown();
+
+            Assert.assertEquals(2, first.get(5, TimeUnit.SECONDS).getEntries().size());
+            Assert.assertEquals(2, second.getEntries().size());
+            Assert.assertEquals(2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedQueryFailuresAreGivenToEveryCaller() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    calls.incrementAndGet();
+
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(400)
+                            .message("Bad Request")
+                            .body(ResponseBody.create(XML, "<error><message>Bad query</message></error>"))
+                            .build();
+                })
+                .build();
+
+        MdhClient client = new MdhClient(httpClient);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<GoldenRecordQueryResponse> first = executor.submit(() -> client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest()));
+
+            while (calls.get() == 0) {
+                Thread.sleep(10);
+            }
+
+            Future<GoldenRecordQueryResponse> second = executor.submit(() -> client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest()));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<GoldenRecordQueryResponse> query : Arrays.asList(first, second)) {
+                try {
+                    query.get(5, TimeUnit.SECONDS);
+
+                    Assert.fail("Expected the query to fail");
+                } catch (ExecutionException e) {
+                    Assert.assertEquals(400, ((ServiceProblemException) e.getCause()).getStatusCode());
+                }
+            }
+
+            Assert.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCachedQueriesAreDroppedWhenTheUniverseIsWritten() throws IOException {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        AtomicInteger queries = new AtomicInteger();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    if (chain.request().url().encodedPath().endsWith("/query")) {
+                        queries.incrementAndGet();
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, content))
+                            .build();
+                })
+                .build();
+
+        System.setProperty("mdh.query.cache.ttl", "60");
+
+        MdhClient client;
+        try {
+            client = new MdhClient(httpClient);
+        } finally {
+            System.clearProperty("mdh.query.cache.ttl");
+        }
+
+        GoldenRecordQueryResponse first = client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+        GoldenRecordQueryResponse second = client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+
+        Assert.assertEquals(1, queries.get());
+        Assert.assertNotSame(first.getRecords().get(0), second.getRecords().get(0));
+
+        // Other users don't get the cached response
+        client.queryGoldenRecords("atom.example.com", "another", "password", "universe", new GoldenRecordQueryRequest());
+        Assert.assertEquals(2, queries.get());
+
+        client.updateGoldenRecords("atom.example.com", "username", "password", "universe", new BatchUpdateRequest()
+                .setSource("flow")
+                .setEntities(Collections.emptyList()));
+
+        client.queryGoldenRecords("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+        Assert.assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void testAsyncQueriesDontBlockTheCallingThread() throws Exception {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> sender = new AtomicReference<>();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    sender.set(Thread.currentThread());
+
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, content))
+                            .build();
+                })
+                .build();
+
+        CompletableFuture<GoldenRecordQueryResponse> future = new MdhClient(httpClient)
+                .queryGoldenRecordsAsync("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest());
+
+        Assert.assertFalse(future.isDone());
+
+        release.countDown();
+
+        Assert.assertEquals(2, future.get(5, TimeUnit.SECONDS).getRecords().size());
+        Assert.assertNotSame(Thread.currentThread(), sender.get());
+    }
+
+    @Test
+    public void testAsyncResponsesAreDecodedOffTheHttpClientsThreads() throws Exception {
+        byte[] content = Resources.toByteArray(Resources.getResource("testXmlMapperDeserializesGoldenRecordQueryResponses.xml"));
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> sender = new AtomicReference<>();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    sender.set(Thread.currentThread());
+
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, content))
+                            .build();
+                })
+                .build();
+
+        CompletableFuture<Thread> decoder = new MdhClient(httpClient)
+                .queryGoldenRecordsAsync("atom.example.com", "username", "password", "universe", new GoldenRecordQueryRequest())
+                .thenApply(response -> Thread.currentThread());
+
+        release.countDown();
+
+        Thread thread = decoder.get(5, TimeUnit.SECONDS);
+
+        Assert.assertNotSame(sender.get(), thread);
+        Assert.assertTrue(thread.getName().startsWith("mdh-decoder-"));
+    }
+
+    @Test
+    public void testAsyncUpdatesShareTheLimitOfTheirHub() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger sending = new AtomicInteger();
+        AtomicInteger mostSending = new AtomicInteger();
+        AtomicInteger sent = new AtomicInteger();
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    mostSending.accumulateAndGet(sending.incrementAndGet(), Math::max);
+                    sent.incrementAndGet();
+
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+
+                    sending.decrementAndGet();
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(XML, new byte[0]))
+                            .build();
+                })
+                .build();
+
+        MdhClient client = new MdhClient(httpClient);
+
+        // A Hub of its own, so its limit isn't shared with any other test
+        String hostname = "async.limited.example.com";
+
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            updates.add(client.updateGoldenRecordsAsync(hostname, "username", "password", "universe", new BatchUpdateRequest()
+                    .setSource("flow")
+                    .setEntities(Collections.emptyList())));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.get() < HubLimiter.concurrency() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Give any updates that weren't held back by the limit time to be sent
+        Thread.sleep(200);
+
+        Assert.assertEquals(HubLimiter.concurrency(), sent.get());
+
+        release.countDown();
+
+        HubExecutor.joinAll(updates, "update golden records");
+
+        Assert.assertEquals(10, sent.get());
+        Assert.assertEquals(HubLimiter.concurrency(), mostSending.get());
+    }
+
+    @Test
+    public void testAsyncFailuresCompleteTheFuture() {
+        CompletableFuture<Universe> future = createClient(404, new byte[0])
+                .findUniverseAsync("atom.example.com", "username", "password", "universe");
+
+        try {
+            HubExecutor.join(future);
+
+            Assert.fail("Expected the universe not to be found");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(404, e.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.ApplicationConfiguration;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.database.MdhRawDatabase;
+import com.boomi.flow.services.boomi.mdh.load.StubHub;
+import com.boomi.flow.services.boomi.mdh.match.MatchEntityRepository;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineRepository;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordRepository;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import com.boomi.flow.services.boomi.mdh.utilities.HubExecutor;
+import com.boomi.flow.services.boomi.mdh.utilities.RequestTrace;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import com.manywho.sdk.api.run.elements.type.MObject;
+import com.manywho.sdk.api.run.elements.type.ObjectDataType;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class RequestTraceTest {
+    @Before
+    public void before() {
+        System.setProperty("mdh.trace.enabled", "true");
+        System.setProperty("mdh.trace.header", "true");
+    }
+
+    @After
+    public void after() {
+        System.clearProperty("mdh.trace.enabled");
+        System.clearProperty("mdh.trace.header");
+        System.clearProperty("mdh.client.coalesce");
+
+        RequestTrace.takeServerTiming();
+    }
+
+    @Test
+    public void testNothingIsTracedByDefault() {
+        System.clearProperty("mdh.trace.enabled");
+
+        String result = RequestTrace.trace("golden record", "load", () -> {
+            Assert.assertNull(RequestTrace.current());
+
+            RequestTrace.record("hub", TimeUnit.MILLISECONDS.toNanos(10));
+
+            return "result";
+        });
+
+        Assert.assertEquals("result", result);
+        Assert.assertNull(RequestTrace.takeServerTiming());
+    }
+
+    @Test
+    public void testPhasesAreGivenBackInTheServerTimingHeader() {
+        RequestTrace.trace("golden record", "load", () -> {
+            RequestTrace.record("hub", TimeUnit.MILLISECONDS.toNanos(10));
+            RequestTrace.record("hub", TimeUnit.MILLISECONDS.toNanos(5));
+            RequestTrace.record("universe", TimeUnit.MILLISECONDS.toNanos(2));
+
+            return null;
+        });
+
+        String timing = RequestTrace.takeServerTiming();
+
+        Assert.assertNotNull(timing);
+        Assert.assertTrue(timing, timing.startsWith("universe;dur=2.0, hub;dur=15.0, total;dur="));
+
+        // The header is only ever given back once
+        Assert.assertNull(RequestTrace.takeServerTiming());
+    }
+
+    @Test
+    public void testTheHeaderIsOptional() {
+        System.clearProperty("mdh.trace.header");
+
+        RequestTrace.trace("golden record", "load", () -> {
+            Assert.assertNotNull(RequestTrace.current());
+
+            return null;
+        });
+
+        Assert.assertNull(RequestTrace.takeServerTiming());
+    }
+
+    @Test
+    public void testFailedOperationsAreTraced() {
+        try {
+            RequestTrace.trace("golden record", "save", () -> {
+                RequestTrace.record("hub", TimeUnit.MILLISECONDS.toNanos(1));
+
+                throw new ServiceProblemException(500, "Testing");
+            });
+
+            Assert.fail("Expected the operation to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals("Testing", e.getMessage());
+        }
+
+        Assert.assertNull(RequestTrace.current());
+        Assert.assertTrue(RequestTrace.takeServerTiming().startsWith("hub;dur=1.0"));
+    }
+
+    @Test
+    public void testTheTraceFollowsWorkOntoTheHubExecutor() {
+        RequestTrace.trace("golden record", "load", () -> CompletableFuture
+                .runAsync(() -> RequestTrace.record("mapping", TimeUnit.MILLISECONDS.toNanos(3)), HubExecutor.get())
+                .join());
+
+        Assert.assertTrue(RequestTrace.takeServerTiming().startsWith("mapping;dur=3.0"));
+    }
+
+    @Test
+    public void testLoadingGoldenRecordsIsTracedThroughEachPhase() throws Exception {
+        System.setProperty("mdh.client.coalesce", "false");
+
+        try (StubHub hub = new StubHub(0, 0)) {
+            hub.start();
+
+            MdhClient client = new MdhClient(new OkHttpClient.Builder()
+                    .addInterceptor(hub.createRedirect())
+                    .build());
+
+            UniverseCache universeCache = new UniverseCache(client);
+
+            MdhRawDatabase database = new MdhRawDatabase(
+                    new QuarantineRepository(client, universeCache),
+                    new GoldenRecordRepository(client, universeCache),
+                    new MatchEntityRepository(client, universeCache)
+            );
+
+            ApplicationConfiguration configuration = new ApplicationConfiguration()
+                    .setHubHostname("hub.example.com")
+                    .setHubUsername("username")
+                    .setHubToken("password");
+
+            ObjectDataType objectDataType = new ObjectDataType();
+            objectDataType.setDeveloperName(StubHub.UNIVERSE_ID + "-golden-record");
+
+            List<MObject> objects = database.findAll(configuration, objectDataType, null, null, null);
+
+            Assert.assertEquals(50, objects.size());
+
+            String timing = RequestTrace.takeServerTiming();
+            Assert.assertNotNull(timing);
+
+            for (String phase : new String[] { "universe;", "query;", "hub;", "decode;", "mobject;", "mapping;", "total;" }) {
+                Assert.assertTrue("Expected the " + phase + " phase in " + timing, timing.contains(phase));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.client.HubRequestMetrics;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.controllers.MetricsController;
+import com.boomi.flow.services.boomi.mdh.load.StubHub;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.utilities.ServiceMetrics;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+
+public class ServiceMetricsTest {
+    private StubHub hub;
+    private MdhClient client;
+
+    // Every test talks to a different "Hub", so the meters it checks only count its own requests
+    private final String hostname = UUID.randomUUID() + ".example.com";
+
+    @Before
+    public void before() throws IOException {
+        System.setProperty("mdh.client.coalesce", "false");
+
+        hub = new StubHub(0, 0);
+        hub.start();
+
+        client = new MdhClient(new OkHttpClient.Builder()
+                .addInterceptor(new HubRequestMetrics())
+                .addInterceptor(hub.createRedirect())
+                .build());
+    }
+
+    @After
+    public void after() {
+        hub.close();
+
+        System.clearProperty("mdh.client.coalesce");
+    }
+
+    @Test
+    public void testHubRequestsAreTimedByOperation() {
+        client.findAllUniverses(hostname, "username", "password");
+        client.findUniverse(hostname, "username", "password", StubHub.UNIVERSE_ID);
+        client.queryGoldenRecords(hostname, "username", "password", StubHub.UNIVERSE_ID, new GoldenRecordQueryRequest());
+        client.queryQuarantineEntries(hostname, "username", "password", StubHub.UNIVERSE_ID, new QuarantineQueryRequest());
+        client.queryMatchEntity(hostname, "username", "password", StubHub.UNIVERSE_ID, createBatch());
+        client.updateGoldenRecords(hostname, "username", "password", StubHub.UNIVERSE_ID, createBatch());
+
+        for (String operation : new String[] { "universes.list", "universes.get", "records.query", "quarantine.query", "match", "records.update" }) {
+            Timer timer = findHubRequests(operation, "200");
+
+            Assert.assertNotNull("Expected a timer for " + operation, timer);
+            Assert.assertEquals(1, timer.count());
+        }
+    }
+
+    @Test
+    public void testHubRequestsAreTaggedWithTheirStatus() {
+        try {
+            client.findUniverse(hostname, "username", "password", "unknown");
+
+            Assert.fail("Expected the universe to not be found");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(404, e.getStatusCode());
+        }
+
+        Assert.assertEquals(1, findHubRequests("universes.get", "404").count());
+        Assert.assertNull(findHubRequests("universes.get", "200"));
+    }
+
+    @Test
+    public void testPayloadsAreMeasured() throws IOException {
+        long requests = ServiceMetrics.hubPayloads("records.update", "request").count();
+        double requestBytes = ServiceMetrics.hubPayloads("records.update", "request").totalAmount();
+        double responseBytes = ServiceMetrics.hubPayloads("records.query", "response").totalAmount();
+
+        client.queryGoldenRecords(hostname, "username", "password", StubHub.UNIVERSE_ID, new GoldenRecordQueryRequest());
+        client.updateGoldenRecords(hostname, "username", "password", StubHub.UNIVERSE_ID, createBatch());
+
+        long recorded = Resources.toByteArray(Resources.getResource("load/golden-records.xml")).length;
+
+        Assert.assertEquals(recorded, ServiceMetrics.hubPayloads("records.query", "response").totalAmount() - responseBytes, 0);
+
+        // Saves are streamed into the request, so they're counted as they're written
+        Assert.assertEquals(requests + 1, ServiceMetrics.hubPayloads("records.update", "request").count());
+        Assert.assertTrue(ServiceMetrics.hubPayloads("records.update", "request").totalAmount() > requestBytes);
+    }
+
+    @Test
+    public void testSerializingAndDeserializingAreTimed() {
+        long serialized = ServiceMetrics.codec("golden record", "serialize").count();
+        long deserialized = ServiceMetrics.codec("golden record", "deserialize").count();
+
+        client.queryGoldenRecords(hostname, "username", "password", StubHub.UNIVERSE_ID, new GoldenRecordQueryRequest());
+
+        Assert.assertEquals(serialized + 1, ServiceMetrics.codec("golden record", "serialize").count());
+        Assert.assertEquals(deserialized + 1, ServiceMetrics.codec("golden record", "deserialize").count());
+    }
+
+    @Test
+    public void testOperationsAreTimedWithTheirOutcome() {
+        long successes = ServiceMetrics.get().timer("mdh.operations", "type", "test", "operation", "load", "outcome", "success").count();
+        long errors = ServiceMetrics.get().timer("mdh.operations", "type", "test", "operation", "load", "outcome", "error").count();
+
+        ServiceMetrics.timeOperation("test", "load", () -> Collections.emptyList());
+
+        try {
+            ServiceMetrics.timeOperation("test", "load", () -> {
+                throw new ServiceProblemException(500, "Testing");
+            });
+
+            Assert.fail("Expected the operation to fail");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals("Testing", e.getMessage());
+        }
+
+        Assert.assertEquals(successes + 1, ServiceMetrics.get().timer("mdh.operations", "type", "test", "operation", "load", "outcome", "success").count());
+        Assert.assertEquals(errors + 1, ServiceMetrics.get().timer("mdh.operations", "type", "test", "operation", "load", "outcome", "error").count());
+    }
+
+    @Test
+    public void testMetricsAreScraped() {
+        client.findUniverse(hostname, "username", "password", StubHub.UNIVERSE_ID);
+
+        String scraped = ServiceMetrics.scrape();
+
+        Assert.assertTrue(scraped.contains("mdh_hub_requests_seconds_count{host=\"" + hostname + "\",operation=\"universes.get\",status=\"200\",}"));
+        Assert.assertTrue(scraped.contains("jvm_memory_used_bytes"));
+    }
+
+    @Test
+    public void testMetricsAreOnlyServedWithTheToken() {
+        MetricsController controller = new MetricsController();
+
+        assertStatus(404, () -> controller.metrics("Bearer anything"));
+
+        System.setProperty("mdh.metrics.token", "a token");
+        try {
+            assertStatus(401, () -> controller.metrics(null));
+            assertStatus(401, () -> controller.metrics("Basic YSB0b2tlbg=="));
+            assertStatus(401, () -> controller.metrics("Bearer another token"));
+
+            Assert.assertTrue(controller.metrics("Bearer a token").contains("jvm_memory_used_bytes"));
+        } finally {
+            System.clearProperty("mdh.metrics.token");
+        }
+    }
+
+    private static void assertStatus(int status, Runnable runnable) {
+        try {
+            runnable.run();
+
+            Assert.fail("Expected the metrics not to be served");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(status, e.getStatusCode());
+        }
+    }
+
+    private Timer findHubRequests(String operation, String status) {
+        return ServiceMetrics.get().find("mdh.hub.requests")
+                .tags("host", hostname, "operation", operation, "status", status)
+                .timer();
+    }
+
+    private static BatchUpdateRequest createBatch() {
+        return new BatchUpdateRequest()
+                .setSource("flow")
+                .setEntities(Collections.singletonList(new BatchUpdateRequest.Entity()
+                        .setName("person")
+                        .setFields(ImmutableMap.of("id", "1", "first_name", "Ada"))));
+    }
+}
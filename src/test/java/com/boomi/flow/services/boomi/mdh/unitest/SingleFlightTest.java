@@ -0,0 +1,76 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.utilities.SingleFlight;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+    @Test
+    public void testConcurrentCallersShareTheFailure() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> flight.call("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                throw new ServiceProblemException(404, "Not found");
+            }));
+
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<String> second = executor.submit(() -> flight.call("key", () -> {
+                calls.incrementAndGet();
+
+                return "second";
+            }));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> future : new Future[] { first, second }) {
+                try {
+                    future.get();
+
+                    Assert.fail("Expected the call to fail");
+                } catch (Exception e) {
+                    Assert.assertTrue(e.getCause() instanceof ServiceProblemException);
+                    Assert.assertEquals(404, ((ServiceProblemException) e.getCause()).getStatusCode());
+                }
+            }
+
+            Assert.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFinishedCallsAreNotReused() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Assert.assertEquals(Integer.valueOf(1), flight.call("key", calls::incrementAndGet));
+        Assert.assertEquals(Integer.valueOf(2), flight.call("key", calls::incrementAndGet));
+    }
+}
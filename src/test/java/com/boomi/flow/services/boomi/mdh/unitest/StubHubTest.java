@@ -0,0 +1,102 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.common.BatchUpdateRequest;
+import com.boomi.flow.services.boomi.mdh.load.StubHub;
+import com.boomi.flow.services.boomi.mdh.match.MatchEntityResponse;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryRequest;
+import com.boomi.flow.services.boomi.mdh.quarantine.QuarantineQueryResponse;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryRequest;
+import com.boomi.flow.services.boomi.mdh.records.GoldenRecordQueryResponse;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.manywho.sdk.api.run.ServiceProblemException;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes sure the recorded responses the load harness replays still decode into what the service expects
+ */
+public class StubHubTest {
+    private StubHub hub;
+    private MdhClient client;
+
+    @Before
+    public void before() throws IOException {
+        System.setProperty("mdh.client.coalesce", "false");
+
+        hub = new StubHub(0, 0);
+        hub.start();
+
+        client = new MdhClient(new OkHttpClient.Builder()
+                .addInterceptor(hub.createRedirect())
+                .build());
+    }
+
+    @After
+    public void after() {
+        hub.close();
+
+        System.clearProperty("mdh.client.coalesce");
+    }
+
+    @Test
+    public void testUniverses() {
+        List<Universe> universes = client.findAllUniverses("hub.example.com", "username", "password");
+
+        Assert.assertEquals(1, universes.size());
+        Assert.assertEquals(StubHub.UNIVERSE_ID, universes.get(0).getId().toString());
+
+        Universe universe = client.findUniverse("hub.example.com", "username", "password", StubHub.UNIVERSE_ID);
+
+        Assert.assertEquals("person", universe.getName());
+    }
+
+    @Test
+    public void testGoldenRecords() {
+        GoldenRecordQueryResponse response = client.queryGoldenRecords("hub.example.com", "username", "password", StubHub.UNIVERSE_ID, new GoldenRecordQueryRequest());
+
+        Assert.assertEquals(50, response.getRecords().size());
+        Assert.assertNotNull(response.getRecords().get(0).getMObject());
+    }
+
+    @Test
+    public void testQuarantineEntries() {
+        QuarantineQueryResponse response = client.queryQuarantineEntries("hub.example.com", "username", "password", StubHub.UNIVERSE_ID, new QuarantineQueryRequest());
+
+        Assert.assertEquals(20, response.getEntries().size());
+        Assert.assertNotNull(response.getEntries().get(0).getEntity());
+    }
+
+    @Test
+    public void testMatchEntities() {
+        MatchEntityResponse response = client.queryMatchEntity("hub.example.com", "username", "password", StubHub.UNIVERSE_ID, new BatchUpdateRequest().setSource("flow").setEntities(new ArrayList<>()));
+
+        Assert.assertEquals(5, response.getMatchResults().size());
+        Assert.assertEquals("SUCCESS", response.getMatchResults().get(0).getStatus());
+    }
+
+    @Test
+    public void testUnknownPathsAreNotFound() {
+        try {
+            client.findUniverse("hub.example.com", "username", "password", "unknown");
+
+            Assert.fail("Expected the stub to not know the universe");
+        } catch (ServiceProblemException e) {
+            Assert.assertEquals(404, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testRequestsAreCounted() {
+        client.findUniverse("hub.example.com", "username", "password", StubHub.UNIVERSE_ID);
+
+        Assert.assertEquals(1, hub.getRequestCount());
+    }
+}
@@ -0,0 +1,113 @@
+package com.boomi.flow.services.boomi.mdh.unitest;
+
+import com.boomi.flow.services.boomi.mdh.TestConstants;
+import com.boomi.flow.services.boomi.mdh.client.MdhClient;
+import com.boomi.flow.services.boomi.mdh.universes.Universe;
+import com.boomi.flow.services.boomi.mdh.universes.UniverseCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+public class UniverseCacheTest {
+    private static Universe createUniverse(String version) {
+        return new Universe()
+                .setId(UUID.fromString(TestConstants.UNIVERSE_ID))
+                .setVersion(UUID.fromString(version))
+                .setName("testing")
+                .setLayout(new Universe.Layout()
+                        .setIdXPath("/item/id")
+                        .setModel(new Universe.Layout.Model().setName("testing")));
+    }
+
+    @Test
+    public void testUniverseIsOnlyFetchedOnce() {
+        MdhClient client = mock(MdhClient.class);
+        Universe universe = createUniverse("bb072194-2279-42b3-84c1-2f1b2a38c71e");
+
+        when(client.findUniverse("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID))
+                .thenReturn(universe);
+
+        UniverseCache cache = new UniverseCache(client);
+
+        Assert.assertSame(universe, cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID));
+        Assert.assertSame(universe, cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID));
+
+        verify(client, times(1)).findUniverse("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+    }
+
+    @Test
+    public void testUniverseFoundWithoutBlockingIsCached() {
+        MdhClient client = mock(MdhClient.class);
+        Universe universe = createUniverse("bb072194-2279-42b3-84c1-2f1b2a38c71e");
+
+        CompletableFuture<Universe> found = new CompletableFuture<>();
+
+        when(client.findUniverseAsync("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID))
+                .thenReturn(found);
+
+        UniverseCache cache = new UniverseCache(client);
+
+        CompletableFuture<Universe> first = cache.findAsync("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+        Assert.assertFalse(first.isDone());
+
+        found.complete(universe);
+
+        Assert.assertSame(universe, first.join());
+        Assert.assertSame(universe, cache.findAsync("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID).join());
+        Assert.assertSame(universe, cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID));
+
+        verify(client, times(1)).findUniverseAsync(any(), any(), any(), any());
+        verify(client, never()).findUniverse(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testUniverseIsCachedPerUsername() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.findUniverse(any(), any(), any(), any()))
+                .thenReturn(createUniverse("bb072194-2279-42b3-84c1-2f1b2a38c71e"));
+
+        UniverseCache cache = new UniverseCache(client);
+        cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+        cache.find("atom.example.com", "another username", "password", TestConstants.UNIVERSE_ID);
+
+        verify(client, times(2)).findUniverse(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testChangedVersionReplacesCachedUniverse() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.findUniverse(any(), any(), any(), any()))
+                .thenReturn(createUniverse("bb072194-2279-42b3-84c1-2f1b2a38c71e"));
+
+        UniverseCache cache = new UniverseCache(client);
+        cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+
+        Universe changed = createUniverse("9196c0f1-cf26-4768-91a1-9291ca04630b");
+        cache.update("atom.example.com", "username", "password", changed);
+
+        Assert.assertSame(changed, cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID));
+
+        verify(client, times(1)).findUniverse(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testUniverseIsCachedPerToken() {
+        MdhClient client = mock(MdhClient.class);
+
+        when(client.findUniverse(any(), any(), any(), any()))
+                .thenReturn(createUniverse("bb072194-2279-42b3-84c1-2f1b2a38c71e"));
+
+        UniverseCache cache = new UniverseCache(client);
+        cache.find("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+        cache.find("atom.example.com", "username", "a revoked password", TestConstants.UNIVERSE_ID);
+
+        verify(client).findUniverse("atom.example.com", "username", "password", TestConstants.UNIVERSE_ID);
+        verify(client).findUniverse("atom.example.com", "username", "a revoked password", TestConstants.UNIVERSE_ID);
+    }
+}